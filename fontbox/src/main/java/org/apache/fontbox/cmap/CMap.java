@@ -104,16 +104,17 @@ public class CMap
         // save the position in the string
         in.mark(4);
 
-        // mapping algorithm
-        List<Byte> bytes = new ArrayList<Byte>(4);
+        // mapping algorithm, the bytes are collected in an int as this is called for every glyph
+        int code = 0;
+        int rangeCount = codespaceRanges.size();
         for (int i = 0; i < 4; i++)
         {
-            bytes.add((byte)in.read());
-            for (CodespaceRange range : codespaceRanges)
+            code = code << 8 | in.read() & 0xff;
+            for (int r = 0; r < rangeCount; r++)
             {
-                if (range.isFullMatch(bytes))
+                if (codespaceRanges.get(r).isFullMatch(code, i + 1))
                 {
-                    return toInt(bytes);
+                    return code;
                 }
             }
         }
@@ -122,15 +123,17 @@ public class CMap
         in.reset();
 
         // modified mapping algorithm
-        bytes = new ArrayList<Byte>(4);
+        code = 0;
         for (int i = 0; i < 4; i++)
         {
-            bytes.add((byte)in.read());
+            byte b = (byte)in.read();
+            code = code << 8 | b & 0xff;
             CodespaceRange match = null;
             CodespaceRange shortest = null;
-            for (CodespaceRange range : codespaceRanges)
+            for (int r = 0; r < rangeCount; r++)
             {
-                if (range.isPartialMatch(bytes.get(i), i))
+                CodespaceRange range = codespaceRanges.get(r);
+                if (range.isPartialMatch(b, i))
                 {
                     if (match == null)
                     {
@@ -157,29 +160,15 @@ public class CMap
             }
 
             // we're done when we have enough bytes for the matched range
-            if (match.getStart().length == bytes.size())
+            if (match.getStart().length == i + 1)
             {
-                return toInt(bytes);
+                return code;
             }
         }
 
         throw new IOException("CMap is invalid");
     }
 
-    /**
-     * Returns an int given a List<Byte>
-     */
-    private int toInt(List<Byte> data)
-    {
-        int code = 0;
-        for (byte b : data)
-        {
-            code <<= 8;
-            code |= (b + 256) % 256;
-        }
-        return code;
-    }
-
     /**
      * Returns the CID for the given character code.
      *
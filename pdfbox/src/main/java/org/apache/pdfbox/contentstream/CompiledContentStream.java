@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.contentstream;
+
+import java.util.List;
+
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.common.COSStreamArray;
+
+/**
+ * A content stream in a compact, pre-parsed form, which can be processed again without decoding
+ * and parsing the stream. Standard operators are kept as opcodes and numeric operands are packed
+ * into arrays of primitives, while other operators and operands such as names, strings and inline
+ * images are kept in a side table. Instances are immutable and may be shared by several threads.
+ *
+ * @see org.apache.pdfbox.pdmodel.ResourceCache#getContentStream(COSStream)
+ */
+public final class CompiledContentStream
+{
+    // the kinds of operands
+    private static final byte INTEGER = 0;
+    private static final byte REAL = 1;
+    private static final byte OBJECT = 2;
+
+    // estimated size of an array slot and of an object in the side table
+    private static final int REFERENCE_SIZE = 8;
+    private static final int OBJECT_SIZE = 32;
+
+    private final COSStream[] sources;
+    private final int[] modificationCounts;
+
+    // the opcode of each operator, or -1 - the index of the operator in the side table
+    private final int[] opcodes;
+    // the index of the first operand of each operator, followed by the number of operands
+    private final int[] operandStarts;
+    private final byte[] operandKinds;
+    // the integer value, the bits of the real value or the index in the side table
+    private final long[] operandValues;
+    private final Object[] objects;
+    private final long size;
+
+    private CompiledContentStream(Builder builder)
+    {
+        sources = builder.sources;
+        modificationCounts = builder.modificationCounts;
+        opcodes = copyOf(builder.opcodes, builder.operatorCount);
+        operandStarts = copyOf(builder.operandStarts, builder.operatorCount + 1);
+        int operandCount = builder.operandStarts[builder.operatorCount];
+        operandKinds = new byte[operandCount];
+        System.arraycopy(builder.operandKinds, 0, operandKinds, 0, operandCount);
+        operandValues = new long[operandCount];
+        System.arraycopy(builder.operandValues, 0, operandValues, 0, operandCount);
+        objects = new Object[builder.objectCount];
+        System.arraycopy(builder.objects, 0, objects, 0, builder.objectCount);
+        size = builder.size;
+    }
+
+    private static int[] copyOf(int[] array, int length)
+    {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * Returns the streams holding the data of the given content stream, the single stream itself
+     * or the streams of a page's content array. The first of them is used as the key of the
+     * pre-parsed content stream.
+     *
+     * @param stream a content stream
+     * @return the streams, or null if the content stream can't be pre-parsed
+     */
+    static COSStream[] getSources(COSStream stream)
+    {
+        if (stream instanceof COSStreamArray)
+        {
+            COSStreamArray array = (COSStreamArray) stream;
+            COSStream[] streams = new COSStream[array.getStreamCount()];
+            for (int i = 0; i < streams.length; i++)
+            {
+                COSBase base = array.get(i);
+                if (base instanceof COSObject)
+                {
+                    base = ((COSObject) base).getObject();
+                }
+                if (!(base instanceof COSStream))
+                {
+                    return null;
+                }
+                streams[i] = (COSStream) base;
+            }
+            return streams.length > 0 ? streams : null;
+        }
+        return stream != null ? new COSStream[] { stream } : null;
+    }
+
+    /**
+     * Returns true if this was parsed from the given streams and none of them has been modified
+     * since then.
+     */
+    boolean isCurrent(COSStream[] streams)
+    {
+        if (streams.length != sources.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < streams.length; i++)
+        {
+            if (streams[i] != sources[i]
+                    || streams[i].getModificationCount() != modificationCounts[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the estimated number of bytes used by this pre-parsed content stream.
+     *
+     * @return the size in bytes
+     */
+    public long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of operators.
+     */
+    int getOperatorCount()
+    {
+        return opcodes.length;
+    }
+
+    /**
+     * Returns the operator at the given index.
+     */
+    Operator getOperator(int index)
+    {
+        int opcode = opcodes[index];
+        if (opcode >= 0)
+        {
+            return Operator.getOperator(opcode);
+        }
+        return (Operator) objects[-1 - opcode];
+    }
+
+    /**
+     * Adds the operands of the operator at the given index to the given list.
+     */
+    void getOperands(int index, List<COSBase> operands)
+    {
+        for (int i = operandStarts[index], end = operandStarts[index + 1]; i < end; i++)
+        {
+            long value = operandValues[i];
+            switch (operandKinds[i])
+            {
+                case INTEGER:
+                    operands.add(COSInteger.get(value));
+                    break;
+                case REAL:
+                    operands.add(new COSFloat(Float.intBitsToFloat((int) value)));
+                    break;
+                default:
+                    operands.add((COSBase) objects[(int) value]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Collects the operators of a content stream while it is parsed.
+     */
+    static final class Builder
+    {
+        private final COSStream[] sources;
+        private final int[] modificationCounts;
+        private final long maxSize;
+
+        private int[] opcodes = new int[64];
+        private int[] operandStarts = new int[65];
+        private int operatorCount = 0;
+        private byte[] operandKinds = new byte[128];
+        private long[] operandValues = new long[128];
+        private Object[] objects = new Object[16];
+        private int objectCount = 0;
+        private long size;
+
+        /**
+         * Constructor. The modification counts of the streams are taken before they are parsed.
+         *
+         * @param sources the streams as returned by {@link CompiledContentStream#getSources}
+         * @param maxSize the maximum estimated size in bytes
+         */
+        Builder(COSStream[] sources, long maxSize)
+        {
+            this.sources = sources;
+            this.maxSize = maxSize;
+            modificationCounts = new int[sources.length];
+            for (int i = 0; i < sources.length; i++)
+            {
+                modificationCounts[i] = sources[i].getModificationCount();
+            }
+            size = OBJECT_SIZE + sources.length * (REFERENCE_SIZE + 4);
+        }
+
+        /**
+         * Adds an operator and its operands.
+         *
+         * @param operator the operator
+         * @param operands the operands
+         * @return false if the maximum size has been exceeded, the builder must not be used then
+         */
+        boolean add(Operator operator, List<COSBase> operands)
+        {
+            if (operatorCount + 1 == opcodes.length)
+            {
+                opcodes = grow(opcodes);
+                operandStarts = grow(operandStarts);
+            }
+            int opcode = operator.getOpcode();
+            if (opcode == Operator.NO_OPCODE || Operator.getOperator(opcode) != operator)
+            {
+                // custom operators and inline images
+                opcode = -1 - addObject(operator);
+            }
+            opcodes[operatorCount] = opcode;
+            size += 8;
+
+            int start = operandStarts[operatorCount];
+            int count = operands.size();
+            if (start + count > operandKinds.length)
+            {
+                int length = Math.max(2 * operandKinds.length, start + count);
+                byte[] newKinds = new byte[length];
+                System.arraycopy(operandKinds, 0, newKinds, 0, start);
+                operandKinds = newKinds;
+                long[] newValues = new long[length];
+                System.arraycopy(operandValues, 0, newValues, 0, start);
+                operandValues = newValues;
+            }
+            for (int i = 0; i < count; i++)
+            {
+                COSBase operand = operands.get(i);
+                if (operand instanceof COSInteger)
+                {
+                    operandKinds[start + i] = INTEGER;
+                    operandValues[start + i] = ((COSInteger) operand).longValue();
+                }
+                else if (operand instanceof COSFloat && isPackable((COSFloat) operand))
+                {
+                    operandKinds[start + i] = REAL;
+                    operandValues[start + i] =
+                            Float.floatToIntBits(((COSFloat) operand).floatValue());
+                }
+                else
+                {
+                    operandKinds[start + i] = OBJECT;
+                    operandValues[start + i] = addObject(operand);
+                }
+            }
+            size += 9L * count;
+            operandStarts[++operatorCount] = start + count;
+            return size <= maxSize;
+        }
+
+        // a real is packed if the float gives the same COSFloat as the parsed value
+        private static boolean isPackable(COSFloat real)
+        {
+            float value = real.floatValue();
+            return Double.parseDouble(String.valueOf(value)) == real.doubleValue();
+        }
+
+        private int addObject(Object object)
+        {
+            if (objectCount == objects.length)
+            {
+                Object[] newObjects = new Object[2 * objects.length];
+                System.arraycopy(objects, 0, newObjects, 0, objectCount);
+                objects = newObjects;
+            }
+            objects[objectCount] = object;
+            size += REFERENCE_SIZE + OBJECT_SIZE;
+            if (object instanceof Operator && ((Operator) object).getImageData() != null)
+            {
+                size += ((Operator) object).getImageData().length;
+            }
+            return objectCount++;
+        }
+
+        private static int[] grow(int[] array)
+        {
+            int[] newArray = new int[2 * array.length];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            return newArray;
+        }
+
+        /**
+         * Returns the pre-parsed content stream.
+         */
+        CompiledContentStream build()
+        {
+            return new CompiledContentStream(this);
+        }
+    }
+}
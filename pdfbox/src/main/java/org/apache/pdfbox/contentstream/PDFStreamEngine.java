@@ -21,8 +21,8 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -37,12 +37,14 @@ import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.filter.MissingImageReaderException;
 import org.apache.pdfbox.pdfparser.PDFStreamParser;
 import org.apache.pdfbox.pdmodel.MissingResourceException;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDFontFactory;
@@ -72,8 +74,15 @@ public class PDFStreamEngine
 {
     private static final Log LOG = LogFactory.getLog(PDFStreamEngine.class);
 
+    // the maximum estimated size of a content stream kept in pre-parsed form, 16 MB
+    private static final long MAX_COMPILED_SIZE = 16L * 1024 * 1024;
+
     private final Map<String, OperatorProcessor> operators = new HashMap<String, OperatorProcessor>();
 
+    // the processors of the standard operators indexed by opcode, as found in the map
+    private final OperatorProcessor[] standardOperators =
+            new OperatorProcessor[Operator.STANDARD_OPERATOR_COUNT];
+
     private Matrix textMatrix;
     private Matrix textLineMatrix;
 
@@ -84,6 +93,9 @@ public class PDFStreamEngine
     private boolean isProcessingPage;
     private Matrix initialMatrix;
 
+    // reused by showText, null while in use by a (nested) call
+    private TextInputStream textInput = new TextInputStream();
+
     /**
      * Creates a new PDFStreamEngine.
      */
@@ -102,7 +114,7 @@ public class PDFStreamEngine
     public void registerOperatorProcessor(String operator, OperatorProcessor op)
     {
         op.setContext(this);
-        operators.put(operator, op);
+        putOperator(operator, op);
     }
 
     /**
@@ -113,7 +125,17 @@ public class PDFStreamEngine
     public final void addOperator(OperatorProcessor op)
     {
         op.setContext(this);
-        operators.put(op.getName(), op);
+        putOperator(op.getName(), op);
+    }
+
+    private void putOperator(String name, OperatorProcessor op)
+    {
+        operators.put(name, op);
+        int opcode = Operator.getOpcode(name);
+        if (opcode != Operator.NO_OPCODE)
+        {
+            standardOperators[opcode] = op;
+        }
     }
 
     /**
@@ -447,8 +469,28 @@ public class PDFStreamEngine
      */
     private void processStreamOperators(PDContentStream contentStream) throws IOException
     {
+        // the operands are collected in one list, the operators get a read-only view of it
         List<COSBase> arguments = new ArrayList<COSBase>();
-        PDFStreamParser parser = new PDFStreamParser(contentStream.getContentStream());
+        List<COSBase> operands = Collections.unmodifiableList(arguments);
+
+        // streams which have been parsed before are replayed from the cache, others are kept
+        // there in pre-parsed form while they are parsed
+        COSStream stream = contentStream.getContentStream();
+        ResourceCache cache = resources.getResourceCache();
+        COSStream[] sources = cache != null ? CompiledContentStream.getSources(stream) : null;
+        CompiledContentStream.Builder builder = null;
+        if (sources != null)
+        {
+            CompiledContentStream compiled = cache.getContentStream(sources[0]);
+            if (compiled != null && compiled.isCurrent(sources))
+            {
+                processCompiledOperators(compiled, arguments, operands);
+                return;
+            }
+            builder = new CompiledContentStream.Builder(sources, MAX_COMPILED_SIZE);
+        }
+
+        PDFStreamParser parser = new PDFStreamParser(stream);
         try
         {
             Iterator<Object> iter = parser.getTokenIterator();
@@ -461,8 +503,13 @@ public class PDFStreamEngine
                 }
                 else if (token instanceof Operator)
                 {
-                    processOperator((Operator) token, arguments);
-                    arguments = new ArrayList<COSBase>();
+                    if (builder != null && !builder.add((Operator) token, arguments))
+                    {
+                        // too large to be kept
+                        builder = null;
+                    }
+                    processOperator((Operator) token, operands);
+                    arguments.clear();
                 }
                 else
                 {
@@ -474,6 +521,26 @@ public class PDFStreamEngine
         {
             parser.close();
         }
+        if (builder != null)
+        {
+            cache.put(sources[0], builder.build());
+        }
+    }
+
+    /**
+     * Processes the operators of a pre-parsed content stream.
+     */
+    private void processCompiledOperators(CompiledContentStream compiled,
+                                          List<COSBase> arguments, List<COSBase> operands)
+            throws IOException
+    {
+        int count = compiled.getOperatorCount();
+        for (int i = 0; i < count; i++)
+        {
+            compiled.getOperands(i, arguments);
+            processOperator(compiled.getOperator(i), operands);
+            arguments.clear();
+        }
     }
 
     /**
@@ -615,7 +682,7 @@ public class PDFStreamEngine
     protected void applyTextAdjustment(float tx, float ty) throws IOException
     {
         // update the text matrix
-        textMatrix.concatenate(Matrix.getTranslateInstance(tx, ty));
+        textMatrix.translate(tx, ty);
     }
 
     /**
@@ -647,70 +714,86 @@ public class PDFStreamEngine
                 fontSize * horizontalScaling, 0, // 0
                 0, fontSize,                     // 0
                 0, textState.getRise());         // 1
+        // reused for every glyph
+        Matrix parametersTextMatrix = new Matrix();
 
-        // read the stream until it is empty
-        InputStream in = new ByteArrayInputStream(string);
-        while (in.available() > 0)
-        {
-            // decode a character
-            int before = in.available();
-            int code = font.readCode(in);
-            int codeLength = before - in.available();
-            String unicode = font.toUnicode(code);
-
-            // Word spacing shall be applied to every occurrence of the single-byte character code
-            // 32 in a string when using a simple font or a composite font that defines code 32 as
-            // a single-byte code.
-            float wordSpacing = 0;
-            if (codeLength == 1 && code == 32)
+        // the input stream is reused unless showText is called by a Type 3 glyph
+        TextInputStream in = textInput;
+        if (in == null)
+        {
+            in = new TextInputStream();
+        }
+        textInput = null;
+        in.setText(string);
+        try
+        {
+            // read the stream until it is empty
+            while (in.available() > 0)
             {
-                wordSpacing += textState.getWordSpacing();
-            }
+                // decode a character
+                int before = in.available();
+                int code = font.readCode(in);
+                int codeLength = before - in.available();
+                String unicode = font.toUnicode(code);
+
+                // Word spacing shall be applied to every occurrence of the single-byte character
+                // code 32 in a string when using a simple font or a composite font that defines
+                // code 32 as a single-byte code.
+                float wordSpacing = 0;
+                if (codeLength == 1 && code == 32)
+                {
+                    wordSpacing += textState.getWordSpacing();
+                }
 
-            // text rendering matrix (text space -> device space)
-            Matrix ctm = state.getCurrentTransformationMatrix();
-            Matrix textRenderingMatrix = parameters.multiply(textMatrix).multiply(ctm);
+                // text rendering matrix (text space -> device space)
+                Matrix ctm = state.getCurrentTransformationMatrix();
+                Matrix textRenderingMatrix =
+                        parameters.multiply(textMatrix, parametersTextMatrix).multiply(ctm);
 
-            // get glyph's position vector if this is vertical text
-            // changes to vertical text should be tested with PDFBOX-2294 and PDFBOX-1422
-            if (font.isVertical())
-            {
-                // position vector, in text space
-                Vector v = font.getPositionVector(code);
+                // get glyph's position vector if this is vertical text
+                // changes to vertical text should be tested with PDFBOX-2294 and PDFBOX-1422
+                if (font.isVertical())
+                {
+                    // position vector, in text space
+                    Vector v = font.getPositionVector(code);
 
-                // apply the position vector to the horizontal origin to get the vertical origin
-                textRenderingMatrix.translate(v);
-            }
+                    // apply the position vector to the horizontal origin to get the vertical origin
+                    textRenderingMatrix.translate(v);
+                }
 
-            // get glyph's horizontal and vertical displacements, in text space
-            Vector w = font.getDisplacement(code);
+                // get glyph's horizontal and vertical displacements, in text space
+                Vector w = font.getDisplacement(code);
 
-            // process the decoded glyph
-            saveGraphicsState();
-            showGlyph(textRenderingMatrix, font, code, unicode, w);
-            restoreGraphicsState();
+                // process the decoded glyph
+                showGlyph(textRenderingMatrix, font, code, unicode, w);
 
-            // calculate the combined displacements
-            float tx, ty;
-            if (font.isVertical())
-            {
-                tx = 0;
-                ty = w.getY() * fontSize + charSpacing + wordSpacing;
-            }
-            else
-            {
-                tx = (w.getX() * fontSize + charSpacing + wordSpacing) * horizontalScaling;
-                ty = 0;
-            }
+                // calculate the combined displacements
+                float tx, ty;
+                if (font.isVertical())
+                {
+                    tx = 0;
+                    ty = w.getY() * fontSize + charSpacing + wordSpacing;
+                }
+                else
+                {
+                    tx = (w.getX() * fontSize + charSpacing + wordSpacing) * horizontalScaling;
+                    ty = 0;
+                }
 
-            // update the text matrix
-            textMatrix.concatenate(Matrix.getTranslateInstance(tx, ty));
+                // update the text matrix
+                textMatrix.translate(tx, ty);
+            }
+        }
+        finally
+        {
+            textInput = in;
         }
     }
 
     /**
      * Called when a glyph is to be processed.This method is intended for overriding in subclasses,
-     * the default implementation does nothing.
+     * the default implementation does nothing. The graphics state is not saved for each glyph,
+     * thus implementations which change it have to save and restore it themselves.
      *
      * @param textRenderingMatrix the current text rendering matrix, T<sub>rm</sub>
      * @param font the current font
@@ -784,7 +867,8 @@ public class PDFStreamEngine
     }
 
     /**
-     * This is used to handle an operation.
+     * This is used to handle an operation. The operands of content stream operators are a view of
+     * a list which is reused for the next operator, so they must not be kept after this call.
      * 
      * @param operator The operation to perform.
      * @param operands The list of arguments.
@@ -792,8 +876,10 @@ public class PDFStreamEngine
      */
     protected void processOperator(Operator operator, List<COSBase> operands) throws IOException
     {
-        String name = operator.getName();
-        OperatorProcessor processor = operators.get(name);
+        // standard operators are looked up by their opcode, others by name
+        int opcode = operator.getOpcode();
+        OperatorProcessor processor = opcode != Operator.NO_OPCODE ? standardOperators[opcode]
+                : operators.get(operator.getName());
         if (processor != null)
         {
             processor.setContext(this);
@@ -997,4 +1083,23 @@ public class PDFStreamEngine
         float y = ctm.getScaleY() + ctm.getShearY();
         return width * (float)Math.sqrt((x * x + y * y) * 0.5);
     }
+
+    /**
+     * A byte array input stream which can be reset to another array.
+     */
+    private static final class TextInputStream extends ByteArrayInputStream
+    {
+        private TextInputStream()
+        {
+            super(new byte[0]);
+        }
+
+        void setText(byte[] text)
+        {
+            buf = text;
+            pos = 0;
+            count = text.length;
+            mark = 0;
+        }
+    }
 }
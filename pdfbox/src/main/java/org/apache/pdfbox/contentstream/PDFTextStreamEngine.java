@@ -69,6 +69,11 @@ public class PDFTextStreamEngine extends PDFStreamEngine
     private PDRectangle pageSize;
     private GlyphList glyphList;
 
+    // reused for every glyph
+    private final Matrix displacementMatrix = new Matrix();
+    private final Matrix nextTextMatrix = new Matrix();
+    private final Matrix nextTextRenderingMatrix = new Matrix();
+
     /**
      * Constructor.
      */
@@ -146,10 +151,11 @@ public class PDFTextStreamEngine extends PDFStreamEngine
         float ty = 0; // todo: support vertical writing mode
 
         // (modified) combined displacement matrix
-        Matrix td = Matrix.getTranslateInstance(tx, ty);
+        displacementMatrix.setValue(2, 0, tx);
+        displacementMatrix.setValue(2, 1, ty);
 
-        // (modified) text rendering matrix
-        Matrix nextTextRenderingMatrix = td.multiply(textMatrix).multiply(ctm); // text space -> device space
+        // (modified) text rendering matrix, text space -> device space
+        displacementMatrix.multiply(textMatrix, nextTextMatrix).multiply(ctm, nextTextRenderingMatrix);
         float nextX = nextTextRenderingMatrix.getTranslateX();
         float nextY = nextTextRenderingMatrix.getTranslateY();
 
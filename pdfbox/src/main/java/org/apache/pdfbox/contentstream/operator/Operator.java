@@ -18,6 +18,8 @@ package org.apache.pdfbox.contentstream.operator;
 
 import org.apache.pdfbox.cos.COSDictionary;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -27,21 +29,61 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class Operator
 {
+    /**
+     * The opcode of operators which aren't standard operators.
+     */
+    public static final int NO_OPCODE = -1;
+
+    /** the operators of PDF 32000-1:2008 Annex A, the index of an operator is its opcode */
+    private static final String[] STANDARD_OPERATOR_NAMES =
+    {
+        "b", "B", "b*", "B*", "BDC", "BI", "BMC", "BT", "BX", "c", "cm", "CS", "cs", "d", "d0",
+        "d1", "Do", "DP", "EI", "EMC", "ET", "EX", "f", "F", "f*", "G", "g", "gs", "h", "i", "ID",
+        "j", "J", "K", "k", "l", "m", "M", "MP", "n", "q", "Q", "re", "RG", "rg", "ri", "s", "S",
+        "SC", "sc", "SCN", "scn", "sh", "T*", "Tc", "Td", "TD", "Tf", "Tj", "TJ", "TL", "Tm", "Tr",
+        "Ts", "Tw", "Tz", "v", "w", "W", "W*", "y", "'", "\""
+    };
+
+    /**
+     * The number of standard operators. Their opcodes are 0 to STANDARD_OPERATOR_COUNT - 1.
+     */
+    public static final int STANDARD_OPERATOR_COUNT = STANDARD_OPERATOR_NAMES.length;
+
     private final String theOperator;
+    private final int opcode;
     private byte[] imageData;
     private COSDictionary imageParameters;
 
+    /** map for the standard operators, it isn't modified after class initialization */
+    private static final Map<String, Operator> standardOperators =
+            new HashMap<String, Operator>(STANDARD_OPERATOR_COUNT * 2);
+
+    /** the standard operators indexed by opcode */
+    private static final Operator[] standardOperatorsByOpcode = new Operator[STANDARD_OPERATOR_COUNT];
+
     /** map for singleton operator objects; use {@link ConcurrentHashMap} for better scalability with multiple threads */
     private static final ConcurrentHashMap<String,Operator> operators = new ConcurrentHashMap<String, Operator>();
 
+    static
+    {
+        for (int i = 0; i < STANDARD_OPERATOR_COUNT; i++)
+        {
+            String name = STANDARD_OPERATOR_NAMES[i];
+            standardOperatorsByOpcode[i] = new Operator(name, i);
+            standardOperators.put(name, standardOperatorsByOpcode[i]);
+        }
+    }
+
     /**
      * Constructor.
      *
      * @param aOperator The operator that this object will represent.
+     * @param opcode The opcode of the operator.
      */
-    private Operator(String aOperator)
+    private Operator(String aOperator, int opcode)
     {
         theOperator = aOperator;
+        this.opcode = opcode;
         if( aOperator.startsWith( "/" ) )
         {
             throw new RuntimeException( "Operators are not allowed to start with / '" + aOperator + "'" );
@@ -61,16 +103,20 @@ public class Operator
         if( operator.equals( "ID" ) || operator.equals( "BI" ) )
         {
             //we can't cache the ID operators.
-            operation = new Operator( operator );
+            operation = new Operator( operator, getOpcode( operator ) );
         }
         else
         {
-            operation = operators.get( operator );
+            operation = standardOperators.get( operator );
+            if( operation == null )
+            {
+                operation = operators.get( operator );
+            }
             if( operation == null )
             {
                 // another thread may has already added an operator of this kind
                 // make sure that we get the same operator
-                operation = operators.putIfAbsent( operator, new Operator( operator ) );
+                operation = operators.putIfAbsent( operator, new Operator( operator, NO_OPCODE ) );
                 if ( operation == null )
                 {
                     operation = operators.get( operator );
@@ -81,6 +127,38 @@ public class Operator
         return operation;
     }
 
+    /**
+     * This is used to get the cached standard operator with the given opcode. The instances of
+     * the inline image operators BI and ID don't carry any image, the parser creates a new
+     * instance for each inline image.
+     *
+     * @param opcode The opcode of a standard operator.
+     *
+     * @return The cached operator.
+     * @throws IllegalArgumentException If the opcode doesn't belong to a standard operator.
+     */
+    public static Operator getOperator( int opcode )
+    {
+        if( opcode < 0 || opcode >= STANDARD_OPERATOR_COUNT )
+        {
+            throw new IllegalArgumentException( "Invalid opcode " + opcode );
+        }
+        return standardOperatorsByOpcode[opcode];
+    }
+
+    /**
+     * Returns the opcode of the given operator.
+     *
+     * @param operator The operator keyword.
+     *
+     * @return The opcode of the standard operator or {@link #NO_OPCODE} for other operators.
+     */
+    public static int getOpcode( String operator )
+    {
+        Operator operation = standardOperators.get( operator );
+        return operation == null ? NO_OPCODE : operation.opcode;
+    }
+
     /**
      * This will get the name of the operator.
      *
@@ -91,6 +169,17 @@ public class Operator
         return theOperator;
     }
 
+    /**
+     * This will get the opcode of the operator, which can be used to look up standard operators
+     * in an array.
+     *
+     * @return The opcode of the standard operator or {@link #NO_OPCODE} for other operators.
+     */
+    public int getOpcode()
+    {
+        return opcode;
+    }
+
     /**
      * This will print a string rep of this class.
      *
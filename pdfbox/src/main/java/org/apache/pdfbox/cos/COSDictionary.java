@@ -19,7 +19,6 @@ package org.apache.pdfbox.cos;
 import java.io.IOException;
 import java.util.Calendar;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,8 +37,9 @@ public class COSDictionary extends COSBase
 
     /**
      * The name-value pairs of this dictionary. The pairs are kept in the order they were added to the dictionary.
+     * Small dictionaries, which are the vast majority, keep their pairs in an array instead of a hash table.
      */
-    protected Map<COSName, COSBase> items = new LinkedHashMap<COSName, COSBase>();
+    protected Map<COSName, COSBase> items = new SmallMap<COSName, COSBase>();
 
     /**
      * Constructor.
@@ -56,6 +56,7 @@ public class COSDictionary extends COSBase
      */
     public COSDictionary(COSDictionary dict)
     {
+        items = new SmallMap<COSName, COSBase>(dict.size());
         items.putAll(dict.items);
     }
 
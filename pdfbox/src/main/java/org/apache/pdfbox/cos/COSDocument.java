@@ -25,9 +25,12 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.io.ScratchFile;
 import org.apache.pdfbox.pdfparser.PDFObjectStreamParser;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
 
@@ -51,15 +54,15 @@ public class COSDocument extends COSBase implements Closeable
     /**
      * Maps ObjectKeys to a COSObject. Note that references to these objects
      * are also stored in COSDictionary objects that map a name to a specific object.
+     * Objects of a lazily loaded document are added on demand, possibly by several threads.
      */
-    private final Map<COSObjectKey, COSObject> objectPool =
-        new HashMap<COSObjectKey, COSObject>();
+    private final ConcurrentMap<COSObjectKey, COSObject> objectPool =
+        new ConcurrentHashMap<COSObjectKey, COSObject>();
 
     /**
      * Maps object and generation id to object byte offsets.
      */
-    private final Map<COSObjectKey, Long> xrefTable =
-        new HashMap<COSObjectKey, Long>();
+    private final XrefIndex xrefTable = new XrefIndex();
 
     /**
      * Document trailer dictionary.
@@ -86,9 +89,20 @@ public class COSDocument extends COSBase implements Closeable
 
     private boolean isXRefStream;
     
-    private final File scratchDirectory;
-    
-    private final boolean useScratchFile;
+    /**
+     * The scratch file holding the data of all streams, null if the data is held in memory.
+     */
+    private final ScratchFile scratchFile;
+
+    /**
+     * The source this document was parsed from, closed together with this document.
+     */
+    private Closeable source;
+
+    /**
+     * The parser of a lazily loaded document, which parses the objects on demand.
+     */
+    private ICOSParser parser;
 
     /**
      * Constructor.
@@ -113,8 +127,19 @@ public class COSDocument extends COSBase implements Closeable
      */
     public COSDocument(File scratchDir, boolean useScratchFiles)
     {
-        scratchDirectory = scratchDir;
-        useScratchFile = useScratchFiles;
+        this(useScratchFiles ? new ScratchFile(scratchDir) : null);
+    }
+
+    /**
+     * Constructor that will use the given scratch file for storage of the PDF streams.
+     * The scratch file is owned by this document and closed together with it.
+     *
+     * @param scratchFile the scratch file shared by all streams of this document,
+     *                    or <code>null</code> to hold the streams in memory
+     */
+    public COSDocument(ScratchFile scratchFile)
+    {
+        this.scratchFile = scratchFile;
     }
 
     /**
@@ -132,7 +157,7 @@ public class COSDocument extends COSBase implements Closeable
      */
     public COSStream createCOSStream()
     {
-        return new COSStream( useScratchFile, scratchDirectory);
+        return new COSStream( scratchFile );
     }
 
     /**
@@ -144,11 +169,12 @@ public class COSDocument extends COSBase implements Closeable
      */
     public COSStream createCOSStream(COSDictionary dictionary)
     {
-        return new COSStream( dictionary, useScratchFile, scratchDirectory );
+        return new COSStream( dictionary, scratchFile );
     }
 
     /**
-     * This will get the first dictionary object by type.
+     * This will get the first dictionary object by type. In a lazily loaded document this parses
+     * all objects which aren't parsed yet, until the object is found.
      *
      * @param type The type of the object.
      *
@@ -202,7 +228,8 @@ public class COSDocument extends COSBase implements Closeable
     }
 
     /**
-     * This will get a dictionary object by type.
+     * This will get a dictionary object by type. In a lazily loaded document this parses all
+     * objects which aren't parsed yet.
      *
      * @param type The type of the object.
      *
@@ -443,6 +470,18 @@ public class COSDocument extends COSBase implements Closeable
      */
     public COSObject getCatalog() throws IOException
     {
+        // try the root of the trailer first, to avoid parsing all objects of a lazily loaded
+        // document
+        COSBase root = trailer != null ? trailer.getItem(COSName.ROOT) : null;
+        if (root instanceof COSObject)
+        {
+            COSBase rootObject = ((COSObject) root).getObject();
+            if (rootObject instanceof COSDictionary
+                    && COSName.CATALOG.equals(((COSDictionary) rootObject).getItem(COSName.TYPE)))
+            {
+                return (COSObject) root;
+            }
+        }
         COSObject catalog = getObjectByType( COSName.CATALOG );
         if( catalog == null )
         {
@@ -511,17 +550,57 @@ public class COSDocument extends COSBase implements Closeable
             {
                 for (COSObject object : list) 
                 {
-                    COSBase cosObject = object.getObject();
+                    // objects of a lazily loaded document which aren't parsed yet have no
+                    // streams to close, they must not be parsed now
+                    COSBase cosObject = object.getObjectIfParsed();
                     if (cosObject instanceof COSStream)
                     {
                         ((COSStream)cosObject).close();
                     }
                 }
             }
+            if (scratchFile != null)
+            {
+                scratchFile.close();
+            }
+            if (source != null)
+            {
+                source.close();
+            }
             closed = true;
         }
     }
 
+    /**
+     * Sets the source this document was parsed from. The data of the streams may be read from
+     * the source on demand, thus it is kept open until this document is closed.
+     *
+     * @param documentSource the source of this document
+     */
+    public void setSource(Closeable documentSource)
+    {
+        source = documentSource;
+    }
+
+    /**
+     * Sets the parser of a lazily loaded document. All objects of the pool which aren't parsed
+     * yet, and all objects which are added to the pool later, are parsed by the given parser
+     * when they are accessed the first time.
+     *
+     * @param documentParser the parser of this document
+     */
+    public void setParser(ICOSParser documentParser)
+    {
+        parser = documentParser;
+        for (COSObject object : objectPool.values())
+        {
+            if (object.getObject() == null)
+            {
+                object.setParser(documentParser);
+            }
+        }
+    }
+
     /**
      * Returns true if this document has been closed.
      */
@@ -579,11 +658,18 @@ public class COSDocument extends COSBase implements Closeable
     /**
      * This method will search the list of objects for types of ObjStm.  If it finds
      * them then it will parse out all of the objects from the stream that is contains.
+     * A lazily loaded document parses the objects of object streams when they are accessed,
+     * thus nothing is done for it.
      *
      * @throws IOException If there is an error parsing the stream.
      */
     public void dereferenceObjectStreams() throws IOException
     {
+        if (parser != null)
+        {
+            // searching the object streams would parse all objects
+            return;
+        }
         for( COSObject objStream : getObjectsByType( COSName.OBJ_STM ) )
         {
             COSStream stream = (COSStream)objStream.getObject();
@@ -594,7 +680,7 @@ public class COSDocument extends COSBase implements Closeable
                 COSObjectKey key = new COSObjectKey( next );
                 if ( objectPool.get(key) == null || objectPool.get(key).getObject() == null ||
                      // xrefTable stores negated objNr of objStream for objects in objStreams
-                     (xrefTable.containsKey(key) && xrefTable.get(key) == -objStream.getObjectNumber().longValue()) )
+                     xrefTable.getOffset(key.getNumber(), key.getGeneration()) == -objStream.getObjectNumber().longValue() )
                 {
                     COSObject obj = getObjectFromPool(key);
                     obj.setObject(next.getObject());
@@ -627,7 +713,16 @@ public class COSDocument extends COSBase implements Closeable
             {
                 obj.setObjectNumber( COSInteger.get( key.getNumber() ) );
                 obj.setGenerationNumber( COSInteger.get( key.getGeneration() ) );
-                objectPool.put(key, obj);
+                if (parser != null)
+                {
+                    obj.setParser(parser);
+                }
+                // another thread may have added the object meanwhile
+                COSObject existing = objectPool.putIfAbsent(key, obj);
+                if (existing != null)
+                {
+                    obj = existing;
+                }
             }
         }
         return obj;
@@ -644,7 +739,7 @@ public class COSDocument extends COSBase implements Closeable
     }
 
     /**
-     * Populate XRef HashMap with given values.
+     * Populate XRef table with given values.
      * Each entry maps ObjectKeys to byte offsets in the file.
      * @param xrefTableValues  xref table entries to be added
      */
@@ -658,7 +753,7 @@ public class COSDocument extends COSBase implements Closeable
      * to byte offsets in the file.
      * @return mapping of ObjectsKeys to byte offsets
      */
-    public Map<COSObjectKey, Long> getXrefTable()
+    public XrefIndex getXrefTable()
     {
         return xrefTable;
     }
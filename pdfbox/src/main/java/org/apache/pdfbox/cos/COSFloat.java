@@ -28,7 +28,9 @@ import java.math.BigDecimal;
  */
 public class COSFloat extends COSNumber
 {
-    private BigDecimal value;
+    private double value;
+    // the string representation, created when needed unless the value isn't exactly
+    // represented by the double
     private String valueAsString;
 
     /**
@@ -41,6 +43,17 @@ public class COSFloat extends COSNumber
         setValue(aFloat);
     }
 
+    /**
+     * Constructor used by the parsers for numbers with at most 15 significant digits, which
+     * are exactly represented by the given double.
+     *
+     * @param aDouble The parsed value.
+     */
+    COSFloat( double aDouble )
+    {
+        value = aDouble;
+    }
+
     /**
      * Constructor.
      *
@@ -52,8 +65,14 @@ public class COSFloat extends COSNumber
     {
         try
         {
-            valueAsString = aFloat; 
-            value = new BigDecimal( valueAsString );
+            BigDecimal decimal = new BigDecimal( aFloat );
+            value = decimal.doubleValue();
+            if (decimal.precision() > MAX_EXACT_DOUBLE_DIGITS || Double.isInfinite(value)
+                    || decimal.signum() != 0 && Math.abs(value) < Double.MIN_NORMAL)
+            {
+                // keep the original string to write the exact value
+                valueAsString = aFloat;
+            }
         }
         catch( NumberFormatException e )
         {
@@ -68,10 +87,21 @@ public class COSFloat extends COSNumber
      */
     public final void setValue( float floatValue )
     {
-        // use a BigDecimal as intermediate state to avoid 
-        // a floating point string representation of the float value
-        value = new BigDecimal(String.valueOf(floatValue));
-        valueAsString = removeNullDigits(value.toPlainString());
+        // use the decimal representation of the float value to avoid additional fraction
+        // digits when the float is widened to a double
+        value = Double.parseDouble(String.valueOf(floatValue));
+        valueAsString = null;
+    }
+
+    private String getValueAsString()
+    {
+        if (valueAsString == null)
+        {
+            // use a BigDecimal as intermediate state to avoid
+            // a floating point string representation of the value
+            valueAsString = removeNullDigits(new BigDecimal(String.valueOf(value)).toPlainString());
+        }
+        return valueAsString;
     }
 
     private String removeNullDigits(String value)
@@ -95,7 +125,7 @@ public class COSFloat extends COSNumber
     @Override
     public float floatValue()
     {
-        return value.floatValue();
+        return (float) value;
     }
 
     /**
@@ -106,7 +136,7 @@ public class COSFloat extends COSNumber
     @Override
     public double doubleValue()
     {
-        return value.doubleValue();
+        return value;
     }
 
     /**
@@ -117,7 +147,7 @@ public class COSFloat extends COSNumber
     @Override
     public long longValue()
     {
-        return value.longValue();
+        return (long) value;
     }
 
     /**
@@ -128,7 +158,7 @@ public class COSFloat extends COSNumber
     @Override
     public int intValue()
     {
-        return value.intValue();
+        return (int) value;
     }
 
     /**
@@ -137,7 +167,7 @@ public class COSFloat extends COSNumber
     @Override
     public boolean equals( Object o )
     {
-        return o instanceof COSFloat && Float.floatToIntBits(((COSFloat)o).value.floatValue()) == Float.floatToIntBits(value.floatValue());
+        return o instanceof COSFloat && Float.floatToIntBits(((COSFloat)o).floatValue()) == Float.floatToIntBits(floatValue());
     }
 
     /**
@@ -146,7 +176,7 @@ public class COSFloat extends COSNumber
     @Override
     public int hashCode()
     {
-        return value.hashCode();
+        return Float.floatToIntBits(floatValue());
     }
 
     /**
@@ -155,7 +185,7 @@ public class COSFloat extends COSNumber
     @Override
     public String toString()
     {
-        return "COSFloat{" + valueAsString + "}";
+        return "COSFloat{" + getValueAsString() + "}";
     }
 
     /**
@@ -179,6 +209,6 @@ public class COSFloat extends COSNumber
      */
     public void writePDF( OutputStream output ) throws IOException
     {
-        output.write(valueAsString.getBytes("ISO-8859-1"));
+        output.write(getValueAsString().getBytes("ISO-8859-1"));
     }
 }
@@ -18,9 +18,12 @@ package org.apache.pdfbox.cos;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.pdfbox.util.Charsets;
 
 
@@ -32,7 +35,13 @@ import org.apache.pdfbox.util.Charsets;
 public final class COSName extends COSBase implements Comparable<COSName>
 {
     // using ConcurrentHashMap because this can be accessed by multiple threads
-    private static Map<String, COSName> nameMap = new ConcurrentHashMap<String, COSName>(8192);
+    // the document specific names are only weakly referenced, thus a name is reclaimed when
+    // it isn't used by any document any more
+    private static final ConcurrentMap<String, NameReference> nameMap =
+            new ConcurrentHashMap<String, NameReference>(8192);
+
+    // the references of the reclaimed names, which are removed from the nameMap
+    private static final ReferenceQueue<COSName> reclaimedNames = new ReferenceQueue<COSName>();
 
     // all common COSName values are stored in this HashMap
     // hey are already defined as static constants and don't need to be synchronized
@@ -517,23 +526,67 @@ public final class COSName extends COSBase implements Comparable<COSName>
      */
     public static COSName getPDFName(String aName)
     {
-        COSName name = null;
-        if (aName != null)
+        if (aName == null)
+        {
+            return null;
+        }
+        // Is it a common COSName ??
+        COSName name = commonNameMap.get(aName);
+        if (name != null)
+        {
+            return name;
+        }
+        // It seems to be a document specific COSName
+        removeReclaimedNames();
+        NameReference reference = nameMap.get(aName);
+        if (reference != null)
+        {
+            name = reference.get();
+            if (name != null)
+            {
+                return name;
+            }
+        }
+        COSName newName = new COSName(aName, false);
+        NameReference newReference = new NameReference(newName);
+        while (true)
         {
-            // Is it a common COSName ??
-            name = commonNameMap.get(aName);
-            if (name == null)
+            if (reference == null)
             {
-                // It seems to be a document specific COSName
-                name = nameMap.get(aName);
-                if (name == null)
+                reference = nameMap.putIfAbsent(aName, newReference);
+                if (reference == null)
                 {
-                    // name is added to the synchronized map in the constructor
-                    name = new COSName(aName, false);
+                    return newName;
                 }
             }
+            else
+            {
+                // another thread may have added the name in the meantime
+                name = reference.get();
+                if (name != null)
+                {
+                    return name;
+                }
+                if (nameMap.replace(aName, reference, newReference))
+                {
+                    return newName;
+                }
+                reference = nameMap.get(aName);
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of names which were reclaimed by the garbage collector.
+     */
+    private static void removeReclaimedNames()
+    {
+        NameReference reference;
+        while ((reference = (NameReference) reclaimedNames.poll()) != null)
+        {
+            // the name may have been added again in the meantime
+            nameMap.remove(reference.key, reference);
         }
-        return name;
     }
 
     /**
@@ -541,7 +594,7 @@ public final class COSName extends COSBase implements Comparable<COSName>
      * 
      * @param aName The name of the COSName object.
      * @param staticValue Indicates if the COSName object is static so that it can be stored in the HashMap without
-     * synchronizing.
+     * synchronizing. Other names are added to the weak name map by {@link #getPDFName(String)}.
      */
     private COSName(String aName, boolean staticValue)
     {
@@ -550,10 +603,6 @@ public final class COSName extends COSBase implements Comparable<COSName>
         {
             commonNameMap.put(aName, this);
         }
-        else
-        {
-            nameMap.put(aName, this);
-        }
         hashCode = name.hashCode();
     }
 
@@ -654,11 +703,27 @@ public final class COSName extends COSBase implements Comparable<COSName>
     }
 
     /**
-     * Not usually needed except if resources need to be reclaimed in a long running process.
+     * Not usually needed, names which aren't used any more are reclaimed by the garbage collector.
+     * Names which are still used stay valid, as names are compared by their value.
      */
     public static synchronized void clearResources()
     {
         // Clear them all
         nameMap.clear();
     }
+
+    /**
+     * A weak reference to a document specific name, which knows the key of its entry in the
+     * name map.
+     */
+    private static final class NameReference extends WeakReference<COSName>
+    {
+        private final String key;
+
+        NameReference(COSName name)
+        {
+            super(name, reclaimedNames);
+            key = name.name;
+        }
+    }
 }
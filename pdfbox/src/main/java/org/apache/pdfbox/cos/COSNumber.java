@@ -37,6 +37,17 @@ public abstract class COSNumber extends COSBase
      */
     public static final COSInteger ONE = COSInteger.ONE;
 
+    // the maximum number of digits which always fits into a long
+    private static final int MAX_LONG_DIGITS = 18;
+
+    // the maximum number of significant digits of a decimal number which is represented
+    // exactly enough by a double to be written again with the same value
+    static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7,
+            1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21,
+            1e22 };
+
     /**
      * This will get the float value of this number.
      *
@@ -116,4 +127,76 @@ public abstract class COSNumber extends COSBase
             return new COSFloat(number);
         }
     }
+
+    /**
+     * This factory method will get the appropriate number object from the ASCII characters of
+     * a number. Plain integers and reals which fit into a long resp. are exactly represented by
+     * a double are converted without creating a string, all other numbers are handed over to
+     * {@link #get(String)}.
+     *
+     * @param number The array containing the characters of the number.
+     * @param offset The offset of the first character.
+     * @param length The number of characters.
+     *
+     * @return A number object, either float or int.
+     *
+     * @throws IOException If the characters don't represent a number.
+     */
+    public static COSNumber get( byte[] number, int offset, int length ) throws IOException
+    {
+        int end = offset + length;
+        int pos = offset;
+        boolean negative = false;
+        if (length > 1 && (number[pos] == '-' || number[pos] == '+'))
+        {
+            negative = number[pos] == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int fractionDigits = -1;
+        for (; pos < end; pos++)
+        {
+            int c = number[pos];
+            if (c >= '0' && c <= '9')
+            {
+                if (mantissa != 0 || c != '0')
+                {
+                    if (++significantDigits > MAX_LONG_DIGITS)
+                    {
+                        return get(new String(number, offset, length, "ISO-8859-1"));
+                    }
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0)
+                {
+                    fractionDigits++;
+                }
+            }
+            else if (c == '.' && fractionDigits < 0)
+            {
+                fractionDigits = 0;
+            }
+            else
+            {
+                // exponents and malformed numbers
+                return get(new String(number, offset, length, "ISO-8859-1"));
+            }
+        }
+        if (digits == 0 || fractionDigits >= 0
+                && (significantDigits > MAX_EXACT_DOUBLE_DIGITS || fractionDigits >= POWERS_OF_TEN.length))
+        {
+            return get(new String(number, offset, length, "ISO-8859-1"));
+        }
+        if (fractionDigits < 0)
+        {
+            return COSInteger.get(negative ? -mantissa : mantissa);
+        }
+        // both the mantissa and the power of ten are exact doubles, thus the division is
+        // rounded correctly
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return new COSFloat(negative && mantissa != 0 ? -value : value);
+    }
 }
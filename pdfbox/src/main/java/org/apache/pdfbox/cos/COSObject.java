@@ -18,6 +18,9 @@ package org.apache.pdfbox.cos;
 
 import java.io.IOException;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 /**
  * This class represents a PDF object.
  *
@@ -26,7 +29,13 @@ import java.io.IOException;
  */
 public class COSObject extends COSBase
 {
+    private static final Log LOG = LogFactory.getLog(COSObject.class);
+
     private COSBase baseObject;
+    // the parser of a lazily loaded document, as long as the object isn't parsed yet
+    private volatile ICOSParser parser;
+    // set while the object is parsed, guarded by the lock of the parser
+    private boolean parsing;
     private COSInteger objectNumber;
     private COSInteger generationNumber;
 
@@ -84,9 +93,56 @@ public class COSObject extends COSBase
      */
     public COSBase getObject()
     {
+        ICOSParser objectParser = parser;
+        if (objectParser != null)
+        {
+            // the object of a lazily loaded document is parsed when it is accessed the first time,
+            // other threads accessing it meanwhile wait for the parser and get the parsed object
+            synchronized (objectParser)
+            {
+                if (parser != null && !parsing)
+                {
+                    parsing = true;
+                    try
+                    {
+                        baseObject = objectParser.dereferenceCOSObject(this);
+                    }
+                    catch (IOException e)
+                    {
+                        LOG.error("Can't dereference " + this, e);
+                    }
+                    finally
+                    {
+                        parsing = false;
+                        parser = null;
+                    }
+                }
+            }
+        }
         return baseObject;
     }
 
+    /**
+     * Returns the object that this object encapsulates, without parsing it if it belongs to a
+     * lazily loaded document and isn't parsed yet.
+     *
+     * @return The encapsulated object, or null if it isn't parsed yet.
+     */
+    COSBase getObjectIfParsed()
+    {
+        return parser == null ? baseObject : null;
+    }
+
+    /**
+     * Sets the parser to parse the object when it is accessed the first time.
+     *
+     * @param objectParser the parser of the document
+     */
+    void setParser(ICOSParser objectParser)
+    {
+        parser = objectParser;
+    }
+
     /**
      * This will set the object that this object encapsulates.
      *
@@ -97,6 +153,7 @@ public class COSObject extends COSBase
     public final void setObject( COSBase object ) throws IOException
     {
         baseObject = object;
+        parser = null;
     }
 
     /**
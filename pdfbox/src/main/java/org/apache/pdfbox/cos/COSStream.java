@@ -19,12 +19,14 @@ package org.apache.pdfbox.cos;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.zip.Deflater;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -37,11 +39,16 @@ import org.apache.pdfbox.io.RandomAccessBuffer;
 import org.apache.pdfbox.io.RandomAccessFile;
 import org.apache.pdfbox.io.RandomAccessFileInputStream;
 import org.apache.pdfbox.io.RandomAccessFileOutputStream;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.ScratchFile;
 import org.apache.pdfbox.pdfparser.PDFStreamParser;
 
 /**
  * This class represents a stream object in a PDF document.
  *
+ * The data of a parsed stream may be read by several threads, the data decoded or encoded
+ * on first access is kept once.
+ *
  * @author Ben Litchfield
  */
 public class COSStream extends COSDictionary implements Closeable
@@ -54,9 +61,20 @@ public class COSStream extends COSDictionary implements Closeable
     private static final int BUFFER_SIZE=16384;
 
     /**
-     * internal buffer, either held in memory or within a scratch file.
+     * internal buffer, either held in memory or within a scratch file. It is created on demand.
+     */
+    private RandomAccess buffer;
+    private final ScratchFile scratchFile;
+    private final boolean useScratchFiles;
+    private final File scratchDirectory;
+    private boolean isClosed;
+
+    /**
+     * The source containing the encoded stream data, if it wasn't copied into the internal buffer.
      */
-    private final RandomAccess buffer;
+    private RandomAccessRead source;
+    private long sourcePosition;
+    private long sourceLength;
     /**
      * The stream with all of the filters applied.
      */
@@ -68,6 +86,18 @@ public class COSStream extends COSDictionary implements Closeable
     private RandomAccessFileOutputStream unFilteredStream;
     private DecodeResult decodeResult;
 
+    /**
+     * The settings used when the stream data is Flate encoded.
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private int compressionStrategy = Deflater.DEFAULT_STRATEGY;
+    // the settings used for the data encoded by this stream
+    private int encodedLevel;
+    private int encodedStrategy;
+
+    // incremented whenever the stream data is replaced
+    private volatile int modificationCount;
+
     /**
      * Constructor.  Creates a new stream with an empty dictionary.
      *
@@ -98,14 +128,9 @@ public class COSStream extends COSDictionary implements Closeable
     public COSStream( boolean useScratchFiles, File scratchDirectory )
     {
         super();
-        if (useScratchFiles)
-        {
-            buffer = createScratchFile(scratchDirectory);
-        }
-        else
-        {
-            buffer = new RandomAccessBuffer();
-        }
+        this.scratchFile = null;
+        this.useScratchFiles = useScratchFiles;
+        this.scratchDirectory = scratchDirectory;
     }
 
     /**
@@ -119,14 +144,65 @@ public class COSStream extends COSDictionary implements Closeable
     public COSStream( COSDictionary dictionary, boolean useScratchFiles, File scratchDirectory  )
     {
         super( dictionary );
-        if (useScratchFiles)
-        {
-            buffer = createScratchFile(scratchDirectory);
-        }
-        else
+        this.scratchFile = null;
+        this.useScratchFiles = useScratchFiles;
+        this.scratchDirectory = scratchDirectory;
+    }
+
+    /**
+     * Constructor.  Creates a new stream with an empty dictionary.
+     *
+     * @param scratchFile the scratch file shared by all streams of a document to hold the
+     * stream data. If null the data is held in memory.
+     *
+     */
+    public COSStream( ScratchFile scratchFile )
+    {
+        super();
+        this.scratchFile = scratchFile;
+        this.useScratchFiles = scratchFile != null;
+        this.scratchDirectory = null;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param dictionary The dictionary that is associated with this stream.
+     * @param scratchFile the scratch file shared by all streams of a document to hold the
+     * stream data. If null the data is held in memory.
+     *
+     */
+    public COSStream( COSDictionary dictionary, ScratchFile scratchFile )
+    {
+        super( dictionary );
+        this.scratchFile = scratchFile;
+        this.useScratchFiles = scratchFile != null;
+        this.scratchDirectory = null;
+    }
+
+    /**
+     * Returns the internal buffer and creates it if necessary.
+     *
+     * @return the internal buffer
+     */
+    private RandomAccess getBuffer() throws IOException
+    {
+        if (buffer == null)
         {
-            buffer = new RandomAccessBuffer();
+            if (scratchFile != null)
+            {
+                buffer = scratchFile.createBuffer();
+            }
+            else if (useScratchFiles)
+            {
+                buffer = createScratchFile(scratchDirectory);
+            }
+            else
+            {
+                buffer = new RandomAccessBuffer();
+            }
         }
+        return buffer;
     }
 
     /**
@@ -172,16 +248,18 @@ public class COSStream extends COSDictionary implements Closeable
      *
      * @throws IOException when encoding/decoding causes an exception
      */
-    public InputStream getFilteredStream() throws IOException
+    public synchronized InputStream getFilteredStream() throws IOException
     {
-        if (buffer.isClosed())
-        {
-            throw new IOException("COSStream has been closed and cannot be read. " +
-                                  "Perhaps its enclosing PDDocument has been closed?");
-        }
+        checkClosed();
 
         if( filteredStream == null )
         {
+            if (source != null)
+            {
+                return new BufferedInputStream(
+                        new RandomAccessFileInputStream( source, sourcePosition, sourceLength ),
+                        BUFFER_SIZE );
+            }
             doEncode();
         }
         long position = filteredStream.getPosition();
@@ -199,33 +277,40 @@ public class COSStream extends COSDictionary implements Closeable
      *
      * @throws IOException 
      */
-    public long getFilteredLength() throws IOException
+    public synchronized long getFilteredLength() throws IOException
     {
         if (filteredStream == null)
         {
+            if (source != null)
+            {
+                return sourceLength;
+            }
             doEncode();
         }
         return filteredStream.getLength();
     }
     
     /**
-     * This will get the logical content stream with none of the filters.
+     * This will get the logical content stream with none of the filters. If all filters
+     * support it, the data is decoded on demand while the returned stream is read, otherwise
+     * the stream is decoded completely and the decoded data is kept.
      *
      * @return the bytes of the logical (decoded) stream
      *
      * @throws IOException when encoding/decoding causes an exception
      */
-    public InputStream getUnfilteredStream() throws IOException
+    public synchronized InputStream getUnfilteredStream() throws IOException
     {
-        if (buffer.isClosed())
-        {
-            throw new IOException("COSStream has been closed and cannot be read. " +
-                                "Perhaps its enclosing PDDocument has been closed?");
-        }
+        checkClosed();
 
         InputStream retval;
         if( unFilteredStream == null )
         {
+            retval = createDecodingStream();
+            if (retval != null)
+            {
+                return retval;
+            }
             doDecode();
         }
 
@@ -239,6 +324,13 @@ public class COSStream extends COSDictionary implements Closeable
                 new RandomAccessFileInputStream( buffer, position, length );
             retval = new BufferedInputStream( input, BUFFER_SIZE );
         }
+        else if (source != null && getFilters() == null)
+        {
+            // there is no filter, the source contains the decoded data
+            retval = new BufferedInputStream(
+                    new RandomAccessFileInputStream( source, sourcePosition, sourceLength ),
+                    BUFFER_SIZE );
+        }
         else
         {
             // We should check if the COSStream contains data, maybe it
@@ -268,14 +360,24 @@ public class COSStream extends COSDictionary implements Closeable
      * @return the repaired stream parameters dictionary
      * @throws IOException when encoding/decoding causes an exception
      */
-    public DecodeResult getDecodeResult() throws IOException
+    public synchronized DecodeResult getDecodeResult() throws IOException
     {
         if (unFilteredStream == null)
         {
+            if (decodeResult == null)
+            {
+                // filters decoding on demand don't provide any further information
+                InputStream decodingStream = createDecodingStream();
+                if (decodingStream != null)
+                {
+                    decodingStream.close();
+                    return DecodeResult.DEFAULT;
+                }
+            }
             doDecode();
         }
 
-        if (unFilteredStream == null || decodeResult == null)
+        if ((unFilteredStream == null && source == null) || decodeResult == null)
         {
             StringBuilder filterInfo = new StringBuilder();
             COSBase filters = getFilters();
@@ -308,12 +410,140 @@ public class COSStream extends COSDictionary implements Closeable
         }
     }
 
+    /**
+     * Returns the decoded data of a stream which reads its filtered data from a source, e.g. the
+     * file it was parsed from. Unlike {@link #getUnfilteredStream()} this method doesn't lock this
+     * stream and the decoded data isn't kept. A parser uses it to decode object streams while it
+     * holds its own locks, as other threads may hold the lock of this stream while they wait
+     * for the parser to resolve indirect filter parameters.
+     *
+     * @return the decoded data, or null if the filtered data isn't read from a source
+     *
+     * @throws IOException If there is an error applying a filter to the stream.
+     */
+    public InputStream createSourceDecodingStream() throws IOException
+    {
+        // the source is set when the stream is parsed and only changes if the stream is modified
+        RandomAccessRead filteredSource = source;
+        if (filteredSource == null || isClosed || filteredSource.isClosed())
+        {
+            return null;
+        }
+        COSArray filterArray = getFilterArray();
+        InputStream input = new BufferedInputStream(
+                new RandomAccessFileInputStream(filteredSource, sourcePosition, sourceLength),
+                BUFFER_SIZE);
+        return createDecodingStream(input, filterArray, true);
+    }
+
     @Override
     public Object accept(ICOSVisitor visitor) throws IOException
     {
         return visitor.visitFromStream(this);
     }
 
+    /**
+     * Creates a stream which applies all filters while it is read, see
+     * {@link Filter#decode(InputStream, COSDictionary, int)}.
+     *
+     * @return the decoding stream, or null if the stream has no filters or one of them
+     * doesn't support decoding on demand.
+     *
+     * @throws IOException If there is an error creating the stream.
+     */
+    private InputStream createDecodingStream() throws IOException
+    {
+        if (filteredStream == null && source == null)
+        {
+            // there is no data at all
+            return null;
+        }
+        COSArray filterArray = getFilterArray();
+        if (filterArray.size() == 0)
+        {
+            return null;
+        }
+        return createDecodingStream(getFilteredStream(), filterArray, false);
+    }
+
+    /**
+     * Creates a stream which applies the given filters to the given filtered data while it is
+     * read, see {@link Filter#decode(InputStream, COSDictionary, int)}.
+     *
+     * @param filtered the filtered data, it is closed when the returned stream is closed
+     * @param filterArray the names of the filters to apply
+     * @param decodeCompletely true if the data of a filter which doesn't support decoding on
+     * demand is decoded completely into memory, false if null is returned then
+     * @return the decoding stream, or null if a filter doesn't support decoding on demand and
+     * decodeCompletely is false
+     *
+     * @throws IOException If there is an error applying a filter to the stream.
+     */
+    private InputStream createDecodingStream(InputStream filtered, COSArray filterArray,
+            boolean decodeCompletely) throws IOException
+    {
+        InputStream input = filtered;
+        try
+        {
+            for (int i = 0; i < filterArray.size(); i++)
+            {
+                COSBase filterName = filterArray.get(i);
+                if (!(filterName instanceof COSName))
+                {
+                    throw new IOException("Error: Unknown filter type:" + filterName);
+                }
+                Filter filter = FilterFactory.INSTANCE.getFilter((COSName) filterName);
+                InputStream decoded = filter.decode(input, this, i);
+                if (decoded == null)
+                {
+                    // the filter can't decode on demand
+                    if (!decodeCompletely)
+                    {
+                        input.close();
+                        return null;
+                    }
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    filter.decode(input, output, this, i);
+                    input.close();
+                    decoded = new ByteArrayInputStream(output.toByteArray());
+                }
+                input = decoded;
+            }
+        }
+        catch (IOException e)
+        {
+            IOUtils.closeQuietly(input);
+            throw e;
+        }
+        return input;
+    }
+
+    /**
+     * Returns the filters of this stream as an array, see {@link #getFilters()}.
+     *
+     * @return the filters, an empty array if there are none
+     *
+     * @throws IOException If the filters are neither a name nor an array.
+     */
+    private COSArray getFilterArray() throws IOException
+    {
+        COSBase filters = getFilters();
+        COSArray filterArray = new COSArray();
+        if (filters instanceof COSName)
+        {
+            filterArray.add(filters);
+        }
+        else if (filters instanceof COSArray)
+        {
+            filterArray = (COSArray) filters;
+        }
+        else if (filters != null)
+        {
+            throw new IOException("Error: Unknown filter type:" + filters);
+        }
+        return filterArray;
+    }
+
     /**
      * This will decode the physical byte stream applying all of the filters to the stream.
      *
@@ -324,28 +554,20 @@ public class COSStream extends COSDictionary implements Closeable
 // FIXME: We shouldn't keep the same reference?
         unFilteredStream = filteredStream;
 
-        COSBase filters = getFilters();
-        if( filters == null )
+        COSArray filterArray = getFilterArray();
+        if( filterArray.size() == 0 )
         {
             //then do nothing
             decodeResult = DecodeResult.DEFAULT;
         }
-        else if( filters instanceof COSName )
+        for( int i=0; i<filterArray.size(); i++ )
         {
-            doDecode( (COSName)filters, 0 );
-        }
-        else if( filters instanceof COSArray )
-        {
-            COSArray filterArray = (COSArray)filters;
-            for( int i=0; i<filterArray.size(); i++ )
+            COSBase filterName = filterArray.get( i );
+            if( !(filterName instanceof COSName) )
             {
-                COSName filterName = (COSName)filterArray.get( i );
-                doDecode( filterName, i );
+                throw new IOException( "Error: Unknown filter type:" + filterName );
             }
-        }
-        else
-        {
-            throw new IOException( "Error: Unknown filter type:" + filters );
+            doDecode( (COSName)filterName, i );
         }
     }
 
@@ -363,10 +585,31 @@ public class COSStream extends COSDictionary implements Closeable
 
         boolean done = false;
         IOException exception = null;
-        long position = unFilteredStream.getPosition();
-        long length = unFilteredStream.getLength();
+        RandomAccessRead input;
+        long position;
+        long length;
         // in case we need it later
-        long writtenLength = unFilteredStream.getLengthWritten();
+        long writtenLength;
+        if (unFilteredStream != null)
+        {
+            input = buffer;
+            position = unFilteredStream.getPosition();
+            length = unFilteredStream.getLength();
+            writtenLength = unFilteredStream.getLengthWritten();
+        }
+        else if (source != null)
+        {
+            // the first filter reads the encoded data directly from the source
+            input = source;
+            position = sourcePosition;
+            length = sourceLength;
+            writtenLength = sourceLength;
+        }
+        else
+        {
+            // there is no data at all
+            return;
+        }
 
         if (length == 0 && writtenLength == 0)
         {
@@ -374,7 +617,7 @@ public class COSStream extends COSDictionary implements Closeable
             //some filters don't work when attempting to decode
             //with a zero length stream.  See zlib_error_01.pdf
             IOUtils.closeQuietly(unFilteredStream);
-            unFilteredStream = new RandomAccessFileOutputStream(buffer);
+            unFilteredStream = new RandomAccessFileOutputStream(getBuffer());
             done = true;
         }
         else
@@ -386,7 +629,7 @@ public class COSStream extends COSDictionary implements Closeable
             {
                 try
                 {
-                    attemptDecode(position, length, filter, filterIndex);
+                    attemptDecode(input, position, length, filter, filterIndex);
                     done = true;
                 }
                 catch (IOException io)
@@ -405,7 +648,7 @@ public class COSStream extends COSDictionary implements Closeable
                 {
                     try
                     {
-                        attemptDecode(position, length, filter, filterIndex);
+                        attemptDecode(input, position, length, filter, filterIndex);
                         done = true;
                     }
                     catch (IOException io)
@@ -422,16 +665,17 @@ public class COSStream extends COSDictionary implements Closeable
         }
     }
 
-    // attempts to decode the stream at the given position and length
-    private void attemptDecode(long position, long length, Filter filter, int filterIndex) throws IOException
+    // attempts to decode the data at the given position and length
+    private void attemptDecode(RandomAccessRead data, long position, long length, Filter filter,
+            int filterIndex) throws IOException
     {
         InputStream input = null;
         try
         {
             input = new BufferedInputStream(
-                    new RandomAccessFileInputStream(buffer, position, length), BUFFER_SIZE);
+                    new RandomAccessFileInputStream(data, position, length), BUFFER_SIZE);
             IOUtils.closeQuietly(unFilteredStream);
-            unFilteredStream = new RandomAccessFileOutputStream(buffer);
+            unFilteredStream = new RandomAccessFileOutputStream(getBuffer());
             decodeResult = filter.decode(input, unFilteredStream, this, filterIndex);
         }
         finally
@@ -446,8 +690,23 @@ public class COSStream extends COSDictionary implements Closeable
      * @throws IOException If there is an error applying a filter to the stream.
      */
     private void doEncode() throws IOException
+    {
+        doEncode( compressionLevel, compressionStrategy );
+    }
+
+    /**
+     * This will encode the logical byte stream applying all of the filters to the stream.
+     *
+     * @param level the compression level for Flate encoded data
+     * @param strategy the compression strategy for Flate encoded data
+     *
+     * @throws IOException If there is an error applying a filter to the stream.
+     */
+    private void doEncode( int level, int strategy ) throws IOException
     {
         filteredStream = unFilteredStream;
+        encodedLevel = level;
+        encodedStrategy = strategy;
 
         COSBase filters = getFilters();
         if( filters == null )
@@ -456,7 +715,7 @@ public class COSStream extends COSDictionary implements Closeable
         }
         else if( filters instanceof COSName )
         {
-            doEncode( (COSName)filters, 0 );
+            doEncode( (COSName)filters, 0, level, strategy );
         }
         else if( filters instanceof COSArray )
         {
@@ -465,7 +724,7 @@ public class COSStream extends COSDictionary implements Closeable
             for( int i=filterArray.size()-1; i>=0; i-- )
             {
                 COSName filterName = (COSName)filterArray.get( i );
-                doEncode( filterName, i );
+                doEncode( filterName, i, level, strategy );
             }
         }
     }
@@ -475,22 +734,93 @@ public class COSStream extends COSDictionary implements Closeable
      *
      * @param filterName The name of the filter.
      * @param filterIndex The index to the filter.
+     * @param level the compression level for Flate encoded data
+     * @param strategy the compression strategy for Flate encoded data
      *
      * @throws IOException If there is an error parsing the stream.
      */
-    private void doEncode( COSName filterName, int filterIndex ) throws IOException
+    private void doEncode( COSName filterName, int filterIndex, int level, int strategy )
+        throws IOException
     {
         Filter filter = FilterFactory.INSTANCE.getFilter( filterName );
 
         InputStream input = new BufferedInputStream(
-            new RandomAccessFileInputStream( buffer, filteredStream.getPosition(),
+            new RandomAccessFileInputStream( getBuffer(), filteredStream.getPosition(),
                                                    filteredStream.getLength() ), BUFFER_SIZE );
         IOUtils.closeQuietly(filteredStream);
-        filteredStream = new RandomAccessFileOutputStream( buffer );
-        filter.encode( input, filteredStream, this, filterIndex );
+        filteredStream = new RandomAccessFileOutputStream( getBuffer() );
+        filter.encode( input, filteredStream, this, filterIndex, level, strategy );
         IOUtils.closeQuietly(input);
     }
 
+    /**
+     * Sets the compression level and strategy used when the stream data is Flate encoded.
+     * The settings are used the next time the stream is encoded, data which is already
+     * encoded isn't encoded again.
+     *
+     * @param level the compression level, see {@link Deflater#setLevel(int)}
+     * @param strategy the compression strategy, see {@link Deflater#setStrategy(int)}
+     */
+    public void setCompression( int level, int strategy )
+    {
+        compressionLevel = level;
+        compressionStrategy = strategy;
+    }
+
+    /**
+     * Encodes the stream data with the given compression settings, unless this stream has
+     * settings of its own, see {@link #setCompression(int, int)}. The settings of this stream
+     * aren't changed, thus e.g. a writer may use its own settings for a single write. Data
+     * encoded before with other settings is encoded again, filtered data which was set from
+     * outside or read from a file is kept as is.
+     *
+     * @param defaultLevel the compression level, see {@link Deflater#setLevel(int)}
+     * @param defaultStrategy the compression strategy, see {@link Deflater#setStrategy(int)}
+     *
+     * @throws IOException If there is an error applying a filter to the stream.
+     */
+    public synchronized void encode( int defaultLevel, int defaultStrategy ) throws IOException
+    {
+        checkClosed();
+        int level = compressionLevel;
+        int strategy = compressionStrategy;
+        if( level == Deflater.DEFAULT_COMPRESSION && strategy == Deflater.DEFAULT_STRATEGY )
+        {
+            level = defaultLevel;
+            strategy = defaultStrategy;
+        }
+        if( filteredStream != null && unFilteredStream != null
+            && (encodedLevel != level || encodedStrategy != strategy) )
+        {
+            // the data was encoded by this stream with other settings
+            filteredStream = null;
+        }
+        if( filteredStream == null && source == null )
+        {
+            doEncode( level, strategy );
+        }
+    }
+
+    /**
+     * Returns the compression level used when the stream data is Flate encoded.
+     *
+     * @return the compression level, see {@link Deflater#setLevel(int)}
+     */
+    public int getCompressionLevel()
+    {
+        return compressionLevel;
+    }
+
+    /**
+     * Returns the compression strategy used when the stream data is Flate encoded.
+     *
+     * @return the compression strategy, see {@link Deflater#setStrategy(int)}
+     */
+    public int getCompressionStrategy()
+    {
+        return compressionStrategy;
+    }
+
     /**
      * This will return the filters to apply to the byte stream.
      * The method will return
@@ -519,7 +849,9 @@ public class COSStream extends COSDictionary implements Closeable
         IOUtils.closeQuietly(unFilteredStream);
         unFilteredStream = null;
         IOUtils.closeQuietly(filteredStream);
-        filteredStream = new RandomAccessFileOutputStream( buffer );
+        source = null;
+        filteredStream = new RandomAccessFileOutputStream( getBuffer() );
+        modificationCount++;
         return new BufferedOutputStream( filteredStream, BUFFER_SIZE );
     }
 
@@ -541,6 +873,48 @@ public class COSStream extends COSDictionary implements Closeable
         return out;
     }
 
+    /**
+     * This will set the filtered stream data to a section of the given source, e.g. the PDF file
+     * this stream was parsed from. The data isn't copied but read from the source on demand, thus
+     * the source must not be closed or modified as long as this stream is in use.
+     *
+     * @param filteredSource the source containing the filtered stream data
+     * @param position the position of the stream data within the source
+     * @param length the length of the stream data
+     */
+    public void setFilteredStream( RandomAccessRead filteredSource, long position, long length )
+    {
+        IOUtils.closeQuietly(unFilteredStream);
+        unFilteredStream = null;
+        IOUtils.closeQuietly(filteredStream);
+        filteredStream = null;
+        decodeResult = null;
+        source = filteredSource;
+        sourcePosition = position;
+        sourceLength = length;
+        modificationCount++;
+    }
+
+    /**
+     * Copies the filtered data from the source into the internal buffer.
+     *
+     * @throws IOException If there is an error reading the source.
+     */
+    private void copySourceToBuffer() throws IOException
+    {
+        InputStream input = getFilteredStream();
+        try
+        {
+            source = null;
+            filteredStream = new RandomAccessFileOutputStream( getBuffer() );
+            IOUtils.copy(input, filteredStream);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
     /**
      * set the filters to be applied to the stream.
      *
@@ -550,6 +924,10 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public void setFilters(COSBase filters) throws IOException
     {
+        if (source != null)
+        {
+            copySourceToBuffer();
+        }
         if (unFilteredStream == null)
         {
             // don't lose stream contents
@@ -572,14 +950,44 @@ public class COSStream extends COSDictionary implements Closeable
     {
         IOUtils.closeQuietly(filteredStream);
         filteredStream = null;
+        source = null;
         IOUtils.closeQuietly(unFilteredStream);
-        unFilteredStream = new RandomAccessFileOutputStream( buffer );
+        unFilteredStream = new RandomAccessFileOutputStream( getBuffer() );
+        modificationCount++;
         return new BufferedOutputStream( unFilteredStream, BUFFER_SIZE );
     }
+
+    /**
+     * Returns a counter which changes whenever new data is written to this stream. It may be used
+     * to check whether data derived from the stream, e.g. parsed content, is still up to date.
+     *
+     * @return the modification count
+     */
+    public int getModificationCount()
+    {
+        return modificationCount;
+    }
     
+    /**
+     * Ensure that the stream and its source weren't closed before.
+     *
+     * @throws IOException if the stream can't be read anymore
+     */
+    private void checkClosed() throws IOException
+    {
+        if (isClosed || (source != null && source.isClosed()))
+        {
+            throw new IOException("COSStream has been closed and cannot be read. " +
+                                  "Perhaps its enclosing PDDocument has been closed?");
+        }
+    }
+
     @Override
     public void close() throws IOException
     {
+        isClosed = true;
+        // the source is shared with other streams, it's closed by its owner
+        source = null;
         if (buffer != null)
         {
             buffer.close();
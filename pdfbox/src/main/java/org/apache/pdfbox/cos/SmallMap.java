@@ -0,0 +1,357 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map for the entries of a dictionary. Most dictionaries only have a few entries, those are
+ * kept in one array of alternating keys and values and are looked up by a linear search. A
+ * map with more than {@link #MAX_SMALL_SIZE} entries is converted to a {@link LinkedHashMap}.
+ *
+ * The entries are kept in the order they were added to the map, like a LinkedHashMap does.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class SmallMap<K, V> extends AbstractMap<K, V>
+{
+    /**
+     * The maximum number of entries kept in the array.
+     */
+    static final int MAX_SMALL_SIZE = 8;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    // the keys and values of a small map, in the order they were added
+    private Object[] entries;
+    private int size = 0;
+    // the entries of a large map, null as long as the map is small
+    private LinkedHashMap<K, V> map;
+    private int modCount = 0;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    /**
+     * Constructor.
+     */
+    SmallMap()
+    {
+    }
+
+    /**
+     * Constructor for a map with the given number of entries.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    SmallMap(int expectedSize)
+    {
+        if (expectedSize > MAX_SMALL_SIZE)
+        {
+            map = new LinkedHashMap<K, V>(expectedSize * 4 / 3 + 1);
+        }
+        else if (expectedSize > 0)
+        {
+            entries = new Object[expectedSize * 2];
+        }
+    }
+
+    // returns the index of the key in the array of a small map, or -1
+    private int indexOf(Object key)
+    {
+        for (int i = 0; i < size * 2; i += 2)
+        {
+            Object k = entries[i];
+            if (k == key || key != null && key.equals(k))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size()
+    {
+        return map != null ? map.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return map != null ? map.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key)
+    {
+        if (map != null)
+        {
+            return map.get(key);
+        }
+        int index = indexOf(key);
+        return index >= 0 ? (V) entries[index + 1] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value)
+    {
+        if (map != null)
+        {
+            return map.put(key, value);
+        }
+        int index = indexOf(key);
+        if (index >= 0)
+        {
+            V oldValue = (V) entries[index + 1];
+            entries[index + 1] = value;
+            return oldValue;
+        }
+        modCount++;
+        if (size == MAX_SMALL_SIZE)
+        {
+            // convert to a large map
+            map = new LinkedHashMap<K, V>(MAX_SMALL_SIZE * 4);
+            for (int i = 0; i < size * 2; i += 2)
+            {
+                map.put((K) entries[i], (V) entries[i + 1]);
+            }
+            map.put(key, value);
+            entries = null;
+            size = 0;
+            return null;
+        }
+        if (entries == null)
+        {
+            entries = new Object[INITIAL_CAPACITY * 2];
+        }
+        else if (size * 2 == entries.length)
+        {
+            Object[] newEntries = new Object[Math.min(entries.length * 2, MAX_SMALL_SIZE * 2)];
+            System.arraycopy(entries, 0, newEntries, 0, entries.length);
+            entries = newEntries;
+        }
+        entries[size * 2] = key;
+        entries[size * 2 + 1] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key)
+    {
+        if (map != null)
+        {
+            return map.remove(key);
+        }
+        int index = indexOf(key);
+        if (index < 0)
+        {
+            return null;
+        }
+        V oldValue = (V) entries[index + 1];
+        removeAt(index);
+        return oldValue;
+    }
+
+    // removes the entry at the given index of the array of a small map
+    private void removeAt(int index)
+    {
+        modCount++;
+        System.arraycopy(entries, index + 2, entries, index, size * 2 - index - 2);
+        size--;
+        entries[size * 2] = null;
+        entries[size * 2 + 1] = null;
+    }
+
+    @Override
+    public void clear()
+    {
+        modCount++;
+        map = null;
+        entries = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet()
+    {
+        if (entrySet == null)
+        {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * The entries of the map, a view which switches to the entries of the LinkedHashMap when
+     * the map is converted.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>>
+    {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator()
+        {
+            if (map != null)
+            {
+                return map.entrySet().iterator();
+            }
+            return new SmallIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return SmallMap.this.size();
+        }
+
+        @Override
+        public void clear()
+        {
+            SmallMap.this.clear();
+        }
+    }
+
+    /**
+     * Iterator over the entries of a small map.
+     */
+    private final class SmallIterator implements Iterator<Map.Entry<K, V>>
+    {
+        private int next = 0;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        public boolean hasNext()
+        {
+            return next < size * 2;
+        }
+
+        public Map.Entry<K, V> next()
+        {
+            checkModification();
+            if (next >= size * 2)
+            {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next += 2;
+            return new SmallEntry(last);
+        }
+
+        public void remove()
+        {
+            if (last < 0)
+            {
+                throw new IllegalStateException();
+            }
+            checkModification();
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkModification()
+        {
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * An entry of a small map, reading and writing the array of the map.
+     */
+    private final class SmallEntry implements Map.Entry<K, V>
+    {
+        private final K key;
+        private final int index;
+
+        @SuppressWarnings("unchecked")
+        SmallEntry(int index)
+        {
+            this.index = index;
+            key = (K) entries[index];
+        }
+
+        public K getKey()
+        {
+            return key;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V getValue()
+        {
+            return map == null && index < size * 2 && entries[index] == key
+                    ? (V) entries[index + 1] : get(key);
+        }
+
+        public V setValue(V value)
+        {
+            if (map == null && index < size * 2 && entries[index] == key)
+            {
+                @SuppressWarnings("unchecked")
+                V oldValue = (V) entries[index + 1];
+                entries[index + 1] = value;
+                return oldValue;
+            }
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Object value = getValue();
+            return (key == null ? e.getKey() == null : key.equals(e.getKey()))
+                    && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            Object value = getValue();
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString()
+        {
+            return key + "=" + getValue();
+        }
+    }
+}
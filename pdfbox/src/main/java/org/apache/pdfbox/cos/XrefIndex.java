@@ -0,0 +1,471 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map of object keys to the values of the xref table of a document. A value is either the
+ * byte offset of an object in the file or, for objects within an object stream, the negated
+ * object number of that stream.
+ *
+ * The entries are kept in parallel primitive arrays indexed by the object number, thus neither
+ * keys nor boxed values are created for them. Object numbers far beyond the number of entries
+ * and further generations of an object number already in use are kept in a sparse map.
+ * {@link #getOffset(long, long)} and {@link #put(long, long, long)} access the entries
+ * without allocating objects.
+ */
+public class XrefIndex extends AbstractMap<COSObjectKey, Long>
+{
+    /**
+     * Returned by {@link #getOffset(long, long)} if there is no entry for an object.
+     */
+    public static final long NOT_FOUND = Long.MIN_VALUE;
+
+    /**
+     * Object numbers below this are always kept in the arrays.
+     */
+    private static final int MIN_DENSE_LIMIT = 1024;
+
+    /**
+     * Object numbers below this factor times the number of entries are kept in the arrays.
+     */
+    private static final int DENSE_FACTOR = 4;
+
+    // generation used for unused slots of the arrays
+    private static final int EMPTY = -1;
+
+    private long[] values = new long[0];
+    private int[] generations = new int[0];
+    private int denseSize = 0;
+    private Map<COSObjectKey, Long> sparse = null;
+    private int modCount = 0;
+    private Set<Map.Entry<COSObjectKey, Long>> entrySet = null;
+
+    /**
+     * Returns the value of the given object.
+     *
+     * @param objNr the object number
+     * @param genNr the generation number
+     * @return the offset of the object or the negated object number of its object stream,
+     * or {@link #NOT_FOUND} if there is no entry for the object
+     */
+    public long getOffset(long objNr, long genNr)
+    {
+        if (objNr >= 0 && objNr < generations.length && generations[(int) objNr] == genNr)
+        {
+            return values[(int) objNr];
+        }
+        if (sparse != null)
+        {
+            Long value = sparse.get(new COSObjectKey(objNr, genNr));
+            if (value != null)
+            {
+                return value;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Sets the value of the given object.
+     *
+     * @param objNr the object number
+     * @param genNr the generation number
+     * @param value the offset of the object or the negated object number of its object stream
+     * @return the previous value, or {@link #NOT_FOUND} if there was no entry for the object
+     */
+    public long put(long objNr, long genNr, long value)
+    {
+        if (objNr >= 0 && objNr < generations.length && generations[(int) objNr] == genNr)
+        {
+            long previous = values[(int) objNr];
+            values[(int) objNr] = value;
+            return previous;
+        }
+        if (sparse != null)
+        {
+            COSObjectKey key = new COSObjectKey(objNr, genNr);
+            Long previous = sparse.get(key);
+            if (previous != null)
+            {
+                sparse.put(key, value);
+                return previous;
+            }
+        }
+        if (isDense(objNr, genNr))
+        {
+            int index = (int) objNr;
+            ensureCapacity(index + 1);
+            if (generations[index] == EMPTY)
+            {
+                generations[index] = (int) genNr;
+                values[index] = value;
+                denseSize++;
+                modCount++;
+                return NOT_FOUND;
+            }
+        }
+        if (sparse == null)
+        {
+            sparse = new HashMap<COSObjectKey, Long>();
+        }
+        sparse.put(new COSObjectKey(objNr, genNr), value);
+        modCount++;
+        return NOT_FOUND;
+    }
+
+    // checks whether the given object belongs into the arrays
+    private boolean isDense(long objNr, long genNr)
+    {
+        if (objNr < 0 || genNr < 0 || genNr > Integer.MAX_VALUE)
+        {
+            return false;
+        }
+        long limit = Math.max(MIN_DENSE_LIMIT, (long) DENSE_FACTOR * (denseSize + 1));
+        return objNr < Math.min(limit, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Makes sure that the arrays can hold the object numbers below the given capacity without
+     * growing. This may be used if the number of objects of a document is known in advance.
+     *
+     * @param capacity the number of objects
+     */
+    public void ensureCapacity(int capacity)
+    {
+        int length = generations.length;
+        if (capacity > length)
+        {
+            int newLength = (int) Math.min(Math.max(capacity, 2L * length), Integer.MAX_VALUE - 8);
+            long[] newValues = new long[newLength];
+            System.arraycopy(values, 0, newValues, 0, length);
+            int[] newGenerations = new int[newLength];
+            System.arraycopy(generations, 0, newGenerations, 0, length);
+            for (int i = length; i < newLength; i++)
+            {
+                newGenerations[i] = EMPTY;
+            }
+            values = newValues;
+            generations = newGenerations;
+        }
+    }
+
+    /**
+     * Returns the numbers of all objects which are contained in the given object stream.
+     *
+     * @param objstmObjNr the object number of the object stream
+     * @return the numbers of the objects referring to the given object stream
+     */
+    public Set<Long> getContainedObjectNumbers(long objstmObjNr)
+    {
+        Set<Long> objNrs = new HashSet<Long>();
+        long value = -objstmObjNr;
+        for (int i = 0; i < generations.length; i++)
+        {
+            if (generations[i] != EMPTY && values[i] == value)
+            {
+                objNrs.add((long) i);
+            }
+        }
+        if (sparse != null)
+        {
+            for (Map.Entry<COSObjectKey, Long> entry : sparse.entrySet())
+            {
+                if (entry.getValue() == value)
+                {
+                    objNrs.add(entry.getKey().getNumber());
+                }
+            }
+        }
+        return objNrs;
+    }
+
+    @Override
+    public int size()
+    {
+        return denseSize + (sparse == null ? 0 : sparse.size());
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return get(key) != null;
+    }
+
+    @Override
+    public Long get(Object key)
+    {
+        if (key instanceof COSObjectKey)
+        {
+            COSObjectKey objKey = (COSObjectKey) key;
+            long value = getOffset(objKey.getNumber(), objKey.getGeneration());
+            if (value != NOT_FOUND)
+            {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Long put(COSObjectKey key, Long value)
+    {
+        long previous = put(key.getNumber(), key.getGeneration(), value);
+        return previous == NOT_FOUND ? null : previous;
+    }
+
+    @Override
+    public void putAll(Map<? extends COSObjectKey, ? extends Long> map)
+    {
+        if (map instanceof XrefIndex)
+        {
+            XrefIndex other = (XrefIndex) map;
+            ensureCapacity(other.generations.length);
+            for (int i = 0; i < other.generations.length; i++)
+            {
+                if (other.generations[i] != EMPTY)
+                {
+                    put(i, other.generations[i], other.values[i]);
+                }
+            }
+            if (other.sparse != null)
+            {
+                for (Map.Entry<COSObjectKey, Long> entry : other.sparse.entrySet())
+                {
+                    put(entry.getKey().getNumber(), entry.getKey().getGeneration(),
+                            entry.getValue());
+                }
+            }
+        }
+        else
+        {
+            super.putAll(map);
+        }
+    }
+
+    @Override
+    public Long remove(Object key)
+    {
+        if (key instanceof COSObjectKey)
+        {
+            COSObjectKey objKey = (COSObjectKey) key;
+            long objNr = objKey.getNumber();
+            if (objNr >= 0 && objNr < generations.length
+                    && generations[(int) objNr] == objKey.getGeneration())
+            {
+                removeDense((int) objNr);
+                return values[(int) objNr];
+            }
+            if (sparse != null)
+            {
+                Long previous = sparse.remove(objKey);
+                if (previous != null)
+                {
+                    modCount++;
+                }
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    private void removeDense(int index)
+    {
+        generations[index] = EMPTY;
+        denseSize--;
+        modCount++;
+    }
+
+    @Override
+    public void clear()
+    {
+        values = new long[0];
+        generations = new int[0];
+        denseSize = 0;
+        sparse = null;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<COSObjectKey, Long>> entrySet()
+    {
+        if (entrySet == null)
+        {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<COSObjectKey, Long>>
+    {
+        @Override
+        public Iterator<Map.Entry<COSObjectKey, Long>> iterator()
+        {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return XrefIndex.this.size();
+        }
+
+        @Override
+        public void clear()
+        {
+            XrefIndex.this.clear();
+        }
+    }
+
+    /**
+     * Iterates over the entries of the arrays in the order of the object numbers, followed by
+     * the entries of the sparse map.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<COSObjectKey, Long>>
+    {
+        private int expectedModCount = modCount;
+        private int next = 0;
+        private int current = -1;
+        private Iterator<Map.Entry<COSObjectKey, Long>> sparseIterator = null;
+
+        @Override
+        public boolean hasNext()
+        {
+            if (sparseIterator != null)
+            {
+                return sparseIterator.hasNext();
+            }
+            while (next < generations.length && generations[next] == EMPTY)
+            {
+                next++;
+            }
+            return next < generations.length || (sparse != null && !sparse.isEmpty());
+        }
+
+        @Override
+        public Map.Entry<COSObjectKey, Long> next()
+        {
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            if (next < generations.length)
+            {
+                current = next++;
+                return new DenseEntry(current);
+            }
+            if (sparseIterator == null)
+            {
+                sparseIterator = sparse.entrySet().iterator();
+            }
+            current = -1;
+            return sparseIterator.next();
+        }
+
+        @Override
+        public void remove()
+        {
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            if (sparseIterator != null)
+            {
+                sparseIterator.remove();
+                modCount++;
+            }
+            else if (current >= 0)
+            {
+                removeDense(current);
+                current = -1;
+            }
+            else
+            {
+                throw new IllegalStateException();
+            }
+            expectedModCount = modCount;
+        }
+    }
+
+    private final class DenseEntry implements Map.Entry<COSObjectKey, Long>
+    {
+        private final int index;
+        private final COSObjectKey key;
+
+        private DenseEntry(int index)
+        {
+            this.index = index;
+            key = new COSObjectKey(index, generations[index]);
+        }
+
+        @Override
+        public COSObjectKey getKey()
+        {
+            return key;
+        }
+
+        @Override
+        public Long getValue()
+        {
+            return values[index];
+        }
+
+        @Override
+        public Long setValue(Long value)
+        {
+            long previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return key.equals(entry.getKey()) && getValue().equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return key.hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return key + "=" + values[index];
+        }
+    }
+}
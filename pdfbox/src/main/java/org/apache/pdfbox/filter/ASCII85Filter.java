@@ -52,6 +52,21 @@ final class ASCII85Filter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+    {
+        final ASCII85InputStream is = new ASCII85InputStream(encoded);
+        // ASCII85InputStream doesn't support available()
+        return new DecodingInputStream(is, 1024)
+        {
+            @Override
+            protected int decode(byte[] decoded) throws IOException
+            {
+                return is.read(decoded, 0, decoded.length);
+            }
+        };
+    }
+
     @Override
     protected final void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
         throws IOException
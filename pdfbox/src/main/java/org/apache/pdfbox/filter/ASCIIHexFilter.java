@@ -23,6 +23,7 @@ import java.io.OutputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.util.Hex;
 
 /**
@@ -52,44 +53,61 @@ final class ASCIIHexFilter extends Filter
     public final DecodeResult decode(InputStream encoded, OutputStream decoded,
                                          COSDictionary parameters, int index) throws IOException
     {
-        int value, firstByte, secondByte;
-        while ((firstByte = encoded.read()) != -1)
+        IOUtils.copy(decode(encoded, parameters, index), decoded);
+        decoded.flush();
+        return new DecodeResult(parameters);
+    }
+
+    @Override
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+    {
+        return new DecodingInputStream(encoded, 1024)
         {
-            // always after first char
-            while (isWhitespace(firstByte))
-            {
-                firstByte = encoded.read();
-            }
-            if (firstByte == -1 || isEOD(firstByte))
-            {
-                break;
-            }
-       
-            if (REVERSE_HEX[firstByte] == -1)
-            {
-                LOG.error("Invalid hex, int: " + firstByte + " char: " + (char)firstByte);
-            }
-            value = REVERSE_HEX[firstByte] * 16;
-            secondByte = encoded.read();
-       
-            if (secondByte == -1 || isEOD(secondByte)) 
-            {
-                // second value behaves like 0 in case of EOD
-                decoded.write(value);
-                break;
-            }
-            if (secondByte >= 0) 
+            private boolean finished = false;
+
+            @Override
+            protected int decode(byte[] decoded) throws IOException
             {
-                if (REVERSE_HEX[secondByte] == -1)
+                int count = 0;
+                int value, firstByte, secondByte;
+                while (count < decoded.length && !finished)
                 {
-                    LOG.error("Invalid hex, int: " + secondByte + " char: " + (char)secondByte);
+                    firstByte = encoded.read();
+                    // always after first char
+                    while (isWhitespace(firstByte))
+                    {
+                        firstByte = encoded.read();
+                    }
+                    if (firstByte == -1 || isEOD(firstByte))
+                    {
+                        finished = true;
+                        break;
+                    }
+
+                    if (REVERSE_HEX[firstByte] == -1)
+                    {
+                        LOG.error("Invalid hex, int: " + firstByte + " char: " + (char)firstByte);
+                    }
+                    value = REVERSE_HEX[firstByte] * 16;
+                    secondByte = encoded.read();
+
+                    if (secondByte == -1 || isEOD(secondByte)) 
+                    {
+                        // second value behaves like 0 in case of EOD
+                        decoded[count++] = (byte) value;
+                        finished = true;
+                        break;
+                    }
+                    if (REVERSE_HEX[secondByte] == -1)
+                    {
+                        LOG.error("Invalid hex, int: " + secondByte + " char: " + (char)secondByte);
+                    }
+                    value += REVERSE_HEX[secondByte];
+                    decoded[count++] = (byte) value;
                 }
-                value += REVERSE_HEX[secondByte];
+                return count == 0 && finished ? -1 : count;
             }
-            decoded.write(value);
-        }
-        decoded.flush();
-        return new DecodeResult(parameters);
+        };
     }
 
     // whitespace
@@ -99,12 +117,12 @@ final class ASCIIHexFilter extends Filter
     //  12  0x0C  Form feed (FF)
     //  13  0x0D  Carriage return (CR)
     //  32  0x20  Space (SP)
-    private boolean isWhitespace(int c)
+    private static boolean isWhitespace(int c)
     {
         return c == 0 || c == 9 || c == 10 || c == 12 || c == 13 || c == 32;
     }
 
-    private boolean isEOD(int c)
+    private static boolean isEOD(int c)
     {
         return c == '>';
     }
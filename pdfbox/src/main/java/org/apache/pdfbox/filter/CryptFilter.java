@@ -46,6 +46,22 @@ final class CryptFilter extends Filter
         }
     }
 
+    @Override
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+            throws IOException
+    {
+        COSName encryptionName = (COSName) parameters.getDictionaryObject(COSName.NAME);
+        if(encryptionName == null || encryptionName.equals(COSName.IDENTITY)) 
+        {
+            // currently the only supported implementation is the Identity crypt filter
+            return encoded;
+        }
+        else
+        {
+            throw new IOException("Unsupported crypt filter " + encryptionName.getName());
+        }
+    }
+
     @Override
     protected final void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
             throws IOException
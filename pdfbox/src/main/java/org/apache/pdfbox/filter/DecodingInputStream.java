@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.filter;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Base class for streams decoding the data of a filter on demand. The decoded data is
+ * produced chunk by chunk by the subclass while the stream is read.
+ *
+ * Reading an array always fills the array unless the end of the stream is reached, and
+ * {@link #available()} only returns 0 at the end of the stream, as the decoded data is
+ * consumed by parsers relying on both.
+ */
+abstract class DecodingInputStream extends InputStream
+{
+    /**
+     * The encoded data.
+     */
+    protected final InputStream encoded;
+
+    private final byte[] buffer;
+    private int position = 0;
+    private int count = 0;
+    private boolean eof = false;
+
+    /**
+     * Constructor.
+     *
+     * @param encoded the encoded data
+     * @param bufferSize the size of the chunks of decoded data
+     */
+    protected DecodingInputStream(InputStream encoded, int bufferSize)
+    {
+        this.encoded = encoded;
+        buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Decodes the next chunk of data.
+     *
+     * @param decoded the array to be filled with decoded data
+     * @return the number of decoded bytes, or -1 if the end of the data is reached
+     * @throws IOException if the data can't be decoded
+     */
+    protected abstract int decode(byte[] decoded) throws IOException;
+
+    /**
+     * Called once when the end of the data is reached or the stream is closed, to release
+     * the resources of the decoder.
+     */
+    protected void finish()
+    {
+    }
+
+    // makes sure that there is decoded data in the buffer, returns false at the end of the data
+    private boolean fill() throws IOException
+    {
+        while (position >= count)
+        {
+            if (eof)
+            {
+                return false;
+            }
+            int decodedLength = decode(buffer);
+            if (decodedLength < 0)
+            {
+                eof = true;
+                finish();
+                return false;
+            }
+            position = 0;
+            count = decodedLength;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if (!fill())
+        {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+        int read = 0;
+        while (read < len && fill())
+        {
+            int chunk = Math.min(len - read, count - position);
+            System.arraycopy(buffer, position, b, off + read, chunk);
+            position += chunk;
+            read += chunk;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        long skipped = 0;
+        while (skipped < n && fill())
+        {
+            int chunk = (int) Math.min(n - skipped, count - position);
+            position += chunk;
+            skipped += chunk;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        return fill() ? count - position : 0;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!eof)
+        {
+            eof = true;
+            finish();
+        }
+        position = count;
+        encoded.close();
+    }
+}
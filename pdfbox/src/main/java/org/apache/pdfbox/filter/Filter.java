@@ -40,10 +40,28 @@ public abstract class Filter
 {
     private static final Log LOG = LogFactory.getLog(Filter.class);
 
+    /**
+     * System property to set the size of the buffers used for Flate compressed data, the
+     * default is 16 KB.
+     */
+    public static final String SYSPROP_FLATE_BUFFER_SIZE =
+            "org.apache.pdfbox.filter.flateBufferSize";
+
     protected Filter()
     {
     }
 
+    /**
+     * Releases the native memory of the Flate decoders which the current thread keeps for reuse.
+     * Long-lived threads, e.g. of an executor or an application server, should call this when
+     * they are done with PDF processing for a while, or before the application is undeployed.
+     * Decoders needed afterwards are created again.
+     */
+    public static void releaseThreadResources()
+    {
+        FlateCodecPool.releaseThreadResources();
+    }
+
     /**
      * Decodes data, producing the original non-encoded data.
      * @param encoded the encoded byte stream
@@ -56,6 +74,24 @@ public abstract class Filter
     public abstract DecodeResult decode(InputStream encoded, OutputStream decoded, COSDictionary parameters,
                             int index) throws IOException;
 
+    /**
+     * Returns a stream which decodes the given data on demand while it is read, so that the
+     * decoded data doesn't have to be held completely. Filters which need the complete data
+     * or whose decode result carries additional information return null, such data has to be
+     * decoded using {@link #decode(InputStream, OutputStream, COSDictionary, int)}.
+     *
+     * @param encoded the encoded byte stream, it is closed when the returned stream is closed
+     * @param parameters the parameters used for decoding
+     * @param index the index to the filter being decoded
+     * @return the decoded stream, or null if this filter can't decode on demand
+     * @throws IOException if the stream cannot be decoded
+     */
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+            throws IOException
+    {
+        return null;
+    }
+
     /**
      * Encodes data.
      * @param input the byte stream to encode
@@ -70,6 +106,24 @@ public abstract class Filter
         encode(input, encoded, parameters.asUnmodifiableDictionary());
     }
 
+    /**
+     * Encodes data using the given compression settings. Filters which don't support
+     * these settings ignore them.
+     * @param input the byte stream to encode
+     * @param encoded the stream where encoded data will be written
+     * @param parameters the parameters used for encoding
+     * @param index the index to the filter being encoded
+     * @param compressionLevel the compression level, see {@link java.util.zip.Deflater}
+     * @param compressionStrategy the compression strategy, see {@link java.util.zip.Deflater}
+     * @throws IOException if the stream cannot be encoded
+     */
+    public void encode(InputStream input, OutputStream encoded, COSDictionary parameters,
+                       int index, int compressionLevel, int compressionStrategy)
+            throws IOException
+    {
+        encode(input, encoded, parameters, index);
+    }
+
     // implemented in subclasses
     protected abstract void encode(InputStream input, OutputStream encoded,
                                    COSDictionary parameters) throws IOException;
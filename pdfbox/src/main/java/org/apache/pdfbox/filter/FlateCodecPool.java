@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Keeps a few {@link Inflater} instances per thread for reuse. Inflaters and {@link Deflater}s
+ * hold native zlib memory which is only released by {@link Inflater#end()} and
+ * {@link Deflater#end()} or by the garbage collector, thus instances which aren't pooled are
+ * ended as soon as they are released. Deflaters aren't pooled at all, their native state is
+ * much larger and they are only needed when streams are encoded.
+ *
+ * The pools are confined to a thread and need no synchronization. An instance may be released
+ * by another thread than the one which acquired it, it is put into the pool of the releasing
+ * thread then. {@link #releaseThreadResources()} ends the instances pooled by the current
+ * thread.
+ */
+final class FlateCodecPool
+{
+    private static final Log LOG = LogFactory.getLog(FlateCodecPool.class);
+
+    /**
+     * Default size of the buffers used to read and write compressed data.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 16384;
+
+    /**
+     * Maximum number of inflaters kept per thread.
+     */
+    private static final int MAX_POOLED = 4;
+
+    private static final int BUFFER_SIZE = initBufferSize();
+
+    private static final ThreadLocal<FlateCodecPool> POOL = new ThreadLocal<FlateCodecPool>()
+    {
+        @Override
+        protected FlateCodecPool initialValue()
+        {
+            return new FlateCodecPool();
+        }
+    };
+
+    private final List<Inflater> inflaters = new ArrayList<Inflater>(MAX_POOLED);
+
+    private FlateCodecPool()
+    {
+    }
+
+    private static int initBufferSize()
+    {
+        String bufferSizeStr = System.getProperty(Filter.SYSPROP_FLATE_BUFFER_SIZE);
+        if (bufferSizeStr != null)
+        {
+            try
+            {
+                return Math.max(Integer.parseInt(bufferSizeStr), 512);
+            }
+            catch (NumberFormatException nfe)
+            {
+                LOG.warn("System property " + Filter.SYSPROP_FLATE_BUFFER_SIZE
+                        + " does not contain an integer value, but: '" + bufferSizeStr + "'");
+            }
+        }
+        return DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Returns the size of the buffers used to read and write compressed data.
+     */
+    static int getBufferSize()
+    {
+        return BUFFER_SIZE;
+    }
+
+    /**
+     * Returns an inflater of the current thread's pool or a new one.
+     *
+     * @return an inflater which is ready to use
+     */
+    static Inflater acquireInflater()
+    {
+        List<Inflater> pooled = POOL.get().inflaters;
+        if (pooled.isEmpty())
+        {
+            return new Inflater();
+        }
+        return pooled.remove(pooled.size() - 1);
+    }
+
+    /**
+     * Returns the given inflater to the current thread's pool, or ends it if the pool is full.
+     * The inflater must not be used afterwards.
+     *
+     * @param inflater the inflater to be released
+     */
+    static void release(Inflater inflater)
+    {
+        List<Inflater> pooled = POOL.get().inflaters;
+        if (pooled.size() < MAX_POOLED)
+        {
+            inflater.reset();
+            pooled.add(inflater);
+        }
+        else
+        {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Returns a new deflater.
+     *
+     * @param level the compression level, see {@link Deflater#setLevel(int)}
+     * @param strategy the compression strategy, see {@link Deflater#setStrategy(int)}
+     * @return a deflater which is ready to use
+     */
+    static Deflater acquireDeflater(int level, int strategy)
+    {
+        Deflater deflater = new Deflater(level);
+        deflater.setStrategy(strategy);
+        return deflater;
+    }
+
+    /**
+     * Ends the given deflater, which must not be used afterwards.
+     *
+     * @param deflater the deflater to be released
+     */
+    static void release(Deflater deflater)
+    {
+        deflater.end();
+    }
+
+    /**
+     * Ends the inflaters pooled by the current thread and removes the pool of the thread.
+     */
+    static void releaseThreadResources()
+    {
+        for (Inflater inflater : POOL.get().inflaters)
+        {
+            inflater.end();
+        }
+        POOL.remove();
+    }
+}
@@ -16,19 +16,18 @@
  */
 package org.apache.pdfbox.filter;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSDictionary;
-import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.IOUtils;
 
 /**
  * Decompresses data encoded using the zlib/deflate compression method,
@@ -40,97 +39,123 @@ import org.apache.pdfbox.cos.COSName;
 final class FlateFilter extends Filter
 {
     private static final Log LOG = LogFactory.getLog(FlateFilter.class);
-    private static final int BUFFER_SIZE = 16348;
 
     @Override
     public final DecodeResult decode(InputStream encoded, OutputStream decoded,
                                          COSDictionary parameters, int index) throws IOException
     {
-        int predictor = -1;
+        InputStream inflated = decode(encoded, parameters, index);
+        try
+        {
+            IOUtils.copy(inflated, decoded);
+        }
+        finally
+        {
+            inflated.close();
+        }
+        decoded.flush();
+        return new DecodeResult(parameters);
+    }
+
+    @Override
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+    {
+        // the predictor, if any, is reverted row by row while the data is inflated
+        return Predictor.wrapPredictor(new InflateInputStream(encoded),
+                getDecodeParams(parameters, index));
+    }
+
+    // Use Inflater instead of InflaterInputStream to avoid an EOFException due to a probably
+    // missing Z_STREAM_END, see PDFBOX-1232 for details
+    // The inflater is taken from the pool and released as soon as the end of the data is
+    // reached or the stream is closed.
+    private static final class InflateInputStream extends DecodingInputStream
+    {
+        private final Inflater inflater = FlateCodecPool.acquireInflater();
+        private final byte[] buf = new byte[FlateCodecPool.getBufferSize()];
 
-        COSDictionary decodeParams = getDecodeParams(parameters, index);
-        if (decodeParams != null)
+        private InflateInputStream(InputStream encoded)
         {
-            predictor = decodeParams.getInt(COSName.PREDICTOR);
+            super(encoded, FlateCodecPool.getBufferSize());
         }
 
-        try
+        @Override
+        protected int decode(byte[] decoded) throws IOException
         {
-            if (predictor > 1)
+            try
             {
-                int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
-                int bitsPerPixel = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
-                int columns = decodeParams.getInt(COSName.COLUMNS, 1);
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                decompress(encoded, baos);
-                ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-                Predictor.decodePredictor(predictor, colors, bitsPerPixel, columns, bais, decoded);
-                decoded.flush();
-                baos.reset();
-                bais.reset();
+                while (true)
+                {
+                    int resRead = inflater.inflate(decoded);
+                    if (resRead != 0)
+                    {
+                        return resRead;
+                    }
+                    if (inflater.finished() || inflater.needsDictionary() || !inflater.needsInput())
+                    {
+                        return -1;
+                    }
+                    int read = encoded.read(buf);
+                    if (read == -1)
+                    {
+                        return -1;
+                    }
+                    inflater.setInput(buf, 0, read);
+                }
             }
-            else
+            catch (DataFormatException e)
             {
-                decompress(encoded, decoded);
-            }
-        } 
-        catch (DataFormatException e)
-        {
-            // if the stream is corrupt a DataFormatException may occur
-            LOG.error("FlateFilter: stop reading corrupt stream due to a DataFormatException");
+                // if the stream is corrupt a DataFormatException may occur
+                LOG.error("FlateFilter: stop reading corrupt stream due to a DataFormatException");
 
-            // re-throw the exception
-            throw new IOException(e);
+                // re-throw the exception
+                throw new IOException(e);
+            }
         }
-        return new DecodeResult(parameters);
-    }
 
-    // Use Inflater instead of InflateInputStream to avoid an EOFException due to a probably
-    // missing Z_STREAM_END, see PDFBOX-1232 for details
-    private void decompress(InputStream in, OutputStream out) throws IOException, DataFormatException 
-    { 
-        byte[] buf = new byte[2048]; 
-        int read = in.read(buf); 
-        if (read > 0) 
-        { 
-            Inflater inflater = new Inflater(); 
-            inflater.setInput(buf,0,read); 
-            byte[] res = new byte[2048]; 
-            while (true) 
-            { 
-                int resRead = inflater.inflate(res); 
-                if (resRead != 0) 
-                { 
-                    out.write(res,0,resRead); 
-                    continue; 
-                } 
-                if (inflater.finished() || inflater.needsDictionary() || in.available() == 0) 
-                {
-                    break;
-                } 
-                read = in.read(buf); 
-                inflater.setInput(buf,0,read); 
-            }
+        @Override
+        protected void finish()
+        {
+            FlateCodecPool.release(inflater);
         }
-        out.flush();
     }
     
     @Override
     protected final void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
             throws IOException
     {
-        DeflaterOutputStream out = new DeflaterOutputStream(encoded);
-        int amountRead;
-        int mayRead = input.available();
-        if (mayRead > 0)
+        encode(input, encoded, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    }
+
+    @Override
+    public void encode(InputStream input, OutputStream encoded, COSDictionary parameters,
+                       int index, int compressionLevel, int compressionStrategy)
+            throws IOException
+    {
+        encode(input, encoded, compressionLevel, compressionStrategy);
+    }
+
+    private void encode(InputStream input, OutputStream encoded, int compressionLevel,
+                        int compressionStrategy) throws IOException
+    {
+        Deflater deflater = FlateCodecPool.acquireDeflater(compressionLevel, compressionStrategy);
+        try
         {
-            byte[] buffer = new byte[Math.min(mayRead,BUFFER_SIZE)];
-            while ((amountRead = input.read(buffer, 0, Math.min(mayRead,BUFFER_SIZE))) != -1)
+            int bufferSize = FlateCodecPool.getBufferSize();
+            DeflaterOutputStream out = new DeflaterOutputStream(encoded, deflater, bufferSize);
+            byte[] buffer = new byte[bufferSize];
+            int amountRead;
+            while ((amountRead = input.read(buffer, 0, bufferSize)) != -1)
             {
                 out.write(buffer, 0, amountRead);
             }
+            // the deflater is ended below, closing the stream would close "encoded"
+            out.finish();
+        }
+        finally
+        {
+            FlateCodecPool.release(deflater);
         }
-        out.close();
         encoded.flush();
     }
 }
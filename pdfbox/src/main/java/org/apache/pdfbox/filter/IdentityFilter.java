@@ -46,6 +46,12 @@ final class IdentityFilter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+    {
+        return encoded;
+    }
+
     @Override
     protected final void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
         throws IOException
@@ -15,15 +15,11 @@
  */
 package org.apache.pdfbox.filter;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import javax.imageio.stream.MemoryCacheImageInputStream;
 import javax.imageio.stream.MemoryCacheImageOutputStream;
 import org.apache.commons.logging.Log;
@@ -54,8 +50,24 @@ public class LZWFilter extends Filter
      * The LZW end of data code.
      */
     public static final long EOD = 257;
-    
-    //BEWARE: codeTable must be local to each method, because there is only
+
+    /**
+     * The maximum number of codes, codes are at most 12 bits long.
+     */
+    private static final int MAX_CODES = 4096;
+
+    /**
+     * The first code which isn't predefined.
+     */
+    private static final int FIRST_CODE = 258;
+
+    /**
+     * Size of the hash table used by the encoder to find the code of a pattern, a power of 2
+     * which is more than twice the number of codes to keep the probe sequences short.
+     */
+    private static final int HASH_SIZE = 8192;
+
+    //BEWARE: the code tables must be local to each method, because there is only
     // one instance of each filter
 
     /**
@@ -80,16 +92,10 @@ public class LZWFilter extends Filter
         }
         if (predictor > 1)
         {
-            int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
-            int bitsPerPixel = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
-            int columns = decodeParams.getInt(COSName.COLUMNS, 1);
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            doLZWDecode(encoded, baos, earlyChange);
-            ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-            Predictor.decodePredictor(predictor, colors, bitsPerPixel, columns, bais, decoded);
-            decoded.flush();
-            baos.reset();
-            bais.reset();
+            // the predictor is reverted row by row while the data is decoded
+            PredictorOutputStream predictorStream = Predictor.wrapPredictor(decoded, decodeParams);
+            doLZWDecode(encoded, predictorStream, earlyChange);
+            predictorStream.finish();
         }
         else
         {
@@ -100,11 +106,24 @@ public class LZWFilter extends Filter
 
     private void doLZWDecode(InputStream encoded, OutputStream decoded, int earlyChange) throws IOException
     {
-        List<byte[]> codeTable = null;
+        // each code is stored as the code of its prefix and its last byte, the single byte
+        // codes have no prefix
+        int[] prefixes = new int[MAX_CODES];
+        byte[] suffixes = new byte[MAX_CODES];
+        int[] lengths = new int[MAX_CODES];
+        for (int i = 0; i < 256; ++i)
+        {
+            prefixes[i] = -1;
+            suffixes[i] = (byte) i;
+            lengths[i] = 1;
+        }
+        // the bytes of the current code
+        byte[] data = new byte[MAX_CODES];
+        int tableSize = FIRST_CODE;
         int chunk = 9;
         MemoryCacheImageInputStream in = new MemoryCacheImageInputStream(encoded);
         long nextCommand;
-        long prevCommand = -1;
+        int prevCommand = -1;
 
         try
         {
@@ -113,35 +132,41 @@ public class LZWFilter extends Filter
                 if (nextCommand == CLEAR_TABLE)
                 {
                     chunk = 9;
-                    codeTable = createCodeTable();
+                    tableSize = FIRST_CODE;
                     prevCommand = -1;
                 }
                 else
                 {
-                    if (nextCommand < codeTable.size())
+                    int code = (int) nextCommand;
+                    int length;
+                    if (code < tableSize)
+                    {
+                        length = lengths[code];
+                        fillCode(prefixes, suffixes, code, data, length);
+                    }
+                    else
                     {
-                        byte[] data = codeTable.get((int) nextCommand);
-                        byte firstByte = data[0];
-                        decoded.write(data);
-                        if (prevCommand != -1)
+                        if (prevCommand == -1)
                         {
-                            data = codeTable.get((int) prevCommand);
-                            byte[] newData = Arrays.copyOf(data, data.length + 1);
-                            newData[data.length] = firstByte;
-                            codeTable.add(newData);
+                            throw new IOException("Invalid LZW code " + code
+                                    + " at the start of the data");
                         }
+                        // the code to be added is the previous one followed by its first byte
+                        length = lengths[prevCommand] + 1;
+                        fillCode(prefixes, suffixes, prevCommand, data, length - 1);
+                        data[length - 1] = data[0];
                     }
-                    else
+                    decoded.write(data, 0, length);
+                    if (prevCommand != -1 && tableSize < MAX_CODES)
                     {
-                        byte[] data = codeTable.get((int) prevCommand);
-                        byte[] newData = Arrays.copyOf(data, data.length + 1);
-                        newData[data.length] = data[0];
-                        decoded.write(newData);
-                        codeTable.add(newData);
+                        prefixes[tableSize] = prevCommand;
+                        suffixes[tableSize] = data[0];
+                        lengths[tableSize] = lengths[prevCommand] + 1;
+                        tableSize++;
                     }
-                    
-                    chunk = calculateChunk(codeTable.size(), earlyChange);
-                    prevCommand = nextCommand;
+
+                    chunk = calculateChunk(tableSize, earlyChange);
+                    prevCommand = code;
                 }
             }
         }
@@ -152,6 +177,19 @@ public class LZWFilter extends Filter
         decoded.flush();
     }
 
+    /**
+     * Writes the bytes of the given code to the start of the given array by walking back
+     * through the prefixes of the code.
+     */
+    private void fillCode(int[] prefixes, byte[] suffixes, int code, byte[] data, int length)
+    {
+        for (int i = length - 1; i >= 0; --i)
+        {
+            data[i] = suffixes[code];
+            code = prefixes[code];
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -159,54 +197,58 @@ public class LZWFilter extends Filter
     protected final void encode(InputStream rawData, OutputStream encoded, COSDictionary parameters)
             throws IOException
     {
-        List<byte[]> codeTable = createCodeTable();
+        // open addressing hash table mapping a pattern, i.e. the code of its prefix and its
+        // last byte, to the code of the pattern
+        int[] hashKeys = new int[HASH_SIZE];
+        int[] hashCodes = new int[HASH_SIZE];
+        Arrays.fill(hashKeys, -1);
+        int tableSize = FIRST_CODE;
         int chunk = 9;
 
-        byte[] inputPattern = null;
         MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(encoded);
         out.writeBits(CLEAR_TABLE, chunk);
         int foundCode = -1;
         int r;
         while ((r = rawData.read()) != -1)
         {
-            byte by = (byte) r;
-            if (inputPattern == null)
+            if (foundCode == -1)
+            {
+                foundCode = r;
+                continue;
+            }
+            int key = (foundCode << 8) | r;
+            int slot = hash(key);
+            while (hashKeys[slot] != -1 && hashKeys[slot] != key)
+            {
+                slot = (slot + 1) & (HASH_SIZE - 1);
+            }
+            if (hashKeys[slot] == key)
             {
-                inputPattern = new byte[] { by };
-                foundCode = by & 0xff;
+                foundCode = hashCodes[slot];
             }
             else
             {
-                inputPattern = Arrays.copyOf(inputPattern, inputPattern.length + 1);
-                inputPattern[inputPattern.length - 1] = by;
-                int newFoundCode = findPatternCode(codeTable, inputPattern);
-                if (newFoundCode == -1)
-                {
-                    // use previous
-                    chunk = calculateChunk(codeTable.size() - 1, 1);
-                    out.writeBits(foundCode, chunk);
-                    // create new table entry
-                    codeTable.add(inputPattern);
+                // use previous
+                chunk = calculateChunk(tableSize - 1, 1);
+                out.writeBits(foundCode, chunk);
+                // create new table entry
+                hashKeys[slot] = key;
+                hashCodes[slot] = tableSize++;
 
-                    if (codeTable.size() == 4096)
-                    {
-                        // code table is full
-                        out.writeBits(CLEAR_TABLE, chunk);
-                        codeTable = createCodeTable();
-                    }
-
-                    inputPattern = new byte[] { by };
-                    foundCode = by & 0xff;
-                }
-                else
+                if (tableSize == MAX_CODES)
                 {
-                    foundCode = newFoundCode;
+                    // code table is full
+                    out.writeBits(CLEAR_TABLE, chunk);
+                    Arrays.fill(hashKeys, -1);
+                    tableSize = FIRST_CODE;
                 }
+
+                foundCode = r;
             }
         }
         if (foundCode != -1)
         {
-            chunk = calculateChunk(codeTable.size() - 1, 1);
+            chunk = calculateChunk(tableSize - 1, 1);
             out.writeBits(foundCode, chunk);
         }
 
@@ -215,7 +257,7 @@ public class LZWFilter extends Filter
         // possibly adjusted the chunk. Therefore, the encoder must behave as 
         // if the code table had just grown and thus it must be checked it is
         // needed to adjust the chunk, based on an increased table size parameter
-        chunk = calculateChunk(codeTable.size(), 1);
+        chunk = calculateChunk(tableSize, 1);
 
         out.writeBits(EOD, chunk);
         
@@ -227,57 +269,11 @@ public class LZWFilter extends Filter
     }
 
     /**
-     * Find the longest matching pattern in the code table.
-     *
-     * @param codeTable The LZW code table.
-     * @param pattern The pattern to be searched for.
-     * @return The index of the longest matching pattern or -1 if nothing is
-     * found.
-     */
-    private int findPatternCode(List<byte[]> codeTable, byte[] pattern)
-    {
-        int foundCode = -1;
-        int foundLen = 0;
-        for (int i = codeTable.size() - 1; i >= 0; --i)
-        {
-            if (i <= EOD)
-            {
-                // we're in the single byte area
-                if (foundCode != -1)
-                {
-                    // we already found pattern with size > 1
-                    return foundCode; 
-                }
-                else if (pattern.length > 1)
-                {
-                    // we won't find anything here anyway
-                    return -1;
-                }
-            }
-            byte[] tryPattern = codeTable.get(i);
-            if ((foundCode != -1 || tryPattern.length > foundLen) && Arrays.equals(tryPattern, pattern))
-            {
-                foundCode = i;
-                foundLen = tryPattern.length;
-            }
-        }
-        return foundCode;
-    }
-
-    /**
-     * Init the code table with 1 byte entries and the EOD and CLEAR_TABLE
-     * markers.
+     * Returns the start slot of the given pattern key in the hash table of the encoder.
      */
-    private List<byte[]> createCodeTable()
+    private static int hash(int key)
     {
-        List<byte[]> codeTable = new ArrayList<byte[]>(4096);
-        for (int i = 0; i < 256; ++i)
-        {
-            codeTable.add(new byte[] { (byte) (i & 0xFF) });
-        }
-        codeTable.add(null); // 256 EOD
-        codeTable.add(null); // 257 CLEAR_TABLE
-        return codeTable;
+        return (key * 0x9E3779B1) >>> 19;
     }
 
     /**
@@ -18,11 +18,16 @@ package org.apache.pdfbox.filter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import org.apache.pdfbox.io.IOUtils;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
 
 /**
  * Helper class to contain predictor decoding used by Flate and LZW filter. 
  * To see the history, look at the FlateFilter class.
+ *
+ * The predictor is reverted row by row while the data is read or written, see
+ * {@link PredictorInputStream} and {@link PredictorOutputStream}.
  */
 public final class Predictor
 {
@@ -31,142 +36,167 @@ public final class Predictor
     {
     }
     
-    static void decodePredictor(int predictor, int colors, int bitsPerComponent, int columns, InputStream in, OutputStream out)
-            throws IOException
+    /**
+     * Wraps the given stream so that the predictor given in the decode parameters is
+     * reverted while the stream is read.
+     *
+     * @param in the stream containing the predicted data
+     * @param decodeParams the decode parameters of the filter
+     * @return the given stream if no predictor is used, otherwise the wrapped stream
+     */
+    static InputStream wrapPredictor(InputStream in, COSDictionary decodeParams)
     {
-        if (predictor == 1)
+        int predictor = decodeParams == null ? -1 : decodeParams.getInt(COSName.PREDICTOR);
+        if (predictor <= 1)
         {
-            // no prediction
-            IOUtils.copy(in, out);
+            return in;
         }
-        else
+        int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
+        int bitsPerComponent = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
+        int columns = decodeParams.getInt(COSName.COLUMNS, 1);
+        return new PredictorInputStream(in, predictor, colors, bitsPerComponent, columns);
+    }
+
+    /**
+     * Wraps the given stream so that the predictor given in the decode parameters is
+     * reverted while the data is written. {@link PredictorOutputStream#finish()} has to be
+     * called after the last row.
+     *
+     * @param out the stream the decoded data is written to
+     * @param decodeParams the decode parameters of the filter
+     * @return null if no predictor is used, otherwise the wrapped stream
+     */
+    static PredictorOutputStream wrapPredictor(OutputStream out, COSDictionary decodeParams)
+    {
+        int predictor = decodeParams == null ? -1 : decodeParams.getInt(COSName.PREDICTOR);
+        if (predictor <= 1)
         {
-            // calculate sizes
-            final int bitsPerPixel = colors * bitsPerComponent;
-            final int bytesPerPixel = (bitsPerPixel + 7) / 8;
-            final int rowlength = (columns * bitsPerPixel + 7) / 8;
-            byte[] actline = new byte[rowlength];
-            byte[] lastline = new byte[rowlength];
+            return null;
+        }
+        int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
+        int bitsPerComponent = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
+        int columns = decodeParams.getInt(COSName.COLUMNS, 1);
+        return new PredictorOutputStream(out, predictor, colors, bitsPerComponent, columns);
+    }
 
-            int linepredictor = predictor;
+    /**
+     * Returns the length of a row in bytes, without the PNG predictor byte.
+     */
+    static int getRowLength(int colors, int bitsPerComponent, int columns)
+    {
+        return (columns * colors * bitsPerComponent + 7) / 8;
+    }
 
-            while (in.available() > 0)
-            {
-                // test for PNG predictor; each value >= 10 (not only 15) indicates usage of PNG predictor
-                if (predictor >= 10)
+    /**
+     * Returns the number of bytes of a pixel, rounded up.
+     */
+    static int getBytesPerPixel(int colors, int bitsPerComponent)
+    {
+        return (colors * bitsPerComponent + 7) / 8;
+    }
+
+    /**
+     * Reverts the prediction of a single row as specified in PNG-Specification 1.2.
+     *
+     * @param predictor the predictor of the row, TIFF (2) or PNG predictors (10 - 14)
+     * @param bitsPerComponent the number of bits per color component
+     * @param bytesPerPixel the number of bytes per pixel, rounded up
+     * @param actline the row to be decoded, it contains the decoded row afterwards
+     * @param lastline the previous decoded row, all zeros for the first row
+     * @throws IOException if the predictor isn't supported
+     */
+    static void decodePredictorRow(int predictor, int bitsPerComponent, int bytesPerPixel,
+            byte[] actline, byte[] lastline) throws IOException
+    {
+        final int rowlength = actline.length;
+        switch (predictor)
+        {
+            case 2:// PRED TIFF SUB
+                // TODO decode tiff with bitsPerComponent < 8;
+                // e.g. for 4 bpc each nibble must be subtracted separately
+                if (bitsPerComponent == 16)
                 {
-                    // PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
-                    linepredictor = in.read();// read per line predictor
-                    if (linepredictor == -1)
-                    {
-                        return;
-                    }
-                    else
+                    for (int p = 0; p < rowlength; p += 2)
                     {
-                        linepredictor += 10; // add 10 to tread value 0 as 10, 1 as 11, ...
+                        int sub = ((actline[p] & 0xff) << 8) + (actline[p + 1] & 0xff);
+                        int left = p - bytesPerPixel >= 0
+                                ? (((actline[p - bytesPerPixel] & 0xff) << 8)
+                                + (actline[p - bytesPerPixel + 1] & 0xff))
+                                : 0;
+                        actline[p] = (byte) (((sub + left) >> 8) & 0xff);
+                        actline[p + 1] = (byte) ((sub + left) & 0xff);
                     }
+                    break;
                 }
-
-                // read line
-                int i, offset = 0;
-                while (offset < rowlength && ((i = in.read(actline, offset, rowlength - offset)) != -1))
+                if (bitsPerComponent != 8)
                 {
-                    offset += i;
+                    throw new IOException("TIFF-Predictor with " + bitsPerComponent
+                            + " bits per component not supported");
                 }
-
-                // do prediction as specified in PNG-Specification 1.2
-                switch (linepredictor)
+                // for 8 bits per component it is the same algorithm as PRED SUB of PNG format
+                for (int p = 0; p < rowlength; p++)
                 {
-                    case 2:// PRED TIFF SUB
-                        // TODO decode tiff with bitsPerComponent < 8;
-                        // e.g. for 4 bpc each nibble must be subtracted separately
-                        if (bitsPerComponent == 16)
-                        {
-                            for (int p = 0; p < rowlength; p += 2)
-                            {
-                                int sub = ((actline[p] & 0xff) << 8) + (actline[p + 1] & 0xff);
-                                int left = p - bytesPerPixel >= 0
-                                        ? (((actline[p - bytesPerPixel] & 0xff) << 8)
-                                        + (actline[p - bytesPerPixel + 1] & 0xff))
-                                        : 0;
-                                actline[p] = (byte) (((sub + left) >> 8) & 0xff);
-                                actline[p + 1] = (byte) ((sub + left) & 0xff);
-                            }
-                            break;
-                        }
-                        if (bitsPerComponent != 8)
-                        {
-                            throw new IOException("TIFF-Predictor with " + bitsPerComponent
-                                    + " bits per component not supported");
-                        }
-                        // for 8 bits per component it is the same algorithm as PRED SUB of PNG format
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int sub = actline[p] & 0xff;
-                            int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-                            actline[p] = (byte) (sub + left);
-                        }
-                        break;
-                    case 10:// PRED NONE
-                        // do nothing
-                        break;
-                    case 11:// PRED SUB
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int sub = actline[p];
-                            int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] : 0;
-                            actline[p] = (byte) (sub + left);
-                        }
-                        break;
-                    case 12:// PRED UP
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int up = actline[p] & 0xff;
-                            int prior = lastline[p] & 0xff;
-                            actline[p] = (byte) ((up + prior) & 0xff);
-                        }
-                        break;
-                    case 13:// PRED AVG
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int avg = actline[p] & 0xff;
-                            int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-                            int up = lastline[p] & 0xff;
-                            actline[p] = (byte) ((avg + (left + up) / 2) & 0xff);
-                        }
-                        break;
-                    case 14:// PRED PAETH
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int paeth = actline[p] & 0xff;
-                            int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
-                            int b = lastline[p] & 0xff;// upper
-                            int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
-                            int value = a + b - c;
-                            int absa = Math.abs(value - a);
-                            int absb = Math.abs(value - b);
-                            int absc = Math.abs(value - c);
+                    int sub = actline[p] & 0xff;
+                    int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
+                    actline[p] = (byte) (sub + left);
+                }
+                break;
+            case 10:// PRED NONE
+                // do nothing
+                break;
+            case 11:// PRED SUB
+                for (int p = 0; p < rowlength; p++)
+                {
+                    int sub = actline[p];
+                    int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] : 0;
+                    actline[p] = (byte) (sub + left);
+                }
+                break;
+            case 12:// PRED UP
+                for (int p = 0; p < rowlength; p++)
+                {
+                    int up = actline[p] & 0xff;
+                    int prior = lastline[p] & 0xff;
+                    actline[p] = (byte) ((up + prior) & 0xff);
+                }
+                break;
+            case 13:// PRED AVG
+                for (int p = 0; p < rowlength; p++)
+                {
+                    int avg = actline[p] & 0xff;
+                    int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
+                    int up = lastline[p] & 0xff;
+                    actline[p] = (byte) ((avg + (left + up) / 2) & 0xff);
+                }
+                break;
+            case 14:// PRED PAETH
+                for (int p = 0; p < rowlength; p++)
+                {
+                    int paeth = actline[p] & 0xff;
+                    int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
+                    int b = lastline[p] & 0xff;// upper
+                    int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
+                    int value = a + b - c;
+                    int absa = Math.abs(value - a);
+                    int absb = Math.abs(value - b);
+                    int absc = Math.abs(value - c);
 
-                            if (absa <= absb && absa <= absc)
-                            {
-                                actline[p] = (byte) ((paeth + a) & 0xff);
-                            }
-                            else if (absb <= absc)
-                            {
-                                actline[p] = (byte) ((paeth + b) & 0xff);
-                            }
-                            else
-                            {
-                                actline[p] = (byte) ((paeth + c) & 0xff);
-                            }
-                        }
-                        break;
-                    default:
-                        break;
+                    if (absa <= absb && absa <= absc)
+                    {
+                        actline[p] = (byte) ((paeth + a) & 0xff);
+                    }
+                    else if (absb <= absc)
+                    {
+                        actline[p] = (byte) ((paeth + b) & 0xff);
+                    }
+                    else
+                    {
+                        actline[p] = (byte) ((paeth + c) & 0xff);
+                    }
                 }
-                System.arraycopy(actline, 0, lastline, 0, rowlength);
-                out.write(actline);
-            }
+                break;
+            default:
+                break;
         }
     }
 
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.filter;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reverts a TIFF or PNG predictor row by row while the stream is read. Only two row buffers
+ * are used, the current row and the previous one which is needed by some predictors.
+ *
+ * An incomplete last row is completed using the previous row, like it always has been done
+ * by the predictor decoding of the Flate and LZW filter.
+ */
+final class PredictorInputStream extends InputStream
+{
+    private final InputStream in;
+    private final int predictor;
+    private final int bitsPerComponent;
+    private final int bytesPerPixel;
+    private final int rowLength;
+
+    // the row being decoded
+    private byte[] actline;
+    // the last decoded row, this is the data returned by the read methods
+    private byte[] lastline;
+    private int position = 0;
+    private int count = 0;
+    private boolean eof = false;
+
+    /**
+     * Constructor.
+     *
+     * @param in the predicted data
+     * @param predictor the predictor, 2 for TIFF or 10 and above for PNG
+     * @param colors the number of color components per pixel
+     * @param bitsPerComponent the number of bits per color component
+     * @param columns the number of pixels per row
+     */
+    PredictorInputStream(InputStream in, int predictor, int colors, int bitsPerComponent,
+            int columns)
+    {
+        this.in = in;
+        this.predictor = predictor;
+        this.bitsPerComponent = bitsPerComponent;
+        bytesPerPixel = Predictor.getBytesPerPixel(colors, bitsPerComponent);
+        rowLength = Predictor.getRowLength(colors, bitsPerComponent, columns);
+        actline = new byte[rowLength];
+        lastline = new byte[rowLength];
+    }
+
+    // reads and decodes the next row, returns false if there is no further row
+    private boolean decodeRow() throws IOException
+    {
+        int linepredictor = predictor;
+        // test for PNG predictor; each value >= 10 (not only 15) indicates usage of PNG predictor
+        if (predictor >= 10)
+        {
+            // PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
+            linepredictor = in.read();
+            if (linepredictor == -1)
+            {
+                return false;
+            }
+            linepredictor += 10; // add 10 to tread value 0 as 10, 1 as 11, ...
+        }
+        int i, offset = 0;
+        while (offset < rowLength && (i = in.read(actline, offset, rowLength - offset)) != -1)
+        {
+            offset += i;
+        }
+        if (offset == 0 && predictor < 10)
+        {
+            return false;
+        }
+        if (offset < rowLength)
+        {
+            // complete the row with the data of the previous row
+            System.arraycopy(lastline, offset, actline, offset, rowLength - offset);
+        }
+        Predictor.decodePredictorRow(linepredictor, bitsPerComponent, bytesPerPixel,
+                actline, lastline);
+        byte[] decodedRow = actline;
+        actline = lastline;
+        lastline = decodedRow;
+        return true;
+    }
+
+    // makes sure that there is decoded data, returns false at the end of the data
+    private boolean fill() throws IOException
+    {
+        while (position >= count)
+        {
+            if (eof || !decodeRow())
+            {
+                eof = true;
+                return false;
+            }
+            position = 0;
+            count = rowLength;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if (!fill())
+        {
+            return -1;
+        }
+        return lastline[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+        int read = 0;
+        while (read < len && fill())
+        {
+            int chunk = Math.min(len - read, count - position);
+            System.arraycopy(lastline, position, b, off + read, chunk);
+            position += chunk;
+            read += chunk;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        long skipped = 0;
+        while (skipped < n && fill())
+        {
+            int chunk = (int) Math.min(n - skipped, count - position);
+            position += chunk;
+            skipped += chunk;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        return fill() ? count - position : 0;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        eof = true;
+        position = count;
+        in.close();
+    }
+}
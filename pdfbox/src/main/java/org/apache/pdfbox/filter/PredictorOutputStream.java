@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Reverts a TIFF or PNG predictor row by row while the predicted data is written. Only two
+ * row buffers are used, the current row and the previous one which is needed by some
+ * predictors.
+ *
+ * {@link #finish()} has to be called after the last row, an incomplete last row is completed
+ * using the previous row then, see {@link PredictorInputStream}.
+ */
+final class PredictorOutputStream extends OutputStream
+{
+    private final OutputStream out;
+    private final int predictor;
+    private final int bitsPerComponent;
+    private final int bytesPerPixel;
+    private final int rowLength;
+
+    // the row being received
+    private byte[] actline;
+    // the last decoded row
+    private byte[] lastline;
+    private int offset = 0;
+    private int linepredictor;
+    private boolean rowStarted = false;
+
+    /**
+     * Constructor.
+     *
+     * @param out the stream the decoded data is written to
+     * @param predictor the predictor, 2 for TIFF or 10 and above for PNG
+     * @param colors the number of color components per pixel
+     * @param bitsPerComponent the number of bits per color component
+     * @param columns the number of pixels per row
+     */
+    PredictorOutputStream(OutputStream out, int predictor, int colors, int bitsPerComponent,
+            int columns)
+    {
+        this.out = out;
+        this.predictor = predictor;
+        this.bitsPerComponent = bitsPerComponent;
+        bytesPerPixel = Predictor.getBytesPerPixel(colors, bitsPerComponent);
+        rowLength = Predictor.getRowLength(colors, bitsPerComponent, columns);
+        actline = new byte[rowLength];
+        lastline = new byte[rowLength];
+        linepredictor = predictor;
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        if (!rowStarted)
+        {
+            rowStarted = true;
+            if (predictor >= 10)
+            {
+                // PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
+                linepredictor = (b & 0xff) + 10;
+                if (rowLength == 0)
+                {
+                    writeRow();
+                }
+                return;
+            }
+        }
+        if (offset < rowLength)
+        {
+            actline[offset++] = (byte) b;
+        }
+        if (offset == rowLength)
+        {
+            writeRow();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        while (len > 0)
+        {
+            if (!rowStarted || rowLength == 0)
+            {
+                write(b[off++]);
+                len--;
+                continue;
+            }
+            int chunk = Math.min(len, rowLength - offset);
+            System.arraycopy(b, off, actline, offset, chunk);
+            offset += chunk;
+            off += chunk;
+            len -= chunk;
+            if (offset == rowLength)
+            {
+                writeRow();
+            }
+        }
+    }
+
+    // decodes and writes the current row
+    private void writeRow() throws IOException
+    {
+        if (offset < rowLength)
+        {
+            // complete the row with the data of the previous row
+            System.arraycopy(lastline, offset, actline, offset, rowLength - offset);
+        }
+        Predictor.decodePredictorRow(linepredictor, bitsPerComponent, bytesPerPixel,
+                actline, lastline);
+        out.write(actline, 0, rowLength);
+        byte[] decodedRow = actline;
+        actline = lastline;
+        lastline = decodedRow;
+        offset = 0;
+        rowStarted = false;
+    }
+
+    /**
+     * Writes the incomplete last row, if any.
+     *
+     * @throws IOException if the row can't be written
+     */
+    public void finish() throws IOException
+    {
+        if (rowStarted)
+        {
+            writeRow();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        finish();
+        out.close();
+    }
+}
@@ -23,6 +23,7 @@ import java.io.OutputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.io.IOUtils;
 
 /**
  * Decompresses data encoded using a byte-oriented run-length encoding algorithm,
@@ -39,31 +40,73 @@ final class RunLengthDecodeFilter extends Filter
     public final DecodeResult decode(InputStream encoded, OutputStream decoded,
                                          COSDictionary parameters, int index) throws IOException
     {
-        int dupAmount;
-        byte[] buffer = new byte[128];
-        while ((dupAmount = encoded.read()) != -1 && dupAmount != RUN_LENGTH_EOD)
+        IOUtils.copy(decode(encoded, parameters, index), decoded);
+        return new DecodeResult(parameters);
+    }
+
+    @Override
+    public InputStream decode(InputStream encoded, COSDictionary parameters, int index)
+    {
+        return new DecodingInputStream(encoded, 4096)
         {
-            if (dupAmount <= 127)
-            {
-                int amountToCopy = dupAmount + 1;
-                int compressedRead;
-                while(amountToCopy > 0)
-                {
-                    compressedRead = encoded.read(buffer, 0, amountToCopy);
-                    decoded.write(buffer, 0, compressedRead);
-                    amountToCopy -= compressedRead;
-                }
-            }
-            else
+            private int amountToCopy = 0;
+            private int amountToDuplicate = 0;
+            private byte dupByte;
+            private boolean finished = false;
+
+            @Override
+            protected int decode(byte[] decoded) throws IOException
             {
-                int dupByte = encoded.read();
-                for (int i = 0; i < 257 - dupAmount; i++)
+                int count = 0;
+                while (count < decoded.length)
                 {
-                    decoded.write(dupByte);
+                    if (amountToCopy > 0)
+                    {
+                        int compressedRead = encoded.read(decoded, count,
+                                Math.min(amountToCopy, decoded.length - count));
+                        if (compressedRead == -1)
+                        {
+                            amountToCopy = 0;
+                            finished = true;
+                            break;
+                        }
+                        count += compressedRead;
+                        amountToCopy -= compressedRead;
+                    }
+                    else if (amountToDuplicate > 0)
+                    {
+                        int amount = Math.min(amountToDuplicate, decoded.length - count);
+                        for (int i = 0; i < amount; i++)
+                        {
+                            decoded[count++] = dupByte;
+                        }
+                        amountToDuplicate -= amount;
+                    }
+                    else if (finished)
+                    {
+                        break;
+                    }
+                    else
+                    {
+                        int dupAmount = encoded.read();
+                        if (dupAmount == -1 || dupAmount == RUN_LENGTH_EOD)
+                        {
+                            finished = true;
+                        }
+                        else if (dupAmount <= 127)
+                        {
+                            amountToCopy = dupAmount + 1;
+                        }
+                        else
+                        {
+                            dupByte = (byte) encoded.read();
+                            amountToDuplicate = 257 - dupAmount;
+                        }
+                    }
                 }
+                return count == 0 && finished ? -1 : count;
             }
-        }
-        return new DecodeResult(parameters);
+        };
     }
 
     @Override
@@ -21,14 +21,15 @@ import java.io.IOException;
 
 /**
  * This class allows a section of a RandomAccessFile to be accessed as an
- * input stream.
+ * input stream. The position of the underlying file is restored after each read,
+ * so that it can be shared with other readers, e.g. the parser.
  *
  * @author <a href="mailto:ben@benlitchfield.com">Ben Litchfield</a>
  * @version $Revision: 1.5 $
  */
 public class RandomAccessFileInputStream extends InputStream
 {
-    private final RandomAccess file;
+    private final RandomAccessRead file;
     private long currentPosition;
     private final long endPosition;
 
@@ -39,7 +40,7 @@ public class RandomAccessFileInputStream extends InputStream
      * @param startPosition The position in the file that this stream starts.
      * @param length The length of the input stream.
      */
-    public RandomAccessFileInputStream( RandomAccess raFile, long startPosition, long length )
+    public RandomAccessFileInputStream( RandomAccessRead raFile, long startPosition, long length )
     {
         file = raFile;
         currentPosition = startPosition;
@@ -72,9 +73,11 @@ public class RandomAccessFileInputStream extends InputStream
             int retval = -1;
             if( currentPosition < endPosition )
             {
+                long originPosition = file.getPosition();
                 file.seek( currentPosition );
                 currentPosition++;
                 retval = file.read();
+                file.seek( originPosition );
             }
             return retval;
         }
@@ -97,8 +100,10 @@ public class RandomAccessFileInputStream extends InputStream
         {
             synchronized(file)
             {
+                long originPosition = file.getPosition();
                 file.seek( currentPosition );
                 amountRead = file.read( b, offset, length );
+                file.seek( originPosition );
             }
         }
         //update the current cursor position.
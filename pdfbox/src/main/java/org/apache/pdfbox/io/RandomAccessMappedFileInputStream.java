@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Provides {@link InputStream} and {@link RandomAccessRead} access to a file
+ * which is mapped into memory using {@link FileChannel#map}.
+ *
+ * In contrast to {@link RandomAccessBufferedFileInputStream} no page cache is
+ * held on the heap; the operating system pages in the parts of the file which
+ * are actually read. Files larger than the maximum size of a single mapping are
+ * mapped as a sequence of chunks.
+ *
+ * The mapping is released by the garbage collector after {@link #close()} was
+ * called, thus the file may still be locked for a while on some platforms.
+ */
+public class RandomAccessMappedFileInputStream
+extends InputStream implements RandomAccessRead
+{
+    /** default chunk size is 1 GB. */
+    private static final int DEFAULT_CHUNK_SHIFT = 30;
+
+    private final int chunkShift;
+    private final long chunkMask;
+
+    private MappedByteBuffer[] chunks;
+    private MappedByteBuffer curChunk;
+    private int curChunkIndex;
+
+    private final long fileLength;
+    private long fileOffset = 0;
+    private boolean isClosed;
+
+    /**
+     * Create input stream instance for given file.
+     *
+     * @param file the file to be mapped
+     *
+     * @throws IOException if the file could not be opened or mapped
+     */
+    public RandomAccessMappedFileInputStream( File file ) throws IOException
+    {
+        this( file, DEFAULT_CHUNK_SHIFT );
+    }
+
+    /**
+     * Create input stream instance for given file using chunks of the given size.
+     *
+     * @param file the file to be mapped
+     * @param chunkShift the size of a single chunk as power of two
+     *
+     * @throws IOException if the file could not be opened or mapped
+     */
+    RandomAccessMappedFileInputStream( File file, int chunkShift ) throws IOException
+    {
+        this.chunkShift = chunkShift;
+        chunkMask = ( 1L << chunkShift ) - 1;
+        RandomAccessFile raFile = new RandomAccessFile( file, "r" );
+        try
+        {
+            FileChannel channel = raFile.getChannel();
+            fileLength = channel.size();
+            int numberOfChunks = (int) ( ( fileLength + chunkMask ) >>> chunkShift );
+            chunks = new MappedByteBuffer[Math.max( numberOfChunks, 1 )];
+            for ( int i = 0; i < chunks.length; i++ )
+            {
+                long chunkStart = (long) i << chunkShift;
+                long chunkLength = Math.min( fileLength - chunkStart, 1L << chunkShift );
+                chunks[i] = channel.map( FileChannel.MapMode.READ_ONLY, chunkStart, chunkLength );
+            }
+        }
+        finally
+        {
+            // the mapping stays valid after the channel was closed
+            raFile.close();
+        }
+        curChunk = chunks[0];
+        curChunkIndex = 0;
+    }
+
+    /** Returns offset in file at which next byte would be read. */
+    @Override
+    public long getPosition()
+    {
+        return fileOffset;
+    }
+
+    /**
+     * Seeks to new position. The position may be beyond the end of the file, in
+     * that case all subsequent reads will return EOF.
+     */
+    @Override
+    public void seek( final long newOffset ) throws IOException
+    {
+        checkClosed();
+        if ( newOffset < 0 )
+        {
+            throw new IOException( "Invalid position " + newOffset );
+        }
+        fileOffset = newOffset;
+        if ( newOffset < fileLength )
+        {
+            selectChunk();
+        }
+    }
+
+    /**
+     * Makes the chunk containing the current file offset the current one and
+     * positions it. Must only be called with an offset within the file.
+     */
+    private void selectChunk()
+    {
+        int chunkIndex = (int) ( fileOffset >>> chunkShift );
+        if ( chunkIndex != curChunkIndex )
+        {
+            curChunk = chunks[chunkIndex];
+            curChunkIndex = chunkIndex;
+        }
+        curChunk.position( (int) ( fileOffset & chunkMask ) );
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if ( fileOffset >= fileLength )
+        {
+            return -1;
+        }
+        if ( !curChunk.hasRemaining() )
+        {
+            selectChunk();
+        }
+        fileOffset++;
+        return curChunk.get() & 0xff;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) throws IOException
+    {
+        checkClosed();
+        if ( len == 0 )
+        {
+            return 0;
+        }
+        if ( fileOffset >= fileLength )
+        {
+            return -1;
+        }
+        if ( !curChunk.hasRemaining() )
+        {
+            selectChunk();
+        }
+        int commonLen = Math.min( curChunk.remaining(), len );
+        curChunk.get( b, off, commonLen );
+        fileOffset += commonLen;
+        return commonLen;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        return (int) Math.min( Math.max( fileLength - fileOffset, 0 ), Integer.MAX_VALUE );
+    }
+
+    @Override
+    public long skip( long n ) throws IOException
+    {
+        if ( n <= 0 )
+        {
+            return 0;
+        }
+        long toSkip = Math.min( n, Math.max( fileLength - fileOffset, 0 ) );
+        seek( fileOffset + toSkip );
+        return toSkip;
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        return fileLength;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        // drop all references to let the garbage collector release the mapping
+        chunks = null;
+        curChunk = null;
+        isClosed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isClosed;
+    }
+
+    /**
+     * Ensure that the stream wasn't closed before.
+     *
+     * @throws IOException if the stream was already closed
+     */
+    private void checkClosed() throws IOException
+    {
+        if ( isClosed )
+        {
+            throw new IOException( "RandomAccessMappedFileInputStream already closed" );
+        }
+    }
+}
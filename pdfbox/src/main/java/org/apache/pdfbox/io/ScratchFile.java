@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A store for temporary data which is shared by all buffers of a document, e.g. the buffers
+ * of its streams. The data is organized in pages of a fixed size. The first pages up to the
+ * given memory limit are held in memory, all other pages are stored in a single scratch file
+ * which is created when it is needed. Pages of closed buffers are reused for new data.
+ *
+ * The scratch file is deleted when this store is closed.
+ */
+public class ScratchFile implements Closeable
+{
+    private static final Log LOG = LogFactory.getLog(ScratchFile.class);
+
+    /** size of a single page in bytes. */
+    static final int PAGE_SIZE = 4096;
+
+    /** default amount of memory used before pages are stored in the scratch file. */
+    public static final long DEFAULT_MAX_MAIN_MEMORY = 1024 * 1024;
+
+    private final File scratchDirectory;
+    private final int maxMainMemoryPages;
+
+    private final List<byte[]> memoryPages = new ArrayList<byte[]>();
+    private final BitSet freePages = new BitSet();
+    private int pageCount = 0;
+
+    private File file;
+    private java.io.RandomAccessFile raf;
+    private boolean isClosed = false;
+
+    /**
+     * Creates a store using {@link #DEFAULT_MAX_MAIN_MEMORY} bytes of memory before the
+     * scratch file is used.
+     *
+     * @param scratchDirectory directory for the scratch file, or <code>null</code> to use
+     * the system default
+     */
+    public ScratchFile(File scratchDirectory)
+    {
+        this(scratchDirectory, DEFAULT_MAX_MAIN_MEMORY);
+    }
+
+    /**
+     * Creates a store using the given amount of memory before the scratch file is used.
+     *
+     * @param scratchDirectory directory for the scratch file, or <code>null</code> to use
+     * the system default
+     * @param maxMainMemoryBytes the maximum number of bytes held in memory, 0 to store all data
+     * within the scratch file
+     */
+    public ScratchFile(File scratchDirectory, long maxMainMemoryBytes)
+    {
+        this.scratchDirectory = scratchDirectory;
+        maxMainMemoryPages = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(maxMainMemoryBytes, 0) / PAGE_SIZE);
+    }
+
+    /**
+     * Creates a new, empty buffer backed by this store. The buffer returns its pages to this
+     * store when it is closed.
+     *
+     * @return a new buffer
+     *
+     * @throws IOException if this store was already closed
+     */
+    public RandomAccess createBuffer() throws IOException
+    {
+        checkClosed();
+        return new ScratchFileBuffer(this);
+    }
+
+    /**
+     * Returns the index of a free page, a new page is added if there is no free page.
+     * Free pages with small indexes are preferred as they are held in memory.
+     */
+    synchronized int getNewPage() throws IOException
+    {
+        checkClosed();
+        int pageIndex = freePages.nextSetBit(0);
+        if (pageIndex >= 0)
+        {
+            freePages.clear(pageIndex);
+        }
+        else
+        {
+            pageIndex = pageCount++;
+        }
+        return pageIndex;
+    }
+
+    /**
+     * Returns true if the given page is stored in the scratch file and not in memory.
+     */
+    boolean isFilePage(int pageIndex)
+    {
+        return pageIndex >= maxMainMemoryPages;
+    }
+
+    /**
+     * Reads the given page. Pages held in memory are returned directly, the content of other
+     * pages is read into the given buffer.
+     *
+     * @param pageIndex the index of the page
+     * @param buffer buffer used for pages stored in the scratch file
+     * @return the page data
+     *
+     * @throws IOException if the page couldn't be read
+     */
+    synchronized byte[] readPage(int pageIndex, byte[] buffer) throws IOException
+    {
+        checkClosed();
+        if (!isFilePage(pageIndex))
+        {
+            while (memoryPages.size() <= pageIndex)
+            {
+                memoryPages.add(null);
+            }
+            byte[] page = memoryPages.get(pageIndex);
+            if (page == null)
+            {
+                page = new byte[PAGE_SIZE];
+                memoryPages.set(pageIndex, page);
+            }
+            return page;
+        }
+        long pageOffset = (long) (pageIndex - maxMainMemoryPages) * PAGE_SIZE;
+        java.io.RandomAccessFile scratch = getScratchFile();
+        if (pageOffset < scratch.length())
+        {
+            scratch.seek(pageOffset);
+            scratch.readFully(buffer, 0, PAGE_SIZE);
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes the given page to the scratch file. Nothing is done for pages held in memory as
+     * they are modified directly.
+     *
+     * @param pageIndex the index of the page
+     * @param page the page data
+     *
+     * @throws IOException if the page couldn't be written
+     */
+    synchronized void writePage(int pageIndex, byte[] page) throws IOException
+    {
+        checkClosed();
+        if (isFilePage(pageIndex))
+        {
+            java.io.RandomAccessFile scratch = getScratchFile();
+            scratch.seek((long) (pageIndex - maxMainMemoryPages) * PAGE_SIZE);
+            scratch.write(page, 0, PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Marks the given pages as free to be reused by other buffers.
+     *
+     * @param pageIndexes array containing the page indexes
+     * @param count number of pages to be freed
+     */
+    synchronized void markPagesAsFree(int[] pageIndexes, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            freePages.set(pageIndexes[i]);
+        }
+    }
+
+    /**
+     * Returns the scratch file and creates it if necessary.
+     */
+    private java.io.RandomAccessFile getScratchFile() throws IOException
+    {
+        if (raf == null)
+        {
+            file = File.createTempFile("PDFBox", ".tmp", scratchDirectory);
+            raf = new java.io.RandomAccessFile(file, "rw");
+        }
+        return raf;
+    }
+
+    private void checkClosed() throws IOException
+    {
+        if (isClosed)
+        {
+            throw new IOException("Scratch file already closed");
+        }
+    }
+
+    /**
+     * Releases all pages and deletes the scratch file.
+     *
+     * @throws IOException If there is an error closing the scratch file.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (isClosed)
+        {
+            return;
+        }
+        isClosed = true;
+        memoryPages.clear();
+        freePages.clear();
+        if (raf != null)
+        {
+            try
+            {
+                raf.close();
+            }
+            finally
+            {
+                if (!file.delete())
+                {
+                    LOG.warn("Scratch file '" + file.getName() + "' can't be deleted");
+                }
+            }
+        }
+    }
+}
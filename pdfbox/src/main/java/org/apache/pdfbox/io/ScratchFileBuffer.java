@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * An implementation of the RandomAccess interface which stores its data in the pages
+ * of a {@link ScratchFile}. The pages are returned to the scratch file when the buffer
+ * is closed.
+ */
+class ScratchFileBuffer implements RandomAccess
+{
+    private static final int PAGE_SIZE = ScratchFile.PAGE_SIZE;
+
+    private ScratchFile pageHandler;
+    // indexes of the pages of the scratch file holding the data of this buffer
+    private int[] pageIndexes = new int[16];
+    private int pageCount = 0;
+    // size of the whole buffer
+    private long size = 0;
+    // current pointer to the whole buffer
+    private long pointer = 0;
+
+    // current page and its index within pageIndexes
+    private byte[] currentPage;
+    private int currentPageIndex = -1;
+    private boolean currentPageDirty = false;
+    // buffer for pages stored in the scratch file, pages in memory are used directly
+    private byte[] filePageBuffer;
+
+    /**
+     * Creates an empty buffer using the given scratch file.
+     *
+     * @param pageHandler the scratch file providing the pages
+     */
+    ScratchFileBuffer(ScratchFile pageHandler)
+    {
+        this.pageHandler = pageHandler;
+    }
+
+    /**
+     * Makes the page containing the current pointer the current page. New pages are added
+     * if the pointer is located behind the last page.
+     */
+    private void selectPage() throws IOException
+    {
+        int pageIndex = (int) (pointer / PAGE_SIZE);
+        if (pageIndex == currentPageIndex)
+        {
+            return;
+        }
+        flushCurrentPage();
+        while (pageIndex >= pageCount)
+        {
+            if (pageCount == pageIndexes.length)
+            {
+                int[] newPageIndexes = new int[pageIndexes.length * 2];
+                System.arraycopy(pageIndexes, 0, newPageIndexes, 0, pageCount);
+                pageIndexes = newPageIndexes;
+            }
+            pageIndexes[pageCount++] = pageHandler.getNewPage();
+        }
+        if (filePageBuffer == null && pageHandler.isFilePage(pageIndexes[pageIndex]))
+        {
+            filePageBuffer = new byte[PAGE_SIZE];
+        }
+        currentPage = pageHandler.readPage(pageIndexes[pageIndex], filePageBuffer);
+        currentPageIndex = pageIndex;
+    }
+
+    /**
+     * Writes the current page back to the scratch file if it was modified.
+     */
+    private void flushCurrentPage() throws IOException
+    {
+        if (currentPageDirty)
+        {
+            pageHandler.writePage(pageIndexes[currentPageIndex], currentPage);
+            currentPageDirty = false;
+        }
+    }
+
+    /**
+     * Fills the data between the end of the buffer and the current pointer with zeros. The pages
+     * may have been used by other buffers before, thus the gap left by a seek behind the end of
+     * the buffer must not expose their data.
+     */
+    private void fillGap() throws IOException
+    {
+        if (pointer <= size)
+        {
+            return;
+        }
+        long end = pointer;
+        pointer = size;
+        while (pointer < end)
+        {
+            selectPage();
+            int pageOffset = (int) (pointer % PAGE_SIZE);
+            int count = (int) Math.min(end - pointer, PAGE_SIZE - pageOffset);
+            Arrays.fill(currentPage, pageOffset, pageOffset + count, (byte) 0);
+            currentPageDirty = true;
+            pointer += count;
+        }
+        size = end;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void seek(long position) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        pointer = position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPosition() throws IOException
+    {
+        checkClosed();
+        return pointer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long length() throws IOException
+    {
+        checkClosed();
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (pointer >= size)
+        {
+            return -1;
+        }
+        selectPage();
+        return currentPage[(int) (pointer++ % PAGE_SIZE)] & 0xff;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (pointer >= size)
+        {
+            return length == 0 ? 0 : -1;
+        }
+        int maxLength = (int) Math.min(length, size - pointer);
+        int remaining = maxLength;
+        while (remaining > 0)
+        {
+            selectPage();
+            int pageOffset = (int) (pointer % PAGE_SIZE);
+            int count = Math.min(remaining, PAGE_SIZE - pageOffset);
+            System.arraycopy(currentPage, pageOffset, b, offset, count);
+            offset += count;
+            pointer += count;
+            remaining -= count;
+        }
+        return maxLength;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(int b) throws IOException
+    {
+        checkClosed();
+        fillGap();
+        selectPage();
+        currentPage[(int) (pointer++ % PAGE_SIZE)] = (byte) b;
+        currentPageDirty = true;
+        if (pointer > size)
+        {
+            size = pointer;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (length > 0)
+        {
+            fillGap();
+        }
+        int remaining = length;
+        while (remaining > 0)
+        {
+            selectPage();
+            int pageOffset = (int) (pointer % PAGE_SIZE);
+            int count = Math.min(remaining, PAGE_SIZE - pageOffset);
+            System.arraycopy(b, offset, currentPage, pageOffset, count);
+            currentPageDirty = true;
+            offset += count;
+            pointer += count;
+            remaining -= count;
+        }
+        if (pointer > size)
+        {
+            size = pointer;
+        }
+    }
+
+    /**
+     * Returns all pages to the scratch file, the data of this buffer is discarded.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (pageHandler != null)
+        {
+            pageHandler.markPagesAsFree(pageIndexes, pageCount);
+            pageHandler = null;
+            pageIndexes = null;
+            currentPage = null;
+            filePageBuffer = null;
+            pageCount = 0;
+            size = 0;
+            pointer = 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isClosed()
+    {
+        return pageHandler == null;
+    }
+
+    /**
+     * Ensure that the buffer is not closed.
+     *
+     * @throws IOException if the buffer was already closed
+     */
+    private void checkClosed() throws IOException
+    {
+        if (pageHandler == null)
+        {
+            throw new IOException("ScratchFileBuffer already closed");
+        }
+    }
+}
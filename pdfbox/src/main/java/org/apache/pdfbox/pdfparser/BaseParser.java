@@ -154,6 +154,12 @@ public abstract class BaseParser implements Closeable
      */
     protected COSDocument document;
 
+    /**
+     * The characters of the number being read, the buffer is reused for all numbers.
+     */
+    private byte[] numberBuffer = new byte[32];
+    private int numberLength = 0;
+
     /**
      * Default constructor.
      */
@@ -1248,7 +1254,7 @@ public abstract class BaseParser implements Closeable
         {
             if( Character.isDigit(c) || c == '-' || c == '+' || c == '.')
             {
-                StringBuilder buf = new StringBuilder();
+                clearNumber();
                 int ic = pdfSource.read();
                 c = (char)ic;
                 while( Character.isDigit( c )||
@@ -1258,7 +1264,7 @@ public abstract class BaseParser implements Closeable
                         c == 'E' ||
                         c == 'e' )
                 {
-                    buf.append( c );
+                    appendToNumber( c );
                     ic = pdfSource.read();
                     c = (char)ic;
                 }
@@ -1266,7 +1272,7 @@ public abstract class BaseParser implements Closeable
                 {
                     pdfSource.unread( ic );
                 }
-                retval = COSNumber.get( buf.toString() );
+                retval = parseNumber();
             }
             else
             {
@@ -1427,6 +1433,40 @@ public abstract class BaseParser implements Closeable
         return c == ']';
     }
 
+    /**
+     * Clears the buffer for the characters of a number.
+     */
+    protected final void clearNumber()
+    {
+        numberLength = 0;
+    }
+
+    /**
+     * Appends a character to the buffer for the characters of a number.
+     *
+     * @param c The character to be appended.
+     */
+    protected final void appendToNumber(char c)
+    {
+        if (numberLength == numberBuffer.length)
+        {
+            numberBuffer = Arrays.copyOf(numberBuffer, numberLength * 2);
+        }
+        numberBuffer[numberLength++] = (byte) c;
+    }
+
+    /**
+     * Returns the number made of the characters in the number buffer. Common numbers are
+     * converted without creating a string.
+     *
+     * @return The number.
+     * @throws IOException If the characters aren't a number.
+     */
+    protected final COSNumber parseNumber() throws IOException
+    {
+        return COSNumber.get(numberBuffer, 0, numberLength);
+    }
+
     /**
      * This will read bytes until the first end of line marker occurs.
      * NOTE: The EOL marker may consists of 1 (CR or LF) or 2 (CR and CL) bytes
@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.io.PushBackInputStream;
+
+/**
+ * Searches a damaged PDF for the offsets of all objects, xref tables and xref streams in one
+ * sequential pass over the file. The file is read in large chunks, and the patterns
+ * " obj", "xref" and "/XRef" are matched by dispatching on the current byte, thus every byte is
+ * only looked at once unless it starts one of the patterns.
+ */
+final class BruteForceSearcher
+{
+    private static final Log LOG = LogFactory.getLog(BruteForceSearcher.class);
+
+    private static final byte[] OBJ = { ' ', 'o', 'b', 'j' };
+    private static final byte[] XREF_TABLE = { 'x', 'r', 'e', 'f' };
+    private static final byte[] XREF_STREAM = { '/', 'X', 'R', 'e', 'f' };
+
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    // number of bytes before a chunk which are kept in the buffer, the beginning of an xref
+    // stream object is searched up to 300 bytes before "/XRef"
+    private static final int LOOK_BEHIND = 512;
+
+    // number of bytes needed after a position to match the longest pattern
+    private static final int LOOK_AHEAD = 5;
+
+    private final PushBackInputStream source;
+    private final long minimumOffset;
+
+    private final byte[] buffer = new byte[LOOK_BEHIND + CHUNK_SIZE];
+    private long bufferStart = 0;
+    private int bufferLength = 0;
+
+    private final Map<COSObjectKey, Long> objectKeyOffsets = new HashMap<COSObjectKey, Long>();
+    private final List<Long> xrefTableOffsets = new ArrayList<Long>();
+    private final List<Long> xrefStreamOffsets = new ArrayList<Long>();
+
+    /**
+     * Constructor.
+     *
+     * @param source the source of the PDF
+     * @param minimumOffset the offset to start the search at
+     */
+    BruteForceSearcher(PushBackInputStream source, long minimumOffset)
+    {
+        this.source = source;
+        this.minimumOffset = minimumOffset;
+    }
+
+    /**
+     * Searches the whole source. The position of the source is restored afterwards.
+     *
+     * @throws IOException if the source can't be read
+     */
+    void search() throws IOException
+    {
+        long originOffset = source.getOffset();
+        long nextXRefTable = minimumOffset;
+        long nextXRefStream = minimumOffset;
+        long position = minimumOffset;
+        boolean eof = false;
+        while (!eof)
+        {
+            eof = fill(position);
+            long end = bufferStart + bufferLength;
+            // the last bytes are searched with the next chunk, unless there is none
+            long last = eof ? end - 1 : end - LOOK_AHEAD;
+            for (; position <= last; position++)
+            {
+                switch (buffer[(int) (position - bufferStart)])
+                {
+                case ' ':
+                    if (matches(position, OBJ))
+                    {
+                        addObject(position);
+                    }
+                    break;
+                case 'x':
+                    if (position >= nextXRefTable && matches(position, XREF_TABLE))
+                    {
+                        // ensure that we don't read "startxref" instead of "xref"
+                        if (isWhitespace(byteAt(position - 1)))
+                        {
+                            xrefTableOffsets.add(position);
+                        }
+                        nextXRefTable = position + XREF_TABLE.length + 1;
+                    }
+                    break;
+                case '/':
+                    if (position >= nextXRefStream && matches(position, XREF_STREAM))
+                    {
+                        addXRefStream(position);
+                        nextXRefStream = position + XREF_STREAM.length + 1;
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+        source.seek(originOffset);
+    }
+
+    /**
+     * Returns the offsets of the objects, keyed by the object key.
+     */
+    Map<COSObjectKey, Long> getObjectKeyOffsets()
+    {
+        return objectKeyOffsets;
+    }
+
+    /**
+     * Returns the offsets of all xref tables followed by the offsets of all xref streams.
+     */
+    List<Long> getXRefOffsets()
+    {
+        List<Long> xrefOffsets = new ArrayList<Long>(xrefTableOffsets.size()
+                + xrefStreamOffsets.size());
+        xrefOffsets.addAll(xrefTableOffsets);
+        xrefOffsets.addAll(xrefStreamOffsets);
+        return xrefOffsets;
+    }
+
+    // reads the chunk starting at the given position, returns true if the end of the source is
+    // reached
+    private boolean fill(long position) throws IOException
+    {
+        bufferStart = Math.max(0, position - LOOK_BEHIND);
+        bufferLength = 0;
+        source.seek(bufferStart);
+        while (bufferLength < buffer.length)
+        {
+            int read = source.read(buffer, bufferLength, buffer.length - bufferLength);
+            if (read < 0)
+            {
+                return true;
+            }
+            bufferLength += read;
+        }
+        return false;
+    }
+
+    // returns the byte at the given position, or -1 if it is beyond the end of the source
+    private int byteAt(long position) throws IOException
+    {
+        if (position >= bufferStart && position < bufferStart + bufferLength)
+        {
+            return buffer[(int) (position - bufferStart)] & 0xff;
+        }
+        if (position < 0)
+        {
+            return -1;
+        }
+        // outside of the current chunk, which is only the case for very long object numbers
+        // or at the end of the source
+        long currentPosition = source.getOffset();
+        source.seek(position);
+        int b = source.read();
+        source.seek(currentPosition);
+        return b;
+    }
+
+    private boolean matches(long position, byte[] pattern) throws IOException
+    {
+        for (int i = 0; i < pattern.length; i++)
+        {
+            if (byteAt(position + i) != pattern[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // adds the object whose " obj" keyword is found at the given position
+    private void addObject(long position) throws IOException
+    {
+        int genID = byteAt(position - 1);
+        // is the previous char a digit?
+        if (!isDigit(genID))
+        {
+            return;
+        }
+        genID -= '0';
+        long offset = position - 2;
+        if (byteAt(offset) != ' ')
+        {
+            return;
+        }
+        while (offset > minimumOffset && byteAt(offset) == ' ')
+        {
+            offset--;
+        }
+        int length = 0;
+        while (offset > minimumOffset && isDigit(byteAt(offset)))
+        {
+            offset--;
+            length++;
+        }
+        if (length > 0)
+        {
+            Long objectID = readNumber(offset + 1, length);
+            if (objectID != null)
+            {
+                objectKeyOffsets.put(new COSObjectKey(objectID, genID), offset + 1);
+            }
+        }
+    }
+
+    // adds the xref stream whose "/XRef" is found at the given position, the beginning of the
+    // object is searched backwards in blocks of ten bytes
+    private void addXRefStream(long xrefOffset) throws IOException
+    {
+        long newOffset = -1;
+        boolean objFound = false;
+        for (int i = 1; i < 30 && !objFound; i++)
+        {
+            long currentOffset = xrefOffset - (i * 10);
+            if (currentOffset > 0)
+            {
+                for (int j = 0; j < 10; j++)
+                {
+                    if (matches(currentOffset, OBJ))
+                    {
+                        long tempOffset = currentOffset - 1;
+                        int genID = byteAt(tempOffset);
+                        // is the previous char a digit?
+                        if (isDigit(genID))
+                        {
+                            tempOffset--;
+                            if (byteAt(tempOffset) == ' ')
+                            {
+                                int length = 0;
+                                tempOffset--;
+                                while (tempOffset > minimumOffset && isDigit(byteAt(tempOffset)))
+                                {
+                                    tempOffset--;
+                                    length++;
+                                }
+                                if (length > 0)
+                                {
+                                    newOffset = tempOffset + 1;
+                                }
+                            }
+                        }
+                        LOG.debug("Fixed reference for xref stream " + xrefOffset + " -> "
+                                + newOffset);
+                        objFound = true;
+                        break;
+                    }
+                    currentOffset++;
+                }
+            }
+        }
+        if (newOffset > -1)
+        {
+            xrefStreamOffsets.add(newOffset);
+        }
+    }
+
+    // reads the decimal number of the given length, returns null if it doesn't fit into a long
+    private Long readNumber(long offset, int length) throws IOException
+    {
+        long value = 0;
+        for (int i = 0; i < length; i++)
+        {
+            int digit = byteAt(offset + i) - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10)
+            {
+                return null;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isDigit(int c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(int c)
+    {
+        return c == 0 || c == 9 || c == 12 || c == '\n' || c == '\r' || c == ' ';
+    }
+}
@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +35,6 @@ import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.Vector;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -48,9 +48,12 @@ import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.pdfparser.XrefTrailerResolver.XRefType;
 import org.apache.pdfbox.pdmodel.encryption.SecurityHandler;
 import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.XrefIndex;
+import org.apache.pdfbox.cos.ICOSParser;
 
 /**
  * PDF-Parser which first reads startxref and xref tables in order to know valid objects and parse only these objects.
@@ -61,7 +64,7 @@ import org.apache.pdfbox.cos.COSObjectKey;
  * This class is a much enhanced version of <code>QuickParser</code> presented in <a
  * href="https://issues.apache.org/jira/browse/PDFBOX-1104">PDFBOX-1104</a> by Jeremy Villalobos.
  */
-public class COSParser extends BaseParser
+public class COSParser extends BaseParser implements ICOSParser
 {
     private static final String PDF_HEADER = "%PDF-";
     private static final String FDF_HEADER = "%FDF-";
@@ -70,7 +73,6 @@ public class COSParser extends BaseParser
     private static final String FDF_DEFAULT_VERSION = "1.0";
 
     private static final char[] XREF_TABLE = new char[] { 'x', 'r', 'e', 'f' };
-    private static final char[] XREF_STREAM = new char[] { '/', 'X', 'R', 'e', 'f' };
     private static final char[] STARTXREF = new char[] { 's','t','a','r','t','x','r','e','f' };
 
     private static final long MINIMUM_SEARCH_OFFSET = 6;
@@ -133,6 +135,27 @@ public class COSParser extends BaseParser
     private Map<COSObjectKey, Long> bfSearchCOSObjectKeyOffsets = null;
     private List<Long> bfSearchXRefOffsets = null;
 
+    /**
+     * The maximum number of decoded object streams kept in the cache.
+     */
+    private static final int MAX_CACHED_OBJECT_STREAMS = 16;
+
+    /**
+     * LRU cache of decoded object streams, to parse the objects of an object stream without
+     * decoding it again.
+     */
+    private final Map<Integer, ObjectStreamIndex> objectStreamCache =
+        new LinkedHashMap<Integer, ObjectStreamIndex>(MAX_CACHED_OBJECT_STREAMS, 0.75f, true)
+    {
+        private static final long serialVersionUID = 4609413271349536342L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ObjectStreamIndex> eldest)
+        {
+            return size() > MAX_CACHED_OBJECT_STREAMS;
+        }
+    };
+
     /**
      * The security handler.
      */
@@ -152,6 +175,11 @@ public class COSParser extends BaseParser
     protected XrefTrailerResolver xrefTrailerResolver = new XrefTrailerResolver();
 
 
+    /**
+     * The source the stream data is read from on demand, or null if stream data is copied.
+     */
+    private RandomAccessRead streamSource = null;
+
     /**
      * The prefix for the temp file being used. 
      */
@@ -168,6 +196,18 @@ public class COSParser extends BaseParser
         super(input);
     }
 
+    /**
+     * Sets the source of the parsed PDF which is used to read the data of streams on demand. If
+     * set, the stream data isn't copied while parsing but only its position is recorded. Therefore
+     * the source has to remain open as long as the parsed document is in use.
+     * 
+     * @param source the random access source of the parsed PDF, or null to copy stream data
+     */
+    protected void setStreamSource(RandomAccessRead source)
+    {
+        streamSource = source;
+    }
+
     /**
      * Sets how many trailing bytes of PDF file are searched for EOF marker and 'startxref' marker. If not set we use
      * default value {@link #DEFAULT_TRAIL_BYTECOUNT}.
@@ -574,10 +614,11 @@ public class COSParser extends BaseParser
                                                          * || document.hasObjectInPool ( objKey )
                                                          */))
                     {
-                        Long fileOffset = xrefTrailerResolver.getXrefTable().get(objKey);
+                        long fileOffset = xrefTrailerResolver.getXrefTable().getOffset(
+                                objKey.getNumber(), objKey.getGeneration());
                         // it is allowed that object references point to null,
                         // thus we have to test
-                        if (fileOffset != null && fileOffset != 0)
+                        if (fileOffset != XrefIndex.NOT_FOUND && fileOffset != 0)
                         {
                             if (fileOffset > 0)
                             {
@@ -588,13 +629,12 @@ public class COSParser extends BaseParser
                                 // negative offset means we have a compressed
                                 // object within object stream;
                                 // get offset of object stream
-                                fileOffset = xrefTrailerResolver.getXrefTable().get(
-                                        new COSObjectKey(-fileOffset, 0));
-                                if ((fileOffset == null) || (fileOffset <= 0))
+                                fileOffset = xrefTrailerResolver.getXrefTable().getOffset(-fileOffset, 0);
+                                if (fileOffset <= 0)
                                 {
                                     throw new IOException(
                                             "Invalid object stream xref object reference for key '" + objKey + "': "
-                                                    + fileOffset);
+                                                    + (fileOffset == XrefIndex.NOT_FOUND ? null : fileOffset));
                                 }
 
                                 List<COSObject> stmObjects = objToBeParsed.get(fileOffset);
@@ -651,6 +691,34 @@ public class COSParser extends BaseParser
         }
     }
 
+    /**
+     * Parses an object of a lazily loaded document when it is accessed the first time. The
+     * position of the parser is restored afterwards, as objects may be accessed at any time.
+     * The source is locked meanwhile, as other threads may read the data of streams from it.
+     * 
+     * @param obj the object to be parsed (only object number and generation number are used)
+     * @return the parsed object (which is also added to document object)
+     * 
+     * @throws IOException If an IO error occurs.
+     */
+    public COSBase dereferenceCOSObject(COSObject obj) throws IOException
+    {
+        // RandomAccessFileInputStream locks the source while reading stream data
+        Object lock = streamSource != null ? streamSource : this;
+        synchronized (lock)
+        {
+            long currentPosition = pdfSource.getOffset();
+            try
+            {
+                return parseObjectDynamically(obj, false);
+            }
+            finally
+            {
+                pdfSource.seek(currentPosition);
+            }
+        }
+    }
+
     /**
      * This will parse the next object from the stream and add it to the local state. 
      * 
@@ -693,17 +761,17 @@ public class COSParser extends BaseParser
         {
             // not previously parsed
             // ---- read offset or object stream object number from xref table
-            Long offsetOrObjstmObNr = xrefTrailerResolver.getXrefTable().get(objKey);
+            long offsetOrObjstmObNr = xrefTrailerResolver.getXrefTable().getOffset(objNr, objGenNr);
 
             // sanity test to circumvent loops with broken documents
             if (requireExistingNotCompressedObj
-                    && ((offsetOrObjstmObNr == null) || (offsetOrObjstmObNr <= 0)))
+                    && ((offsetOrObjstmObNr == XrefIndex.NOT_FOUND) || (offsetOrObjstmObNr <= 0)))
             {
                 throw new IOException("Object must be defined and must not be compressed object: "
                         + objKey.getNumber() + ":" + objKey.getGeneration());
             }
 
-            if (offsetOrObjstmObNr == null)
+            if (offsetOrObjstmObNr == XrefIndex.NOT_FOUND)
             {
                 // not defined object -> NULL object (Spec. 1.7, chap. 3.2.9)
                 pdfObject.setObject(COSNull.NULL);
@@ -795,37 +863,45 @@ public class COSParser extends BaseParser
             {
                 // xref value is object nr of object stream containing object to
                 // be parsed;
-                // since our object was not found it means object stream was not
-                // parsed so far
+                // only this object is parsed from the decoded object stream
                 final int objstmObjNr = (int) (-offsetOrObjstmObNr);
-                final COSBase objstmBaseObj = parseObjectDynamically(objstmObjNr, 0, true);
-                if (objstmBaseObj instanceof COSStream)
+                final ObjectStreamIndex objectStream = getObjectStream(objstmObjNr);
+                if (objectStream != null)
                 {
-                    // parse object stream
-                    PDFObjectStreamParser parser = new PDFObjectStreamParser((COSStream) objstmBaseObj, document);
-                    parser.parse();
-                    parser.close();
-                    // get set of object numbers referenced for this object
-                    // stream
-                    final Set<Long> refObjNrs = xrefTrailerResolver
-                            .getContainedObjectNumbers(objstmObjNr);
-
-                    // register all objects which are referenced to be contained
-                    // in object stream
-                    for (COSObject next : parser.getObjects())
+                    int index = objectStream.indexOf(objNr);
+                    if (index >= 0)
                     {
-                        COSObjectKey stmObjKey = new COSObjectKey(next);
-                        if (refObjNrs.contains(stmObjKey.getNumber()))
-                        {
-                            COSObject stmObj = document.getObjectFromPool(stmObjKey);
-                            stmObj.setObject(next.getObject());
-                        }
+                        pdfObject.setObject(objectStream.parseObject(index));
                     }
                 }
             }
         }
         return pdfObject.getObject();
     }
+
+    /**
+     * Returns the decoded object stream with the given object number, which is taken from the
+     * cache of recently used object streams if possible.
+     * 
+     * @param objstmObjNr the object number of the object stream
+     * @return the object stream or null if the object isn't a stream
+     * @throws IOException If an IO error occurs.
+     */
+    private ObjectStreamIndex getObjectStream(int objstmObjNr) throws IOException
+    {
+        ObjectStreamIndex objectStream = objectStreamCache.get(objstmObjNr);
+        if (objectStream == null)
+        {
+            final COSBase objstmBaseObj = parseObjectDynamically(objstmObjNr, 0, true);
+            if (!(objstmBaseObj instanceof COSStream))
+            {
+                return null;
+            }
+            objectStream = new ObjectStreamIndex((COSStream) objstmBaseObj, document);
+            objectStreamCache.put(objstmObjNr, objectStream);
+        }
+        return objectStream;
+    }
     
     private boolean inGetLength = false;
 
@@ -963,28 +1039,39 @@ public class COSParser extends BaseParser
             }
 
             boolean useReadUntilEnd = false;
-            // get output stream to copy data to
             if (streamLengthObj != null && validateStreamLength(streamLengthObj.longValue()))
             {
-                out = stream.createFilteredStream(streamLengthObj);
-                long remainBytes = streamLengthObj.longValue();
-                int bytesRead = 0;
-                while (remainBytes > 0)
+                if (streamSource != null)
                 {
-                    final int readBytes = pdfSource
-                            .read(streamCopyBuf,
-                                    0,
-                                    (remainBytes > STREAMCOPYBUFLEN) ? STREAMCOPYBUFLEN : (int) remainBytes);
-                    if (readBytes <= 0)
+                    // don't copy the data, just remember where to find it
+                    long streamPosition = pdfSource.getOffset();
+                    stream.setFilteredStream(streamSource, streamPosition,
+                            streamLengthObj.longValue());
+                    pdfSource.seek(streamPosition + streamLengthObj.longValue());
+                }
+                else
+                {
+                    // get output stream to copy data to
+                    out = stream.createFilteredStream(streamLengthObj);
+                    long remainBytes = streamLengthObj.longValue();
+                    int bytesRead = 0;
+                    while (remainBytes > 0)
                     {
-                        useReadUntilEnd = true;
-                        out.close();
-                        pdfSource.unread(bytesRead);
-                        break;
+                        final int readBytes = pdfSource
+                                .read(streamCopyBuf,
+                                        0,
+                                        (remainBytes > STREAMCOPYBUFLEN) ? STREAMCOPYBUFLEN : (int) remainBytes);
+                        if (readBytes <= 0)
+                        {
+                            useReadUntilEnd = true;
+                            out.close();
+                            pdfSource.unread(bytesRead);
+                            break;
+                        }
+                        out.write(streamCopyBuf, 0, readBytes);
+                        remainBytes -= readBytes;
+                        bytesRead += readBytes;
                     }
-                    out.write(streamCopyBuf, 0, readBytes);
-                    remainBytes -= readBytes;
-                    bytesRead += readBytes;
                 }
             }
             else
@@ -1234,69 +1321,29 @@ public class COSParser extends BaseParser
     {
         if (bfSearchObjectOffsets == null)
         {
-            bfSearchObjectOffsets = new HashMap<String, Long>();
-            bfSearchCOSObjectKeyOffsets = new HashMap<COSObjectKey, Long>();
-            long originOffset = pdfSource.getOffset();
-            long currentOffset = MINIMUM_SEARCH_OFFSET;
-            String objString = " obj";
-            char[] string = objString.toCharArray();
-            do
-            {
-                pdfSource.seek(currentOffset);
-                if (isString(string))
-                {
-                    long tempOffset = currentOffset - 1;
-                    pdfSource.seek(tempOffset);
-                    int genID = pdfSource.peek();
-                    // is the next char a digit?
-                    if (genID > 47 && genID < 58)
-                    {
-                        genID -= 48;
-                        tempOffset--;
-                        pdfSource.seek(tempOffset);
-                        if (isSpace())
-                        {
-                            while (tempOffset > MINIMUM_SEARCH_OFFSET && isSpace())
-                            {
-                                pdfSource.seek(--tempOffset);
-                            }
-                            int length = 0;
-                            while (tempOffset > MINIMUM_SEARCH_OFFSET && isDigit())
-                            {
-                                pdfSource.seek(--tempOffset);
-                                length++;
-                            }
-                            if (length > 0)
-                            {
-                                pdfSource.read();
-                                byte[] objIDBytes = pdfSource.readFully(length);
-                                String objIdString = new String(objIDBytes, 0,
-                                        objIDBytes.length, ISO_8859_1);
-                                Long objectID;
-                                try
-                                {
-                                    objectID = Long.valueOf(objIdString);
-                                }
-                                catch (NumberFormatException exception)
-                                {
-                                    objectID = null;
-                                }
-                                if (objectID != null)
-                                {
-                                    bfSearchObjectOffsets.put(
-                                            createObjectString(objectID, genID), ++tempOffset);
-                                    bfSearchCOSObjectKeyOffsets.put(new COSObjectKey(objectID, genID), tempOffset);
-                                }
-                            }
-                        }
-                    }
-                }
-                currentOffset++;
-            }
-            while (!pdfSource.isEOF());
-            // reestablish origin position
-            pdfSource.seek(originOffset);
+            bfSearch();
+        }
+    }
+
+    /**
+     * Brute force search for all objects and xref entries in one pass over the pdf.
+     * 
+     * @throws IOException if something went wrong
+     */
+    private void bfSearch() throws IOException
+    {
+        BruteForceSearcher searcher = new BruteForceSearcher(pdfSource, MINIMUM_SEARCH_OFFSET);
+        searcher.search();
+        bfSearchCOSObjectKeyOffsets = searcher.getObjectKeyOffsets();
+        bfSearchObjectOffsets = new HashMap<String, Long>(bfSearchCOSObjectKeyOffsets.size() * 2);
+        for (Map.Entry<COSObjectKey, Long> entry : bfSearchCOSObjectKeyOffsets.entrySet())
+        {
+            COSObjectKey key = entry.getKey();
+            bfSearchObjectOffsets.put(createObjectString(key.getNumber(), key.getGeneration()),
+                    entry.getValue());
         }
+        // a pdf may contain more than one xref entry
+        bfSearchXRefOffsets = searcher.getXRefOffsets();
     }
 
     /**
@@ -1344,95 +1391,7 @@ public class COSParser extends BaseParser
     {
         if (bfSearchXRefOffsets == null)
         {
-            // a pdf may contain more than one xref entry
-            bfSearchXRefOffsets = new Vector<Long>();
-            long originOffset = pdfSource.getOffset();
-            pdfSource.seek(MINIMUM_SEARCH_OFFSET);
-            // search for xref tables
-            while (!pdfSource.isEOF())
-            {
-                if (isString(XREF_TABLE))
-                {
-                    long newOffset = pdfSource.getOffset();
-                    pdfSource.seek(newOffset - 1);
-                    // ensure that we don't read "startxref" instead of "xref"
-                    if (isWhitespace())
-                    {
-                        bfSearchXRefOffsets.add(newOffset);
-                    }
-                    pdfSource.seek(newOffset + 4);
-                }
-                pdfSource.read();
-            }
-            pdfSource.seek(MINIMUM_SEARCH_OFFSET);
-            // search for XRef streams
-            String objString = " obj";
-            char[] string = objString.toCharArray();
-            while (!pdfSource.isEOF())
-            {
-                if (isString(XREF_STREAM))
-                {
-                    // search backwards for the beginning of the stream
-                    long newOffset = -1;
-                    long xrefOffset = pdfSource.getOffset();
-                    boolean objFound = false;
-                    for (int i = 1; i < 30 && !objFound; i++)
-                    {
-                        long currentOffset = xrefOffset - (i * 10);
-                        if (currentOffset > 0)
-                        {
-                            pdfSource.seek(currentOffset);
-                            for (int j = 0; j < 10; j++)
-                            {
-                                if (isString(string))
-                                {
-                                    long tempOffset = currentOffset - 1;
-                                    pdfSource.seek(tempOffset);
-                                    int genID = pdfSource.peek();
-                                    // is the next char a digit?
-                                    if (isDigit(genID))
-                                    {
-                                        genID -= 48;
-                                        tempOffset--;
-                                        pdfSource.seek(tempOffset);
-                                        if (isSpace())
-                                        {
-                                            int length = 0;
-                                            pdfSource.seek(--tempOffset);
-                                            while (tempOffset > MINIMUM_SEARCH_OFFSET && isDigit())
-                                            {
-                                                pdfSource.seek(--tempOffset);
-                                                length++;
-                                            }
-                                            if (length > 0)
-                                            {
-                                                pdfSource.read();
-                                                newOffset = pdfSource.getOffset();
-                                            }
-                                        }
-                                    }
-                                    LOG.debug("Fixed reference for xref stream " + xrefOffset
-                                            + " -> " + newOffset);
-                                    objFound = true;
-                                    break;
-                                }
-                                else
-                                {
-                                    currentOffset++;
-                                    pdfSource.read();
-                                }
-                            }
-                        }
-                    }
-                    if (newOffset > -1)
-                    {
-                        bfSearchXRefOffsets.add(newOffset);
-                    }
-                    pdfSource.seek(xrefOffset + 5);
-                }
-                pdfSource.read();
-            }
-            pdfSource.seek(originOffset);
+            bfSearch();
         }
     }
 
@@ -1696,8 +1655,7 @@ public class COSParser extends BaseParser
                     {
                         long currOffset = Long.parseLong(splitString[0]);
                         int currGenID = Integer.parseInt(splitString[1]);
-                        COSObjectKey objKey = new COSObjectKey(currObjID, currGenID);
-                        xrefTrailerResolver.setXRef(objKey, currOffset);
+                        xrefTrailerResolver.setXRef(currObjID, currGenID, currOffset);
                     }
                     catch(NumberFormatException e)
                     {
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.PushBackInputStream;
+import org.apache.pdfbox.io.RandomAccessRead;
+
+/**
+ * Parses single objects of a PDF 1.5 object stream on demand. The stream is decoded once and
+ * the object numbers and offsets of its header are kept, so that an object is parsed by seeking
+ * to /First plus its offset. If an offset turns out to be wrong, all objects are parsed one after
+ * another as done by {@link PDFObjectStreamParser}.
+ */
+final class ObjectStreamIndex extends BaseParser
+{
+    private static final Log LOG = LogFactory.getLog(ObjectStreamIndex.class);
+
+    private static final int PUSHBACK_SIZE = 4096;
+
+    private final long[] objectNumbers;
+    private final int[] offsets;
+    // the position of the first object in the sequential case
+    private final long headerEnd;
+    private int lastIndex = -1;
+
+    // the objects parsed one after another, only used if the offsets can't be relied on
+    private COSBase[] sequentialObjects = null;
+
+    /**
+     * Constructor. Decodes the stream and parses its header. The data of a parsed stream is
+     * decoded from its source without locking the stream, see
+     * {@link COSStream#createSourceDecodingStream()}.
+     *
+     * @param stream the object stream
+     * @param doc the document the object stream belongs to
+     * @throws IOException if the stream can't be decoded or the header is invalid
+     */
+    ObjectStreamIndex(COSStream stream, COSDocument doc) throws IOException
+    {
+        document = doc;
+        InputStream in = stream.createSourceDecodingStream();
+        if (in == null)
+        {
+            in = stream.getUnfilteredStream();
+        }
+        byte[] data;
+        try
+        {
+            data = IOUtils.toByteArray(in);
+        }
+        finally
+        {
+            in.close();
+        }
+        pdfSource = new PushBackInputStream(new ByteArraySource(data), PUSHBACK_SIZE);
+
+        int numberOfObjects = Math.max(stream.getInt(COSName.N), 0);
+        int first = stream.getInt(COSName.FIRST);
+        objectNumbers = new long[numberOfObjects];
+        offsets = new int[numberOfObjects];
+        for (int i = 0; i < numberOfObjects; i++)
+        {
+            objectNumbers[i] = readObjectNumber();
+            long offset = readLong();
+            offsets[i] = first >= 0 && offset >= 0 && first + offset < data.length
+                    ? (int) (first + offset) : -1;
+        }
+        headerEnd = pdfSource.getOffset();
+    }
+
+    /**
+     * Returns the position of the given object in the stream.
+     *
+     * @param objNr the object number
+     * @return the index of the object, or -1 if the stream doesn't contain it
+     */
+    int indexOf(long objNr)
+    {
+        // objects are mostly requested in the order of the stream, start after the last hit
+        int count = objectNumbers.length;
+        for (int i = 1; i <= count; i++)
+        {
+            int index = (lastIndex + i) % count;
+            if (objectNumbers[index] == objNr)
+            {
+                lastIndex = index;
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the object at the given position in the stream.
+     *
+     * @param index the index of the object
+     * @return the parsed object or null if it can't be parsed
+     * @throws IOException if the object stream is damaged
+     */
+    COSBase parseObject(int index) throws IOException
+    {
+        if (sequentialObjects == null && offsets[index] >= 0)
+        {
+            try
+            {
+                pdfSource.seek(offsets[index]);
+                COSBase object = parseDirObject();
+                if (object != null)
+                {
+                    return object;
+                }
+            }
+            catch (IOException e)
+            {
+                LOG.debug("Object " + objectNumbers[index] + " can't be parsed at offset "
+                        + offsets[index] + " of the object stream", e);
+            }
+        }
+        if (sequentialObjects == null)
+        {
+            LOG.warn("Invalid offset of object " + objectNumbers[index]
+                    + " in object stream, parsing all objects");
+            parseSequentially();
+        }
+        return sequentialObjects[index];
+    }
+
+    // parses all objects one after another ignoring the offsets of the header
+    private void parseSequentially() throws IOException
+    {
+        sequentialObjects = new COSBase[objectNumbers.length];
+        pdfSource.seek(headerEnd);
+        COSBase object;
+        int objectCounter = 0;
+        while ((object = parseDirObject()) != null)
+        {
+            if (objectCounter >= objectNumbers.length)
+            {
+                LOG.error("/ObjStm (object stream) has more objects than /N "
+                        + objectNumbers.length);
+                break;
+            }
+            sequentialObjects[objectCounter++] = object;
+            // skip endobject marker if present, see PDFObjectStreamParser
+            if (!pdfSource.isEOF() && pdfSource.peek() == 'e')
+            {
+                readLine();
+            }
+        }
+    }
+
+    /**
+     * A seekable stream of the decoded data.
+     */
+    private static final class ByteArraySource extends ByteArrayInputStream
+            implements RandomAccessRead
+    {
+        private ByteArraySource(byte[] data)
+        {
+            super(data);
+        }
+
+        @Override
+        public long getPosition()
+        {
+            return pos;
+        }
+
+        @Override
+        public void seek(long position)
+        {
+            pos = (int) Math.min(Math.max(position, 0), count);
+        }
+
+        @Override
+        public long length()
+        {
+            return count;
+        }
+
+        @Override
+        public boolean isClosed()
+        {
+            return false;
+        }
+    }
+}
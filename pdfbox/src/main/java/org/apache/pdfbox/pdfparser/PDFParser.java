@@ -33,6 +33,8 @@ import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.PushBackInputStream;
 import org.apache.pdfbox.io.RandomAccessBufferedFileInputStream;
+import org.apache.pdfbox.io.RandomAccessMappedFileInputStream;
+import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
 import org.apache.pdfbox.pdmodel.encryption.DecryptionMaterial;
@@ -44,7 +46,21 @@ public class PDFParser extends COSParser
 {
     private static final Log LOG = LogFactory.getLog(PDFParser.class);
 
-    private final RandomAccessBufferedFileInputStream raStream;
+    /**
+     * Map the given file into memory instead of reading it through a page cache. Set this
+     * system property to "false" to read files via {@link RandomAccessBufferedFileInputStream}.
+     */
+    public static final String SYSPROP_USEMEMORYMAPPEDFILE =
+            "org.apache.pdfbox.pdfparser.useMemoryMappedFile";
+
+    /**
+     * Parse the indirect objects of a document when they are accessed the first time, instead
+     * of parsing all objects reachable from the catalog while the document is loaded. Set this
+     * system property to "true" to load documents lazily by default.
+     */
+    public static final String SYSPROP_LAZYLOADING = "org.apache.pdfbox.pdfparser.lazyLoading";
+
+    private final InputStream raStream;
     private String password = "";
     private InputStream keyStoreInputStream = null;
     private String keyAlias = null;
@@ -55,6 +71,8 @@ public class PDFParser extends COSParser
 
     private File tempPDFFile;
 
+    private boolean lazyLoading = false;
+
     /**
      * Constructs parser for given file using memory buffer.
      * 
@@ -167,7 +185,7 @@ public class PDFParser extends COSParser
     {
         super(EMPTY_INPUT_STREAM);
         fileLen = file.length();
-        raStream = new RandomAccessBufferedFileInputStream(file);
+        raStream = createFileInputStream(file);
         password = decryptionPassword;
         keyStoreInputStream = keyStore;
         keyAlias = alias;
@@ -265,6 +283,37 @@ public class PDFParser extends COSParser
         init(useScratchFiles);
     }
 
+    /**
+     * Creates the random access input for the given file. The file is mapped into memory
+     * unless this was disabled using {@link #SYSPROP_USEMEMORYMAPPEDFILE}.
+     */
+    private static InputStream createFileInputStream(File file) throws IOException
+    {
+        boolean useMemoryMappedFile = true;
+        try
+        {
+            useMemoryMappedFile = !"false".equalsIgnoreCase(
+                    System.getProperty(SYSPROP_USEMEMORYMAPPEDFILE));
+        }
+        catch (SecurityException e)
+        {
+            // ignore and use default
+        }
+        if (useMemoryMappedFile)
+        {
+            try
+            {
+                return new RandomAccessMappedFileInputStream(file);
+            }
+            catch (IOException e)
+            {
+                // e.g. not enough address space on a 32 bit VM
+                LOG.debug("Can't map file '" + file.getName() + "' into memory, using fallback", e);
+            }
+        }
+        return new RandomAccessBufferedFileInputStream(file);
+    }
+
     private void init(boolean useScratchFiles) throws IOException
     {
         String eofLookupRangeStr = System.getProperty(SYSPROP_EOFLOOKUPRANGE);
@@ -280,8 +329,49 @@ public class PDFParser extends COSParser
                         + " does not contain an integer value, but: '" + eofLookupRangeStr + "'");
             }
         }
+        try
+        {
+            lazyLoading = "true".equalsIgnoreCase(System.getProperty(SYSPROP_LAZYLOADING));
+        }
+        catch (SecurityException e)
+        {
+            // ignore and use default
+        }
         document = new COSDocument(useScratchFiles);
         pdfSource = new PushBackInputStream(raStream, 4096);
+        if (tempPDFFile == null)
+        {
+            // read the data of the streams on demand from the given file
+            setStreamSource((RandomAccessRead) raStream);
+        }
+    }
+
+    /**
+     * Returns true if the indirect objects are parsed when they are accessed the first time.
+     *
+     * @return true if the document is loaded lazily
+     */
+    public boolean isLazyLoading()
+    {
+        return lazyLoading;
+    }
+
+    /**
+     * Sets whether the indirect objects are parsed when they are accessed the first time. If
+     * set, only the header, the cross reference tables, the trailer and the catalog are parsed
+     * by {@link #parse()}, and the parser has to stay open until the document is closed. This
+     * must be set before the document is parsed. The default is taken from the system property
+     * {@link #SYSPROP_LAZYLOADING}.
+     *
+     * A lazily loaded document may be read by several threads as long as it isn't modified,
+     * e.g. to render or extract different pages concurrently. Objects are parsed by one thread
+     * at a time, other threads accessing an object meanwhile wait for it.
+     *
+     * @param lazy true to load the document lazily
+     */
+    public void setLazyLoading(boolean lazy)
+    {
+        lazyLoading = lazy;
     }
 
     /**
@@ -343,7 +433,15 @@ public class PDFParser extends COSParser
         COSObject catalogObj = document.getCatalog();
         if (catalogObj != null && catalogObj.getObject() instanceof COSDictionary)
         {
-            parseDictObjects((COSDictionary) catalogObj.getObject(), (COSName[]) null);
+            if (lazyLoading)
+            {
+                // all other objects are parsed when they are accessed the first time
+                document.setParser(this);
+            }
+            else
+            {
+                parseDictObjects((COSDictionary) catalogObj.getObject(), (COSName[]) null);
+            }
             document.setDecrypted();
         }
         // PDFBOX-1922: read the version again now that all objects have been resolved
@@ -352,8 +450,9 @@ public class PDFParser extends COSParser
     }
 
     /**
-     * This will parse the stream and populate the COSDocument object.  This will close
-     * the stream when it is done parsing.
+     * This will parse the stream and populate the COSDocument object. A given file is kept open
+     * after parsing as the data of the streams is read from it on demand, it is closed together
+     * with the COSDocument. A given input stream is closed when parsing is done.
      *
      * @throws IOException If there is an error reading from the stream or corrupt data
      * is found.
@@ -374,14 +473,23 @@ public class PDFParser extends COSParser
             {
                 initialParse();
             }
+            if (tempPDFFile == null || lazyLoading)
+            {
+                // the document reads its streams or its objects from the given file
+                document.setSource(this);
+            }
             exceptionOccurred = false;
         }
         finally
         {
-            IOUtils.closeQuietly(pdfSource);
             IOUtils.closeQuietly(keyStoreInputStream);
     
-            deleteTempFile();
+            if (exceptionOccurred || tempPDFFile != null && !lazyLoading)
+            {
+                // all stream data was copied, the temporary file isn't needed anymore
+                IOUtils.closeQuietly(pdfSource);
+                deleteTempFile();
+            }
     
             if (exceptionOccurred && document != null)
             {
@@ -397,6 +505,24 @@ public class PDFParser extends COSParser
         }
     }
 
+    /**
+     * Closes the source of the parsed PDF and removes the temporary file, if there is one.
+     * 
+     * @throws IOException If there is an error closing the source.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            super.close();
+        }
+        finally
+        {
+            deleteTempFile();
+        }
+    }
+
     /**
      * Remove the temporary file. A temporary file is created if this class is instantiated with an InputStream
      */
@@ -415,6 +541,7 @@ public class PDFParser extends COSParser
             {
                 LOG.warn("Temporary file '" + tempPDFFile.getName() + "' can't be deleted", e);
             }
+            tempPDFFile = null;
         }
     }
 
@@ -32,7 +32,6 @@ import org.apache.pdfbox.cos.COSBoolean;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSNull;
-import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.common.PDStream;
@@ -296,14 +295,14 @@ public class PDFStreamParser extends BaseParser
             {
                 /* We will be filling buf with the rest of the number.  Only
                  * allow 1 "." and "-" and "+" at start of number. */
-                StringBuffer buf = new StringBuffer();
-                buf.append( c );
+                clearNumber();
+                appendToNumber( c );
                 pdfSource.read();
 
                 boolean dotNotRead = c != '.';
                 while( Character.isDigit(c = (char)pdfSource.peek()) || dotNotRead && c == '.')
                 {
-                    buf.append( c );
+                    appendToNumber( c );
                     pdfSource.read();
 
                     if (dotNotRead && c == '.')
@@ -311,7 +310,7 @@ public class PDFStreamParser extends BaseParser
                         dotNotRead = false;
                     }
                 }
-                retval = COSNumber.get( buf.toString() );
+                retval = parseNumber();
                 break;
             }
             case 'B':
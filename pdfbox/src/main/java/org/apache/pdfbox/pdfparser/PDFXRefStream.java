@@ -29,6 +29,7 @@ import java.util.TreeSet;
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
 import org.apache.pdfbox.cos.COSInteger;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSObject;
@@ -60,7 +61,23 @@ public class PDFXRefStream implements PDFXRef
      */
     public PDFXRefStream()
     {
-        this.stream = new COSStream(new COSDictionary());
+        this(new COSStream(new COSDictionary()));
+    }
+
+    /**
+     * Create a fresh XRef stream for the given document. The stream data is held using the
+     * scratch file configuration of the document.
+     *
+     * @param document the document the XRef stream belongs to
+     */
+    public PDFXRefStream(COSDocument document)
+    {
+        this(document.createCOSStream());
+    }
+
+    private PDFXRefStream(COSStream stream)
+    {
+        this.stream = stream;
         streamData = new TreeMap<Integer, Object>();
         objectNumbers = new TreeSet<Integer>();
     }
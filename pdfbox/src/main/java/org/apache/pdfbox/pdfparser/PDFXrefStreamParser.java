@@ -27,7 +27,6 @@ import org.apache.pdfbox.cos.COSDocument;
 import org.apache.pdfbox.cos.COSInteger;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
-import org.apache.pdfbox.cos.COSObjectKey;
 
 /**
  * This will parse a PDF 1.5 (or better) Xref stream and
@@ -140,8 +139,7 @@ public class PDFXrefStreamParser extends BaseParser
                         {
                             genNum += (currLine[i + w0 + w1] & 0x00ff) << ((w2 - i - 1) * 8);
                         }
-                        COSObjectKey objKey = new COSObjectKey(objID, genNum);
-                        xrefTrailerResolver.setXRef(objKey, offset);
+                        xrefTrailerResolver.setXRef(objID, genNum, offset);
                         break;
                     case 2:
                         /*
@@ -163,8 +161,7 @@ public class PDFXrefStreamParser extends BaseParser
                         {
                             objstmObjNr += (currLine[i + w0] & 0x00ff) << ((w1 - i - 1) * 8);
                         }    
-                        objKey = new COSObjectKey( objID, 0 );
-                        xrefTrailerResolver.setXRef( objKey, -objstmObjNr );
+                        xrefTrailerResolver.setXRef( objID, 0, -objstmObjNr );
                         break;
                     default:
                         break;
@@ -19,11 +19,9 @@ package org.apache.pdfbox.pdfparser;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Map.Entry;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -32,6 +30,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.XrefIndex;
 
 /**
  * This class will collect all XRef/trailer objects and creates correct
@@ -65,7 +64,7 @@ public class XrefTrailerResolver
 
         private XRefType xrefType;
 
-        private final Map<COSObjectKey, Long> xrefTable = new HashMap<COSObjectKey, Long>();
+        private final XrefIndex xrefTable = new XrefIndex();
         
         /**
          *  Default constructor.
@@ -152,20 +151,31 @@ public class XrefTrailerResolver
     } 
     
     /**
-     * Populate XRef HashMap of current XRef object.
+     * Populate XRef table of current XRef object.
      * Will add an Xreftable entry that maps ObjectKeys to byte offsets in the file.
      * @param objKey The objkey, with id and gen numbers
      * @param offset The byte offset in this file
      */
     public void setXRef( COSObjectKey objKey, long offset )
+    {
+        setXRef( objKey.getNumber(), objKey.getGeneration(), offset );
+    }
+
+    /**
+     * Populate XRef table of current XRef object without creating an object key.
+     * @param objNr the object number
+     * @param genNr the generation number
+     * @param offset The byte offset in this file or the negated object number of the object stream
+     */
+    public void setXRef( long objNr, long genNr, long offset )
     {
         if ( curXrefTrailerObj == null )
         {
             // should not happen...
-            LOG.warn( "Cannot add XRef entry for '" + objKey.getNumber() + "' because XRef start was not signalled." );
+            LOG.warn( "Cannot add XRef entry for '" + objNr + "' because XRef start was not signalled." );
             return;
         }
-        curXrefTrailerObj.xrefTable.put( objKey, offset );
+        curXrefTrailerObj.xrefTable.put( objNr, genNr, offset );
     }
 
     /**
@@ -295,7 +305,7 @@ public class XrefTrailerResolver
      *
      * @return the xrefTable if available
      */
-    public Map<COSObjectKey, Long> getXrefTable()
+    public XrefIndex getXrefTable()
     {
         return ( resolvedXrefTrailer == null ) ? null : resolvedXrefTrailer.xrefTable;
     }
@@ -319,16 +329,6 @@ public class XrefTrailerResolver
         {
             return null;
         }
-        final Set<Long> refObjNrs = new HashSet<Long>();
-        final int       cmpVal    = - objstmObjNr;
-        
-        for ( Entry<COSObjectKey,Long> xrefEntry : resolvedXrefTrailer.xrefTable.entrySet() ) 
-        {
-            if ( xrefEntry.getValue() == cmpVal )
-            {
-                refObjNrs.add( xrefEntry.getKey().getNumber() );
-            }
-        }
-        return refObjNrs;
+        return resolvedXrefTrailer.xrefTable.getContainedObjectNumbers( objstmObjNr );
     }
 }
@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.Deflater;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -209,6 +210,10 @@ public class COSWriter implements ICOSVisitor, Closeable
     private InputStream incrementalInput;
     private OutputStream incrementalOutput;
 
+    // compression settings for streams which don't have their own
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private int compressionStrategy = Deflater.DEFAULT_STRATEGY;
+
     /**
      * COSWriter constructor comment.
      *
@@ -282,6 +287,21 @@ public class COSWriter implements ICOSVisitor, Closeable
       }
     }
     
+    /**
+     * Sets the compression level and strategy used for Flate encoded streams which are
+     * encoded while the document is written, unless a stream has its own settings, see
+     * {@link COSStream#setCompression(int, int)}. Streams which are already encoded, e.g.
+     * unmodified streams of a parsed document, aren't compressed again.
+     *
+     * @param level the compression level, see {@link Deflater#setLevel(int)}
+     * @param strategy the compression strategy, see {@link Deflater#setStrategy(int)}
+     */
+    public void setCompression(int level, int strategy)
+    {
+        compressionLevel = level;
+        compressionStrategy = strategy;
+    }
+
     /**
      * add an entry in the x ref table for later dump.
      *
@@ -592,7 +612,7 @@ public class COSWriter implements ICOSVisitor, Closeable
             // with data available here
 
             // create a new XRefStrema object
-            PDFXRefStream pdfxRefStream = new PDFXRefStream();
+            PDFXRefStream pdfxRefStream = new PDFXRefStream(doc);
 
             // add all entries from the incremental update.
             List<COSWriterXRefEntry> xRefEntries2 = getXRefEntries();
@@ -1097,6 +1117,8 @@ public class COSWriter implements ICOSVisitor, Closeable
     @Override
     public Object visitFromStream(COSStream obj) throws IOException
     {
+        // the settings of the writer are used for this write only
+        obj.encode(compressionLevel, compressionStrategy);
         if (willEncrypt)
         {
             document.getEncryption().getSecurityHandler()
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.pdfbox.contentstream.CompiledContentStream;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.pattern.PDAbstractPattern;
+import org.apache.pdfbox.pdmodel.graphics.shading.PDShading;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+
+/**
+ * The default resource cache. The resources are held by soft references, so that they are kept
+ * until memory runs low, or by weak references, so that they are dropped as soon as no page uses
+ * them anymore. Pre-parsed content streams are held the same way, in addition the least recently
+ * used ones are dropped when their total size exceeds a limit.
+ *
+ * @see ResourceCache
+ */
+public class DefaultResourceCache implements ResourceCache
+{
+    /**
+     * The default maximum total size of the pre-parsed content streams, 32 MB.
+     */
+    public static final long DEFAULT_MAX_CONTENT_STREAM_BYTES = 32L * 1024 * 1024;
+
+    private final boolean weak;
+    private final long maxContentStreamBytes;
+
+    private final ConcurrentMap<COSObject, Reference<PDFont>> fonts =
+            new ConcurrentHashMap<COSObject, Reference<PDFont>>();
+
+    private final ConcurrentMap<COSObject, Reference<PDColorSpace>> colorSpaces =
+            new ConcurrentHashMap<COSObject, Reference<PDColorSpace>>();
+
+    private final ConcurrentMap<COSObject, Reference<PDXObject>> xobjects =
+            new ConcurrentHashMap<COSObject, Reference<PDXObject>>();
+
+    private final ConcurrentMap<COSObject, Reference<PDExtendedGraphicsState>> extGStates =
+            new ConcurrentHashMap<COSObject, Reference<PDExtendedGraphicsState>>();
+
+    private final ConcurrentMap<COSObject, Reference<PDShading>> shadings =
+            new ConcurrentHashMap<COSObject, Reference<PDShading>>();
+
+    private final ConcurrentMap<COSObject, Reference<PDAbstractPattern>> patterns =
+            new ConcurrentHashMap<COSObject, Reference<PDAbstractPattern>>();
+
+    private final ConcurrentMap<COSObject, Reference<PDPropertyList>> properties =
+            new ConcurrentHashMap<COSObject, Reference<PDPropertyList>>();
+
+    // access ordered, guarded by itself
+    private final Map<COSStream, ContentStreamEntry> contentStreams =
+            new LinkedHashMap<COSStream, ContentStreamEntry>(16, 0.75f, true);
+    private long contentStreamBytes = 0;
+
+    /**
+     * Creates a cache holding the resources by soft references.
+     */
+    public DefaultResourceCache()
+    {
+        this(false);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param weak true if the resources are held by weak references, false for soft references
+     */
+    public DefaultResourceCache(boolean weak)
+    {
+        this(weak, DEFAULT_MAX_CONTENT_STREAM_BYTES);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param weak true if the resources are held by weak references, false for soft references
+     * @param maxContentStreamBytes the maximum total size of the pre-parsed content streams, 0
+     * to not keep any
+     */
+    public DefaultResourceCache(boolean weak, long maxContentStreamBytes)
+    {
+        this.weak = weak;
+        this.maxContentStreamBytes = maxContentStreamBytes;
+    }
+
+    @Override
+    public PDFont getFont(COSObject indirect)
+    {
+        return get(fonts, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDFont font)
+    {
+        put(fonts, indirect, font);
+    }
+
+    @Override
+    public PDColorSpace getColorSpace(COSObject indirect)
+    {
+        return get(colorSpaces, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDColorSpace colorSpace)
+    {
+        put(colorSpaces, indirect, colorSpace);
+    }
+
+    @Override
+    public PDExtendedGraphicsState getExtGState(COSObject indirect)
+    {
+        return get(extGStates, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDExtendedGraphicsState extGState)
+    {
+        put(extGStates, indirect, extGState);
+    }
+
+    @Override
+    public PDShading getShading(COSObject indirect)
+    {
+        return get(shadings, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDShading shading)
+    {
+        put(shadings, indirect, shading);
+    }
+
+    @Override
+    public PDAbstractPattern getPattern(COSObject indirect)
+    {
+        return get(patterns, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDAbstractPattern pattern)
+    {
+        put(patterns, indirect, pattern);
+    }
+
+    @Override
+    public PDPropertyList getProperties(COSObject indirect)
+    {
+        return get(properties, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDPropertyList propertyList)
+    {
+        put(properties, indirect, propertyList);
+    }
+
+    @Override
+    public PDXObject getXObject(COSObject indirect)
+    {
+        return get(xobjects, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDXObject xobject)
+    {
+        put(xobjects, indirect, xobject);
+    }
+
+    @Override
+    public CompiledContentStream getContentStream(COSStream stream)
+    {
+        synchronized (contentStreams)
+        {
+            ContentStreamEntry entry = contentStreams.get(stream);
+            if (entry == null)
+            {
+                return null;
+            }
+            CompiledContentStream contentStream = entry.ref.get();
+            if (contentStream == null)
+            {
+                // the content stream has been collected, drop the stale entry
+                contentStreams.remove(stream);
+                contentStreamBytes -= entry.size;
+            }
+            return contentStream;
+        }
+    }
+
+    @Override
+    public void put(COSStream stream, CompiledContentStream contentStream)
+    {
+        long size = contentStream.getSize();
+        synchronized (contentStreams)
+        {
+            ContentStreamEntry previous = contentStreams.remove(stream);
+            if (previous != null)
+            {
+                contentStreamBytes -= previous.size;
+            }
+            if (size > maxContentStreamBytes)
+            {
+                return;
+            }
+            contentStreams.put(stream, new ContentStreamEntry(reference(contentStream), size));
+            contentStreamBytes += size;
+
+            // drop the least recently used content streams
+            Iterator<ContentStreamEntry> iterator = contentStreams.values().iterator();
+            while (contentStreamBytes > maxContentStreamBytes)
+            {
+                contentStreamBytes -= iterator.next().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static <T> T get(ConcurrentMap<COSObject, Reference<T>> map, COSObject indirect)
+    {
+        Reference<T> ref = map.get(indirect);
+        if (ref == null)
+        {
+            return null;
+        }
+        T value = ref.get();
+        if (value == null)
+        {
+            // the resource has been collected, drop the stale entry
+            map.remove(indirect, ref);
+        }
+        return value;
+    }
+
+    private <T> void put(ConcurrentMap<COSObject, Reference<T>> map, COSObject indirect, T value)
+    {
+        map.put(indirect, reference(value));
+    }
+
+    private <T> Reference<T> reference(T value)
+    {
+        if (weak)
+        {
+            return new WeakReference<T>(value);
+        }
+        return new SoftReference<T>(value);
+    }
+
+    /**
+     * A pre-parsed content stream and its size, which is still known after it has been collected.
+     */
+    private static final class ContentStreamEntry
+    {
+        private final Reference<CompiledContentStream> ref;
+        private final long size;
+
+        private ContentStreamEntry(Reference<CompiledContentStream> ref, long size)
+        {
+            this.ref = ref;
+            this.size = size;
+        }
+    }
+}
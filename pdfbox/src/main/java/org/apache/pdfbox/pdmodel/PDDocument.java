@@ -95,6 +95,9 @@ public class PDDocument implements Closeable
     
     // fonts to subset before saving
     private final Set<PDFont> fontsToSubset = new HashSet<PDFont>();
+
+    // resources shared by the pages, may be null
+    private volatile ResourceCache resourceCache = new DefaultResourceCache();
     
     /**
      * Creates an empty PDF document.
@@ -903,15 +906,43 @@ public class PDDocument implements Closeable
     }
 
     /**
-     * Save the document to a file.
+     * Save the document to a file. If the file is the one the document was loaded from, the
+     * document is written to a temporary file next to it first, which then replaces the file, as
+     * the stream data of the document is read from the file while it is written.
      * 
      * @param file The file to save as.
      *
-     * @throws IOException if the output could not be written
+     * @throws IOException if the output could not be written or the file could not be replaced
      */
     public void save(File file) throws IOException
     {
-        save(new FileOutputStream(file));
+        if (incrementalFile == null
+                || !incrementalFile.getCanonicalFile().equals(file.getCanonicalFile()))
+        {
+            save(new FileOutputStream(file));
+            return;
+        }
+        File tempFile = File.createTempFile("pdfbox", ".tmp",
+                file.getAbsoluteFile().getParentFile());
+        boolean replaced = false;
+        try
+        {
+            save(new FileOutputStream(tempFile));
+            // the source stays readable through the open handle of the parser
+            replaced = tempFile.renameTo(file);
+            if (!replaced)
+            {
+                throw new IOException("Could not replace " + file + " by the saved document "
+                        + tempFile);
+            }
+        }
+        finally
+        {
+            if (!replaced && !tempFile.delete())
+            {
+                tempFile.deleteOnExit();
+            }
+        }
     }
 
     /**
@@ -1000,6 +1031,28 @@ public class PDDocument implements Closeable
         return getDocumentCatalog().getPages().getCount();
     }
 
+    /**
+     * Returns the resource cache used by the pages of this document, so that fonts, color spaces
+     * and XObjects shared by several pages are created only once.
+     *
+     * @return the resource cache, or null if resources aren't cached
+     */
+    public ResourceCache getResourceCache()
+    {
+        return resourceCache;
+    }
+
+    /**
+     * Sets the resource cache used by the pages of this document. This applies to pages which
+     * are retrieved afterwards.
+     *
+     * @param resourceCache the resource cache, or null to disable caching
+     */
+    public void setResourceCache(ResourceCache resourceCache)
+    {
+        this.resourceCache = resourceCache;
+    }
+
     /**
      * This will close the underlying COSDocument object.
      * 
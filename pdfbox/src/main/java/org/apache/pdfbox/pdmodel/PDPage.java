@@ -54,6 +54,7 @@ public class PDPage implements COSObjectable, PDContentStream
     
     private final COSDictionary page;
     private PDResources pageResources;
+    private final ResourceCache resourceCache;
     private PDRectangle mediaBox;
 
     /**
@@ -74,6 +75,7 @@ public class PDPage implements COSObjectable, PDContentStream
         page = new COSDictionary();
         page.setItem(COSName.TYPE, COSName.PAGE);
         page.setItem(COSName.MEDIA_BOX, mediaBox);
+        resourceCache = null;
     }
 
     /**
@@ -82,8 +84,20 @@ public class PDPage implements COSObjectable, PDContentStream
      * @param pageDictionary A page dictionary in a PDF document.
      */
     public PDPage(COSDictionary pageDictionary)
+    {
+        this(pageDictionary, null);
+    }
+
+    /**
+     * Creates a new instance of PDPage for reading.
+     *
+     * @param pageDictionary A page dictionary in a PDF document.
+     * @param resourceCache The resource cache of the document, may be null.
+     */
+    public PDPage(COSDictionary pageDictionary, ResourceCache resourceCache)
     {
         page = pageDictionary;
+        this.resourceCache = resourceCache;
     }
 
     /**
@@ -126,7 +140,7 @@ public class PDPage implements COSObjectable, PDContentStream
             // note: it's an error for resources to not be present
             if (resources != null)
             {
-                pageResources = new PDResources(resources);
+                pageResources = new PDResources(resources, resourceCache);
             }
         }
         return pageResources;
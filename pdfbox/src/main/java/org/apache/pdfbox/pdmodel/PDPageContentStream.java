@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Stack;
+import java.util.zip.Deflater;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSArray;
@@ -116,6 +117,27 @@ public final class PDPageContentStream implements Closeable
      */
     public PDPageContentStream(PDDocument document, PDPage sourcePage, boolean appendContent, boolean compress,
             boolean resetContext) throws IOException
+    {
+        this(document, sourcePage, appendContent, compress, resetContext,
+                Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    }
+
+    /**
+     * Create a new PDPage content stream.
+     *
+     * @param document The document the page is part of.
+     * @param sourcePage The page to write the contents to.
+     * @param appendContent Indicates whether content will be overwritten. If false all previous content is deleted.
+     * @param compress Tell if the content stream should compress the page contents.
+     * @param resetContext Tell if the graphic context should be reseted.
+     * @param compressionLevel The compression level used if the contents are compressed,
+     * see {@link Deflater#setLevel(int)}.
+     * @param compressionStrategy The compression strategy used if the contents are compressed,
+     * see {@link Deflater#setStrategy(int)}.
+     * @throws IOException If there is an error writing to the page contents.
+     */
+    public PDPageContentStream(PDDocument document, PDPage sourcePage, boolean appendContent, boolean compress,
+            boolean resetContext, int compressionLevel, int compressionStrategy) throws IOException
     {
         this.document = document;
         
@@ -153,6 +175,7 @@ public final class PDPageContentStream implements Closeable
                 List<COSName> filters = new ArrayList<COSName>();
                 filters.add(COSName.FLATE_DECODE);
                 contentsToAppend.setFilters(filters);
+                contentsToAppend.getStream().setCompression(compressionLevel, compressionStrategy);
             }
 
             if (resetContext)
@@ -168,6 +191,7 @@ public final class PDPageContentStream implements Closeable
                     List<COSName> filters = new ArrayList<COSName>();
                     filters.add(COSName.FLATE_DECODE);
                     saveGraphics.setFilters(filters);
+                    saveGraphics.getStream().setCompression(compressionLevel, compressionStrategy);
                 }
                 // insert the new stream at the beginning
                 compoundStream.insertCOSStream(saveGraphics);
@@ -194,6 +218,7 @@ public final class PDPageContentStream implements Closeable
                 List<COSName> filters = new ArrayList<COSName>();
                 filters.add(COSName.FLATE_DECODE);
                 contents.setFilters(filters);
+                contents.getStream().setCompression(compressionLevel, compressionStrategy);
             }
             sourcePage.setContents(contents);
             output = contents.createOutputStream();
@@ -38,12 +38,14 @@ import java.util.List;
 public class PDPageTree implements COSObjectable, Iterable<PDPage>
 {
     private final COSDictionary root;
+    private final PDDocument document;
 
     /**
      * Constructor for embedding.
      */
     public PDPageTree()
     {
+        document = null;
         root = new COSDictionary();
         root.setItem(COSName.TYPE, COSName.PAGES);
         root.setItem(COSName.KIDS, new COSArray());
@@ -56,12 +58,25 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
      * @param root A page tree root.
      */
     public PDPageTree(COSDictionary root)
+    {
+        this(root, null);
+    }
+
+    /**
+     * Constructor for reading.
+     *
+     * @param root A page tree root.
+     * @param document The document which contains "root", its resource cache is used by the
+     * pages, may be null.
+     */
+    public PDPageTree(COSDictionary root, PDDocument document)
     {
         if (root == null)
         {
             throw new IllegalArgumentException("root cannot be null");
         }
         this.root = root;
+        this.document = document;
     }
 
     /**
@@ -88,6 +103,14 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
         return null;
     }
 
+    /**
+     * Returns the resource cache of the pages, or null.
+     */
+    private ResourceCache getResourceCache()
+    {
+        return document != null ? document.getResourceCache() : null;
+    }
+
     /**
      * Returns an iterator which walks all pages in the tree, in order.
      */
@@ -166,7 +189,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
                 throw new IllegalStateException("Expected Page but got " + next);
             }
 
-            return new PDPage(next);
+            return new PDPage(next, getResourceCache());
         }
 
         @Override
@@ -191,7 +214,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
             throw new IllegalStateException("Expected Page but got " + dict);
         }
 
-        return new PDPage(dict);
+        return new PDPage(dict, getResourceCache());
     }
 
     /**
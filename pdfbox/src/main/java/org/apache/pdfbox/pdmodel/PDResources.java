@@ -45,6 +45,7 @@ import org.apache.pdfbox.pdmodel.graphics.PDXObject;
 public final class PDResources implements COSObjectable
 {
     private final COSDictionary resources;
+    private final ResourceCache cache;
 
     /**
      * Constructor for embedding.
@@ -52,6 +53,7 @@ public final class PDResources implements COSObjectable
     public PDResources()
     {
         resources = new COSDictionary();
+        cache = null;
     }
 
     /**
@@ -63,12 +65,24 @@ public final class PDResources implements COSObjectable
     //       also it should probably take a COSBase so that it is indirect-object aware.
     //       It might also want to have some context, e.g. knowing what the parent of the resources is?
     public PDResources(COSDictionary resourceDictionary)
+    {
+        this(resourceDictionary, null);
+    }
+
+    /**
+     * Constructor for reading.
+     *
+     * @param resourceDictionary The cos dictionary for this resource.
+     * @param resourceCache The document's resource cache, may be null.
+     */
+    public PDResources(COSDictionary resourceDictionary, ResourceCache resourceCache)
     {
         if (resourceDictionary == null)
         {
             throw new IllegalArgumentException("resourceDictionary is null");
         }
         resources = resourceDictionary;
+        cache = resourceCache;
     }
 
     /**
@@ -85,12 +99,28 @@ public final class PDResources implements COSObjectable
      */
     public PDFont getFont(COSName name) throws IOException
     {
+        COSObject indirect = getIndirect(COSName.FONT, name);
+        if (cache != null && indirect != null)
+        {
+            PDFont cached = cache.getFont(indirect);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+
         COSDictionary dict = (COSDictionary)get(COSName.FONT, name);
         if (dict == null)
         {
             return null;
         }
-        return PDFontFactory.createFont(dict);
+        PDFont font = PDFontFactory.createFont(dict, cache);
+
+        if (cache != null && indirect != null)
+        {
+            cache.put(indirect, font);
+        }
+        return font;
     }
 
     /**
@@ -98,16 +128,29 @@ public final class PDResources implements COSObjectable
      */
     public PDColorSpace getColorSpace(COSName name) throws IOException
     {
+        COSObject indirect = getIndirect(COSName.COLORSPACE, name);
+        if (cache != null && indirect != null)
+        {
+            PDColorSpace cached = cache.getColorSpace(indirect);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+
         // get the instance
         COSBase object = get(COSName.COLORSPACE, name);
-        if (object != null)
+        if (object == null)
         {
-            return PDColorSpace.create(object, this);
+            return PDColorSpace.create(name, this);
         }
-        else
+        PDColorSpace colorSpace = PDColorSpace.create(object, this);
+
+        if (cache != null && indirect != null)
         {
-            return PDColorSpace.create(name, this);
+            cache.put(indirect, colorSpace);
         }
+        return colorSpace;
     }
 
     /**
@@ -124,12 +167,28 @@ public final class PDResources implements COSObjectable
      */
     public PDExtendedGraphicsState getExtGState(COSName name) throws IOException
     {
+        COSObject indirect = getIndirect(COSName.EXT_G_STATE, name);
+        if (cache != null && indirect != null)
+        {
+            PDExtendedGraphicsState cached = cache.getExtGState(indirect);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+
         COSDictionary dict = (COSDictionary)get(COSName.EXT_G_STATE, name);
         if (dict == null)
         {
             return null;
         }
-        return new PDExtendedGraphicsState(dict);
+        PDExtendedGraphicsState extGState = new PDExtendedGraphicsState(dict);
+
+        if (cache != null && indirect != null)
+        {
+            cache.put(indirect, extGState);
+        }
+        return extGState;
     }
 
     /**
@@ -137,12 +196,28 @@ public final class PDResources implements COSObjectable
      */
     public PDShading getShading(COSName name) throws IOException
     {
+        COSObject indirect = getIndirect(COSName.SHADING, name);
+        if (cache != null && indirect != null)
+        {
+            PDShading cached = cache.getShading(indirect);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+
         COSDictionary dict = (COSDictionary)get(COSName.SHADING, name);
         if (dict == null)
         {
             return null;
         }
-        return PDShading.create(dict);
+        PDShading shading = PDShading.create(dict);
+
+        if (cache != null && indirect != null)
+        {
+            cache.put(indirect, shading);
+        }
+        return shading;
     }
 
     /**
@@ -150,12 +225,28 @@ public final class PDResources implements COSObjectable
      */
     public PDAbstractPattern getPattern(COSName name) throws IOException
     {
+        COSObject indirect = getIndirect(COSName.PATTERN, name);
+        if (cache != null && indirect != null)
+        {
+            PDAbstractPattern cached = cache.getPattern(indirect);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+
         COSDictionary dict = (COSDictionary)get(COSName.PATTERN, name);
         if (dict == null)
         {
             return null;
         }
-        return PDAbstractPattern.create(dict);
+        PDAbstractPattern pattern = PDAbstractPattern.create(dict, cache);
+
+        if (cache != null && indirect != null)
+        {
+            cache.put(indirect, pattern);
+        }
+        return pattern;
     }
 
     /**
@@ -163,12 +254,28 @@ public final class PDResources implements COSObjectable
      */
     public PDPropertyList getProperties(COSName name) throws IOException
     {
+        COSObject indirect = getIndirect(COSName.PROPERTIES, name);
+        if (cache != null && indirect != null)
+        {
+            PDPropertyList cached = cache.getProperties(indirect);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+
         COSDictionary dict = (COSDictionary)get(COSName.PROPERTIES, name);
         if (dict == null)
         {
             return null;
         }
-        return PDPropertyList.create(dict);
+        PDPropertyList propertyList = PDPropertyList.create(dict);
+
+        if (cache != null && indirect != null)
+        {
+            cache.put(indirect, propertyList);
+        }
+        return propertyList;
     }
 
     /**
@@ -176,18 +283,32 @@ public final class PDResources implements COSObjectable
      */
     public PDXObject getXObject(COSName name) throws IOException
     {
+        COSObject indirect = getIndirect(COSName.XOBJECT, name);
+        if (cache != null && indirect != null)
+        {
+            PDXObject cached = cache.getXObject(indirect);
+            if (cached != null)
+            {
+                return cached;
+            }
+        }
+
         COSBase value = get(COSName.XOBJECT, name);
         if (value == null)
         {
             return null;
         }
-        else if (value instanceof COSObject)
+        else if (indirect != null)
         {
-            COSObject object = (COSObject)value;
             // add the object number to create an unique identifier
             String id = name.getName();
-            id += "#" + object.getObjectNumber().intValue();
-            return PDXObject.createXObject(object.getObject(), id, this);
+            id += "#" + indirect.getObjectNumber().intValue();
+            PDXObject xobject = PDXObject.createXObject(indirect.getObject(), id, this);
+            if (cache != null)
+            {
+                cache.put(indirect, xobject);
+            }
+            return xobject;
         }
         else
         {
@@ -195,6 +316,25 @@ public final class PDResources implements COSObjectable
         }
     }
 
+    /**
+     * Returns the indirect object of the resource with the given name and kind, or null if the
+     * resource doesn't exist or is a direct object.
+     */
+    private COSObject getIndirect(COSName kind, COSName name)
+    {
+        COSDictionary dict = (COSDictionary)resources.getDictionaryObject(kind);
+        if (dict == null)
+        {
+            return null;
+        }
+        COSBase base = dict.getItem(name);
+        if (base instanceof COSObject)
+        {
+            return (COSObject) base;
+        }
+        return null;
+    }
+
     /**
      * Returns the resource with the given name and kind, or null.
      */
@@ -208,6 +348,15 @@ public final class PDResources implements COSObjectable
         return dict.getDictionaryObject(name);
     }
 
+    /**
+     * Returns the resource cache of the document these resources belong to, or null if there is
+     * none.
+     */
+    public ResourceCache getResourceCache()
+    {
+        return cache;
+    }
+
     /**
      * Returns the names of the color space resources, if any.
      */
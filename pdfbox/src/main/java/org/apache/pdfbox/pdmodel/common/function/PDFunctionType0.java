@@ -104,7 +104,7 @@ public class PDFunctionType0 extends PDFunction
      * 
      * @return an array with all samples.
      */
-    public int[][] getSamples()
+    public synchronized int[][] getSamples()
     {
         if (samples == null)
         {
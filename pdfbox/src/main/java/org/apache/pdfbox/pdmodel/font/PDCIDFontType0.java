@@ -19,9 +19,9 @@ package org.apache.pdfbox.pdmodel.font;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.fontbox.cff.CFFCIDFont;
@@ -49,7 +49,7 @@ public class PDCIDFontType0 extends PDCIDFont
     private final CFFCIDFont cidFont;  // Top DICT that uses CIDFont operators
     private final CFFType1Font t1Font; // Top DICT that does not use CIDFont operators
     
-    private final Map<Integer, Float> glyphHeights = new HashMap<Integer, Float>();
+    private final Map<Integer, Float> glyphHeights = new ConcurrentHashMap<Integer, Float>();
     private final boolean isEmbedded;
     private final boolean isDamaged;
 
@@ -301,8 +301,8 @@ public class PDCIDFontType0 extends PDCIDFont
     {
         int cid = codeToCID(code);
 
-        float height = 0;
-        if (!glyphHeights.containsKey(cid))
+        Float height = glyphHeights.get(cid);
+        if (height == null)
         {
             height =  (float) getType2CharString(cid).getBounds().getHeight();
             glyphHeights.put(cid, height);
@@ -464,6 +464,9 @@ public abstract class PDFont implements COSObjectable, PDFontLike
     {
         if (fontWidthOfSpace == -1f)
         {
+            // the width is determined completely before it is set, as fonts may be shared by
+            // several threads
+            float spaceWidth = -1f;
             COSBase toUnicode = dict.getDictionaryObject(COSName.TO_UNICODE);
             try
             {
@@ -472,24 +475,25 @@ public abstract class PDFont implements COSObjectable, PDFontLike
                     int spaceMapping = toUnicodeCMap.getSpaceMapping();
                     if (spaceMapping > -1)
                     {
-                        fontWidthOfSpace = getWidth(spaceMapping);
+                        spaceWidth = getWidth(spaceMapping);
                     }
                 }
                 else
                 {
-                    fontWidthOfSpace = getWidth(32);
+                    spaceWidth = getWidth(32);
                 }
                 // use the average font width as fall back
-                if (fontWidthOfSpace <= 0)
+                if (spaceWidth <= 0)
                 {
-                    fontWidthOfSpace = getAverageFontWidth();
+                    spaceWidth = getAverageFontWidth();
                 }
             }
             catch (Exception e)
             {
                 LOG.error("Can't determine the width of the space character, assuming 250", e);
-                fontWidthOfSpace = 250f;
+                spaceWidth = 250f;
             }
+            fontWidthOfSpace = spaceWidth;
         }
         return fontWidthOfSpace;
     }
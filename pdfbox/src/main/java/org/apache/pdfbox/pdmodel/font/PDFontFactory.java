@@ -21,6 +21,7 @@ import java.io.IOException;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -44,6 +45,20 @@ public final class PDFontFactory
      * @throws IOException if something goes wrong
      */
     public static PDFont createFont(COSDictionary dictionary) throws IOException
+    {
+        return createFont(dictionary, null);
+    }
+
+    /**
+     * Creates a new PDFont instance with the appropriate subclass.
+     *
+     * @param dictionary a font dictionary
+     * @param resourceCache the resource cache of the document, used by Type 3 glyphs, may be null
+     * @return a PDFont instance, based on the SubType entry of the dictionary
+     * @throws IOException if something goes wrong
+     */
+    public static PDFont createFont(COSDictionary dictionary, ResourceCache resourceCache)
+            throws IOException
     {
         COSName type = dictionary.getCOSName(COSName.TYPE, COSName.FONT);
         if (!COSName.FONT.equals(type))
@@ -76,7 +91,7 @@ public final class PDFontFactory
         }
         else if (COSName.TYPE3.equals(subType))
         {
-            return new PDType3Font(dictionary);
+            return new PDType3Font(dictionary, resourceCache);
         }
         else if (COSName.TYPE0.equals(subType))
         {
@@ -29,8 +29,9 @@ import org.apache.pdfbox.pdmodel.font.encoding.StandardEncoding;
 import org.apache.pdfbox.pdmodel.font.encoding.WinAnsiEncoding;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A simple font. Simple fonts use a PostScript encoding vector.
@@ -44,7 +45,8 @@ public abstract class PDSimpleFont extends PDFont
     protected Encoding encoding;
     protected GlyphList glyphList;
     private Boolean isSymbolic;
-    private final Set<Integer> noUnicode = new HashSet<Integer>(); // for logging
+    private final Set<Integer> noUnicode = // for logging
+            Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
 
     /**
      * Constructor for embedding.
@@ -372,7 +372,7 @@ public class PDTrueTypeFont extends PDSimpleFont
     /**
      * extract all useful "cmap" subtables.
      */
-    private void extractCmapTable() throws IOException
+    private synchronized void extractCmapTable() throws IOException
     {
         if (cmapInitialized)
         {
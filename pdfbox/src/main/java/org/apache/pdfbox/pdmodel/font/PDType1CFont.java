@@ -22,9 +22,9 @@ import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -50,7 +50,7 @@ public class PDType1CFont extends PDSimpleFont implements PDType1Equivalent
 {
     private static final Log LOG = LogFactory.getLog(PDType1CFont.class);
 
-    private final Map<String, Float> glyphHeights = new HashMap<String, Float>();
+    private final Map<String, Float> glyphHeights = new ConcurrentHashMap<String, Float>();
     private Float avgWidth = null;
     private Matrix fontMatrix;
     private final AffineTransform fontMatrixTransform;
@@ -240,8 +240,8 @@ public class PDType1CFont extends PDSimpleFont implements PDType1Equivalent
     public float getHeight(int code) throws IOException
     {
         String name = codeToName(code);
-        float height = 0;
-        if (!glyphHeights.containsKey(name))
+        Float height = glyphHeights.get(name);
+        if (height == null)
         {
             height = (float)cffFont.getType1CharString(name).getBounds().getHeight(); // todo: cffFont could be null
             glyphHeights.put(name, height);
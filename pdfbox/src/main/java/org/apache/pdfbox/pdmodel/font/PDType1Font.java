@@ -318,17 +318,19 @@ public class PDType1Font extends PDSimpleFont implements PDType1Equivalent
             return invertedEncoding;
         }
 
-        invertedEncoding = new HashMap<String, Integer>();
+        // fill a local map first, the font may be shared by several threads
+        Map<String, Integer> inverted = new HashMap<String, Integer>();
         //Map<Integer, String> codeToName = MacOSRomanEncoding.INSTANCE.getCodeToNameMap();
         Map<Integer, String> codeToName = encoding.getCodeToNameMap();
         for (Map.Entry<Integer, String> entry : codeToName.entrySet())
         {
-            if (!invertedEncoding.containsKey(entry.getValue()))
+            if (!inverted.containsKey(entry.getValue()))
             {
-                invertedEncoding.put(entry.getValue(), entry.getKey());
+                inverted.put(entry.getValue(), entry.getKey());
             }
         }
-        return invertedEncoding;
+        invertedEncoding = inverted;
+        return inverted;
     }
 
     @Override
@@ -28,6 +28,7 @@ import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.font.encoding.Encoding;
 import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.util.Matrix;
 import org.apache.pdfbox.util.Vector;
@@ -44,6 +45,7 @@ public class PDType3Font extends PDSimpleFont
     private PDResources resources;
     private COSDictionary charProcs;
     private Matrix fontMatrix;
+    private final ResourceCache resourceCache;
 
     /**
      * Constructor.
@@ -51,8 +53,21 @@ public class PDType3Font extends PDSimpleFont
      * @param fontDictionary The font dictionary according to the PDF specification.
      */
     public PDType3Font(COSDictionary fontDictionary) throws IOException
+    {
+        this(fontDictionary, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param fontDictionary The font dictionary according to the PDF specification.
+     * @param resourceCache The resource cache of the document, may be null.
+     */
+    public PDType3Font(COSDictionary fontDictionary, ResourceCache resourceCache)
+            throws IOException
     {
         super(fontDictionary);
+        this.resourceCache = resourceCache;
         readEncoding();
     }
 
@@ -203,7 +218,7 @@ public class PDType3Font extends PDSimpleFont
             COSDictionary resources = (COSDictionary) dict.getDictionaryObject(COSName.RESOURCES);
             if (resources != null)
             {
-                this.resources = new PDResources(resources);
+                this.resources = new PDResources(resources, resourceCache);
             }
         }
         return resources;
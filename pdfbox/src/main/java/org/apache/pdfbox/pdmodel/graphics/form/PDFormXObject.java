@@ -26,6 +26,7 @@ import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.pdmodel.graphics.PDXObject;
@@ -57,13 +58,15 @@ public class PDFormXObject extends PDXObject implements PDContentStream
 
     private PDGroup group;
 
+    private final ResourceCache resourceCache;
+
     /**
      * Creates a Form XObject for reading.
      * @param stream The XObject stream
      */
     public PDFormXObject(PDStream stream)
     {
-        super(stream, COSName.FORM);
+        this(stream, null, null);
     }
 
     /**
@@ -72,9 +75,21 @@ public class PDFormXObject extends PDXObject implements PDContentStream
      * @param name The name of the form XObject, to prevent recursion.
      */
     public PDFormXObject(PDStream stream, String name)
+    {
+        this(stream, name, null);
+    }
+
+    /**
+     * Creates a Form XObject for reading.
+     * @param stream The XObject stream
+     * @param name The name of the form XObject, to prevent recursion.
+     * @param resourceCache The resource cache of the document, may be null.
+     */
+    public PDFormXObject(PDStream stream, String name, ResourceCache resourceCache)
     {
         super(stream, COSName.FORM);
         this.name = name;
+        this.resourceCache = resourceCache;
     }
 
     /**
@@ -84,6 +99,7 @@ public class PDFormXObject extends PDXObject implements PDContentStream
     public PDFormXObject(PDDocument document)
     {
         super(document, COSName.FORM);
+        resourceCache = null;
     }
 
     /**
@@ -139,7 +155,7 @@ public class PDFormXObject extends PDXObject implements PDContentStream
         COSDictionary resources = (COSDictionary) getCOSStream().getDictionaryObject(COSName.RESOURCES);
         if (resources != null)
         {
-            return new PDResources(resources);
+            return new PDResources(resources, resourceCache);
         }
         return null;
     }
@@ -52,6 +52,7 @@ public final class PDImageXObject extends PDXObject implements PDImage
      */
     private static final Log LOG = LogFactory.getLog(PDImageXObject.class);
 
+    // guarded by this, the XObject may be shared by several threads through the resource cache
     private BufferedImage cachedImage;
     private PDColorSpace colorSpace;
     private PDResources resources; // current resource dictionary (has color spaces)
@@ -173,10 +174,11 @@ public final class PDImageXObject extends PDXObject implements PDImage
 
     /**
      * {@inheritDoc}
-     * The returned images are cached for the lifetime of this XObject.
+     * The returned images are cached for the lifetime of this XObject. Threads requesting the
+     * image while it is decoded wait for it.
      */
     @Override
-    public BufferedImage getImage() throws IOException
+    public synchronized BufferedImage getImage() throws IOException
     {
         if (cachedImage != null)
         {
@@ -362,7 +364,7 @@ public final class PDImageXObject extends PDXObject implements PDImage
     }
 
     @Override
-    public PDColorSpace getColorSpace() throws IOException
+    public synchronized PDColorSpace getColorSpace() throws IOException
     {
         if (colorSpace == null)
         {
@@ -24,6 +24,7 @@ import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSFloat;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.pdmodel.common.COSObjectable;
 import org.apache.pdfbox.util.Matrix;
 
@@ -45,13 +46,26 @@ public abstract class PDAbstractPattern implements COSObjectable
      * @throws IOException If we are unable to create the PDPattern object.
      */
     public static PDAbstractPattern create(COSDictionary resourceDictionary) throws IOException
+    {
+        return create(resourceDictionary, null);
+    }
+
+    /**
+     * Create the correct PD Model pattern based on the COS base pattern.
+     * @param resourceDictionary the COS pattern dictionary
+     * @param resourceCache the resource cache of the document, may be null
+     * @return the newly created pattern resources object
+     * @throws IOException If we are unable to create the PDPattern object.
+     */
+    public static PDAbstractPattern create(COSDictionary resourceDictionary,
+            ResourceCache resourceCache) throws IOException
     {
         PDAbstractPattern pattern;
         int patternType = resourceDictionary.getInt(COSName.PATTERN_TYPE, 0);
         switch (patternType)
         {
             case TYPE_TILING_PATTERN:
-                pattern = new PDTilingPattern(resourceDictionary);
+                pattern = new PDTilingPattern(resourceDictionary, resourceCache);
                 break;
             case TYPE_SHADING_PATTERN:
                 pattern = new PDShadingPattern(resourceDictionary);
@@ -60,7 +60,7 @@ public class PDShadingPattern extends PDAbstractPattern
      * This will get the external graphics state for this pattern.
      * @return The extended graphics state for this pattern.
      */
-    public PDExtendedGraphicsState getExtendedGraphicsState()
+    public synchronized PDExtendedGraphicsState getExtendedGraphicsState()
     {
         if (extendedGraphicsState == null)
         {
@@ -79,7 +79,8 @@ public class PDShadingPattern extends PDAbstractPattern
      * This will set the external graphics state for this pattern.
      * @param extendedGraphicsState The new extended graphics state for this pattern.
      */
-    public void setExtendedGraphicsState(PDExtendedGraphicsState extendedGraphicsState)
+    public synchronized void setExtendedGraphicsState(
+            PDExtendedGraphicsState extendedGraphicsState)
     {
         this.extendedGraphicsState = extendedGraphicsState;
         if (extendedGraphicsState != null)
@@ -97,7 +98,7 @@ public class PDShadingPattern extends PDAbstractPattern
      * @return The shading resources for this pattern.
      * @throws IOException if something went wrong
      */
-    public PDShading getShading() throws IOException
+    public synchronized PDShading getShading() throws IOException
     {
         if (shading == null) 
         {
@@ -116,7 +117,7 @@ public class PDShadingPattern extends PDAbstractPattern
      * This will set the shading resources for this pattern.
      * @param shadingResources The new shading resources for this pattern.
      */
-    public void setShading( PDShading shadingResources )
+    public synchronized void setShading( PDShading shadingResources )
     {
         shading = shadingResources;
         if (shadingResources != null)
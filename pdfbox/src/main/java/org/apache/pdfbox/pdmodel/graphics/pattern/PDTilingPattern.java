@@ -22,6 +22,7 @@ import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.ResourceCache;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 
 /**
@@ -45,12 +46,15 @@ public class PDTilingPattern extends PDAbstractPattern implements PDContentStrea
     /** tiling type 3 = constant spacing and faster tiling. */
     public static final int TILING_CONSTANT_SPACING_FASTER_TILING = 3;
 
+    private final ResourceCache resourceCache;
+
     /**
      * Creates a new tiling pattern.
      */
     public PDTilingPattern()
     {
         super();
+        resourceCache = null;
         getCOSDictionary().setInt(COSName.PATTERN_TYPE, PDAbstractPattern.TYPE_TILING_PATTERN);
     }
 
@@ -59,8 +63,19 @@ public class PDTilingPattern extends PDAbstractPattern implements PDContentStrea
      * @param resourceDictionary The COSDictionary for this pattern resource.
      */
     public PDTilingPattern(COSDictionary resourceDictionary)
+    {
+        this(resourceDictionary, null);
+    }
+
+    /**
+     * Creates a new tiling pattern from the given COS dictionary.
+     * @param resourceDictionary The COSDictionary for this pattern resource.
+     * @param resourceCache The resource cache of the document, may be null.
+     */
+    public PDTilingPattern(COSDictionary resourceDictionary, ResourceCache resourceCache)
     {
         super(resourceDictionary);
+        this.resourceCache = resourceCache;
     }
 
     @Override
@@ -185,7 +200,7 @@ public class PDTilingPattern extends PDAbstractPattern implements PDContentStrea
                 .getDictionaryObject( COSName.RESOURCES );
         if( resources != null )
         {
-            retval = new PDResources( resources );
+            retval = new PDResources( resources, resourceCache );
         }
         return retval;
     }
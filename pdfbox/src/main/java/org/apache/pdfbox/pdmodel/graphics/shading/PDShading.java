@@ -231,7 +231,7 @@ public abstract class PDShading implements COSObjectable
      * @return the color space for the shading
      * @throws IOException if there is an error getting the color space
      */
-    public PDColorSpace getColorSpace() throws IOException
+    public synchronized PDColorSpace getColorSpace() throws IOException
     {
         if (colorSpace == null)
         {
@@ -246,7 +246,7 @@ public abstract class PDShading implements COSObjectable
      *
      * @param colorSpace the color space
      */
-    public void setColorSpace(PDColorSpace colorSpace)
+    public synchronized void setColorSpace(PDColorSpace colorSpace)
     {
         this.colorSpace = colorSpace;
         if (colorSpace != null)
@@ -304,7 +304,7 @@ public abstract class PDShading implements COSObjectable
      *
      * @param newFunction the new function
      */
-    public void setFunction(PDFunction newFunction)
+    public synchronized void setFunction(PDFunction newFunction)
     {
         functionArray = null;
         function = newFunction;
@@ -323,7 +323,7 @@ public abstract class PDShading implements COSObjectable
      *
      * @param newFunctions the new COSArray containing all functions
      */
-    public void setFunction(COSArray newFunctions)
+    public synchronized void setFunction(COSArray newFunctions)
     {
         functionArray = null;
         function = null;
@@ -343,7 +343,7 @@ public abstract class PDShading implements COSObjectable
      * @return the function
      * @exception IOException if we are unable to create the PDFunction object
      */
-    public PDFunction getFunction() throws IOException
+    public synchronized PDFunction getFunction() throws IOException
     {
         if (function == null)
         {
@@ -362,7 +362,7 @@ public abstract class PDShading implements COSObjectable
      * @return an array containing the function(s)
      * @throws IOException if something went wrong
      */
-    private PDFunction[] getFunctionsArray() throws IOException
+    private synchronized PDFunction[] getFunctionsArray() throws IOException
     {
         if (functionArray == null)
         {
@@ -18,8 +18,11 @@ package org.apache.pdfbox.pdmodel.graphics.state;
 
 import java.awt.BasicStroke;
 import java.awt.Composite;
+import java.awt.Shape;
 import java.awt.geom.Area;
 import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
 
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.graphics.PDLineDashPattern;
@@ -39,6 +42,8 @@ public class PDGraphicsState implements Cloneable
 {
     private boolean isClippingPathDirty;
     private Area clippingPath;
+    // the clipping path as long as it is an axis-aligned rectangle, the area is created on demand
+    private Rectangle2D clippingRectangle;
     private Matrix currentTransformationMatrix = new Matrix();
     private PDColor strokingColor = PDDeviceGray.INSTANCE.getInitialColor();
     private PDColor nonStrokingColor = PDDeviceGray.INSTANCE.getInitialColor();
@@ -74,7 +79,11 @@ public class PDGraphicsState implements Cloneable
      */
     public PDGraphicsState(PDRectangle page)
     {
-        clippingPath = new Area(page.toGeneralPath());
+        clippingRectangle = getRectangle(page.toGeneralPath());
+        if (clippingRectangle == null)
+        {
+            clippingPath = new Area(page.toGeneralPath());
+        }
     }
 
     /**
@@ -550,7 +559,15 @@ public class PDGraphicsState implements Cloneable
      */
     public void intersectClippingPath(GeneralPath path)
     {
-        intersectClippingPath(new Area(path));
+        Rectangle2D rectangle = clippingRectangle != null ? getRectangle(path) : null;
+        if (rectangle != null)
+        {
+            intersectClippingRectangle(rectangle);
+        }
+        else
+        {
+            intersectClippingPath(new Area(path));
+        }
     }
 
     /**
@@ -559,6 +576,19 @@ public class PDGraphicsState implements Cloneable
      */
     public void intersectClippingPath(Area area)
     {
+        if (clippingRectangle != null)
+        {
+            if (area.isRectangular())
+            {
+                intersectClippingRectangle(area.getBounds2D());
+                return;
+            }
+            // the clipping path isn't a rectangle anymore
+            clippingPath = new Area(clippingRectangle);
+            clippingRectangle = null;
+            isClippingPathDirty = true;
+        }
+
         // lazy cloning of clipping path for performance
         if (!isClippingPathDirty)
         {
@@ -574,6 +604,75 @@ public class PDGraphicsState implements Cloneable
         clippingPath.intersect(area);
     }
 
+    // intersects the rectangular clipping path with the given rectangle, without using an Area
+    private void intersectClippingRectangle(Rectangle2D rectangle)
+    {
+        Rectangle2D intersection = new Rectangle2D.Double();
+        Rectangle2D.intersect(clippingRectangle, rectangle, intersection);
+        if (intersection.isEmpty())
+        {
+            intersection.setRect(intersection.getX(), intersection.getY(), 0, 0);
+        }
+        clippingRectangle = intersection;
+        clippingPath = null;
+        isClippingPathDirty = false;
+    }
+
+    // returns the given path as a rectangle if it is an axis-aligned rectangle, null otherwise
+    private static Rectangle2D getRectangle(GeneralPath path)
+    {
+        double[] x = new double[4];
+        double[] y = new double[4];
+        double[] coords = new double[6];
+        int count = 0;
+        PathIterator iterator = path.getPathIterator(null);
+        for (; !iterator.isDone(); iterator.next())
+        {
+            int type = iterator.currentSegment(coords);
+            if (type == PathIterator.SEG_CLOSE)
+            {
+                iterator.next();
+                break;
+            }
+            if (type != (count == 0 ? PathIterator.SEG_MOVETO : PathIterator.SEG_LINETO))
+            {
+                return null;
+            }
+            if (count == 4)
+            {
+                // only a line back to the start point may follow the four corners
+                if (coords[0] != x[0] || coords[1] != y[0])
+                {
+                    return null;
+                }
+                count++;
+            }
+            else if (count < 4)
+            {
+                x[count] = coords[0];
+                y[count] = coords[1];
+                count++;
+            }
+            else
+            {
+                return null;
+            }
+        }
+        if (!iterator.isDone() || count < 4)
+        {
+            return null;
+        }
+        boolean horizontalFirst = y[0] == y[1] && x[1] == x[2] && y[2] == y[3] && x[3] == x[0];
+        boolean verticalFirst = x[0] == x[1] && y[1] == y[2] && x[2] == x[3] && y[3] == y[0];
+        if (!horizontalFirst && !verticalFirst)
+        {
+            return null;
+        }
+        Rectangle2D rectangle = new Rectangle2D.Double();
+        rectangle.setFrameFromDiagonal(x[0], y[0], x[2], y[2]);
+        return rectangle;
+    }
+
     /**
      * This will get the current clipping path. Do not modify this Area object!
      *
@@ -581,6 +680,28 @@ public class PDGraphicsState implements Cloneable
      */
     public Area getCurrentClippingPath()
     {
+        if (clippingPath == null)
+        {
+            // created on demand, a rectangular clipping path is never modified
+            clippingPath = new Area(clippingRectangle);
+            isClippingPathDirty = false;
+        }
+        return clippingPath;
+    }
+
+    /**
+     * This will get the current clipping path, which is a {@link Rectangle2D} as long as it is an
+     * axis-aligned rectangle and an {@link Area} otherwise. Using the rectangle is much faster
+     * than using an Area. Do not modify this object!
+     *
+     * @return The current clipping path.
+     */
+    public Shape getCurrentClippingShape()
+    {
+        if (clippingRectangle != null)
+        {
+            return clippingRectangle;
+        }
         return clippingPath;
     }
 
@@ -18,8 +18,6 @@ package org.apache.pdfbox.rendering;
 
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,7 +33,7 @@ final class CIDType0Glyph2D implements Glyph2D
 {
     private static final Log LOG = LogFactory.getLog(CIDType0Glyph2D.class);
 
-    private final Map<Integer, GeneralPath> cache = new HashMap<Integer, GeneralPath>();
+    private final GlyphCache cache;
     private final PDCIDFontType0 font;
     private final String fontName;
 
@@ -43,10 +41,12 @@ final class CIDType0Glyph2D implements Glyph2D
      * Constructor.
      *
      * @param font Type 0 CIDFont
+     * @param cache the cache of glyph outlines
      */
-    public CIDType0Glyph2D(PDCIDFontType0 font) // todo: what about PDCIDFontType2?
+    public CIDType0Glyph2D(PDCIDFontType0 font, GlyphCache cache) // todo: what about PDCIDFontType2?
     {
         this.font = font;
+        this.cache = cache;
         fontName = font.getBaseFont();
     }
 
@@ -54,9 +54,10 @@ final class CIDType0Glyph2D implements Glyph2D
     public GeneralPath getPathForCharacterCode(int code)
     {
         int cid = font.getParent().codeToCID(code);
-        if (cache.containsKey(code))
+        GeneralPath cached = cache.get(font.getCOSObject(), cid);
+        if (cached != null)
         {
-            return cache.get(code);
+            return cached;
         }
 
         try
@@ -70,7 +71,7 @@ final class CIDType0Glyph2D implements Glyph2D
             }
 
             GeneralPath path = charString.getPath();
-            cache.put(code, path);
+            cache.put(font.getCOSObject(), cid, path);
             return path;
         }
         catch (IOException e)
@@ -83,6 +84,6 @@ final class CIDType0Glyph2D implements Glyph2D
     @Override
     public void dispose()
     {
-        cache.clear();
+        // the outlines are kept by the shared cache
     }
 }
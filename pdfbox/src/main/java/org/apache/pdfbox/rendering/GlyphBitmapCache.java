@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsDevice;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of rasterised glyphs for small text, which is shared by all pages rendered by
+ * a {@link PDFRenderer}. Instead of filling the outline of a glyph for every occurrence, the
+ * glyph is rasterised once per font, character code, device scale, sub-pixel offset, color and
+ * the rendering hints which affect filling, and the bitmap is drawn at integer device positions
+ * afterwards.
+ *
+ * Glyphs are only drawn from the cache if the device transform has neither rotation nor shear
+ * and the text isn't larger than {@link #MAX_EM_SIZE} pixels. The positions are rounded to the
+ * nearest quarter pixel, thus the output differs slightly from filling the outlines.
+ */
+final class GlyphBitmapCache
+{
+    /**
+     * The default maximum number of bytes of all bitmaps.
+     */
+    static final int DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * The maximum size of the em square in device pixels of the cached glyphs.
+     */
+    static final int MAX_EM_SIZE = 64;
+
+    // glyph space units per em of the outlines provided by the Glyph2D classes
+    private static final int UNITS_PER_EM = 1000;
+
+    // steps per pixel of the quantised em size and of the sub-pixel offset
+    private static final int SCALE_STEPS = 16;
+    private static final int SUBPIXEL_STEPS = 4;
+
+    // the rendering hints which change the pixels of a filled outline
+    private static final RenderingHints.Key[] HINTS = {
+        RenderingHints.KEY_ANTIALIASING,
+        RenderingHints.KEY_RENDERING,
+        RenderingHints.KEY_STROKE_CONTROL
+    };
+
+    // the cache is split into segments with a lock each, to lower contention between threads
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * Constructor.
+     *
+     * @param maxBytes the maximum number of bytes of all bitmaps
+     */
+    GlyphBitmapCache(int maxBytes)
+    {
+        for (int i = 0; i < SEGMENTS; i++)
+        {
+            segments[i] = new Segment(Math.max(1, maxBytes / SEGMENTS));
+        }
+    }
+
+    /**
+     * Draws a glyph filled with a solid color from its cached bitmap, rasterising the glyph first
+     * if it isn't in the cache yet.
+     *
+     * @param graphics the graphics of an image, with the clip and composite already set
+     * @param path the outline of the glyph in glyph space
+     * @param font the font dictionary, compared by identity
+     * @param code the character code
+     * @param at the transformation from glyph space to user space
+     * @param color the fill color
+     * @return true if the glyph has been drawn, false if the caller has to fill the outline
+     */
+    boolean drawGlyph(Graphics2D graphics, GeneralPath path, Object font, int code,
+            AffineTransform at, Color color)
+    {
+        if (graphics.getDeviceConfiguration().getDevice().getType()
+                != GraphicsDevice.TYPE_IMAGE_BUFFER)
+        {
+            // device space isn't made of pixels
+            return false;
+        }
+        AffineTransform device = graphics.getTransform();
+        device.concatenate(at);
+        if (device.getShearX() != 0 || device.getShearY() != 0)
+        {
+            return false;
+        }
+        double emWidth = device.getScaleX() * UNITS_PER_EM;
+        double emHeight = device.getScaleY() * UNITS_PER_EM;
+        if (Math.abs(emWidth) > MAX_EM_SIZE || Math.abs(emHeight) > MAX_EM_SIZE)
+        {
+            return false;
+        }
+
+        // round the position to the nearest sub-pixel step, which may be in the next pixel
+        long stepX = Math.round(device.getTranslateX() * SUBPIXEL_STEPS);
+        long stepY = Math.round(device.getTranslateY() * SUBPIXEL_STEPS);
+        int pixelX = (int) Math.floor((double) stepX / SUBPIXEL_STEPS);
+        int pixelY = (int) Math.floor((double) stepY / SUBPIXEL_STEPS);
+
+        Object[] hints = new Object[HINTS.length];
+        for (int i = 0; i < HINTS.length; i++)
+        {
+            hints[i] = graphics.getRenderingHint(HINTS[i]);
+        }
+
+        Key key = new Key(font, code,
+                (int) Math.round(emWidth * SCALE_STEPS),
+                (int) Math.round(emHeight * SCALE_STEPS),
+                (int) (stepX - (long) pixelX * SUBPIXEL_STEPS),
+                (int) (stepY - (long) pixelY * SUBPIXEL_STEPS),
+                color.getRGB(), hints);
+
+        Segment segment = segmentFor(key);
+        Bitmap bitmap;
+        synchronized (segment)
+        {
+            bitmap = segment.get(key);
+        }
+        if (bitmap == null)
+        {
+            bitmap = rasterize(graphics, path, key, color);
+            synchronized (segment)
+            {
+                segment.add(key, bitmap);
+            }
+        }
+
+        if (bitmap.image != null)
+        {
+            AffineTransform saved = graphics.getTransform();
+            graphics.setTransform(new AffineTransform());
+            graphics.drawImage(bitmap.image, pixelX + bitmap.x, pixelY + bitmap.y, null);
+            graphics.setTransform(saved);
+        }
+        return true;
+    }
+
+    // rasterises the glyph at the quantised scale and sub-pixel offset of the key
+    private Bitmap rasterize(Graphics2D graphics, GeneralPath path, Key key, Color color)
+    {
+        AffineTransform glyphTransform = new AffineTransform(
+                (double) key.scaleX / (SCALE_STEPS * UNITS_PER_EM), 0,
+                0, (double) key.scaleY / (SCALE_STEPS * UNITS_PER_EM),
+                (double) key.offsetX / SUBPIXEL_STEPS, (double) key.offsetY / SUBPIXEL_STEPS);
+        Rectangle bounds = glyphTransform.createTransformedShape(path).getBounds();
+        if (bounds.isEmpty())
+        {
+            // nothing to draw, e.g. a space
+            return new Bitmap(null, 0, 0);
+        }
+        // a margin of one pixel for the antialiasing
+        bounds.grow(1, 1);
+
+        BufferedImage image = new BufferedImage(bounds.width, bounds.height,
+                BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = image.createGraphics();
+        try
+        {
+            g.setRenderingHints(graphics.getRenderingHints());
+            g.setColor(color);
+            g.translate(-bounds.x, -bounds.y);
+            g.transform(glyphTransform);
+            g.fill(path);
+        }
+        finally
+        {
+            g.dispose();
+        }
+        return new Bitmap(image, bounds.x, bounds.y);
+    }
+
+    private Segment segmentFor(Key key)
+    {
+        int hash = key.hash ^ (key.hash >>> 16);
+        return segments[(hash & 0x7fffffff) % SEGMENTS];
+    }
+
+    /**
+     * A rasterised glyph and the position of its upper left corner relative to the glyph origin.
+     */
+    private static final class Bitmap
+    {
+        private final BufferedImage image;
+        private final int x;
+        private final int y;
+
+        private Bitmap(BufferedImage image, int x, int y)
+        {
+            this.image = image;
+            this.x = x;
+            this.y = y;
+        }
+
+        private int getBytes()
+        {
+            return image == null ? 0 : image.getWidth() * image.getHeight() * 4;
+        }
+    }
+
+    /**
+     * A part of the cache, evicting its least recently used bitmaps when it is full.
+     */
+    private static final class Segment extends LinkedHashMap<Key, Bitmap>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxBytes;
+        private int bytes = 0;
+
+        private Segment(int maxBytes)
+        {
+            super(16, 0.75f, true);
+            this.maxBytes = maxBytes;
+        }
+
+        private void add(Key key, Bitmap bitmap)
+        {
+            Bitmap previous = put(key, bitmap);
+            if (previous != null)
+            {
+                bytes -= previous.getBytes();
+            }
+            bytes += bitmap.getBytes();
+            Iterator<Bitmap> iterator = values().iterator();
+            while (bytes > maxBytes && iterator.hasNext())
+            {
+                bytes -= iterator.next().getBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Identity of a font plus character code, quantised device scale, sub-pixel offset, color and
+     * rendering hints.
+     */
+    private static final class Key
+    {
+        private final Object font;
+        private final int code;
+        private final int scaleX;
+        private final int scaleY;
+        private final int offsetX;
+        private final int offsetY;
+        private final int rgb;
+        private final Object[] hints;
+        private final int hash;
+
+        private Key(Object font, int code, int scaleX, int scaleY, int offsetX, int offsetY,
+                int rgb, Object[] hints)
+        {
+            this.font = font;
+            this.code = code;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+            this.rgb = rgb;
+            this.hints = hints;
+            int h = System.identityHashCode(font);
+            h = 31 * h + code;
+            h = 31 * h + scaleX;
+            h = 31 * h + scaleY;
+            h = 31 * h + (offsetX * SUBPIXEL_STEPS + offsetY);
+            h = 31 * h + rgb;
+            hash = 31 * h + Arrays.hashCode(hints);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return font == other.font && code == other.code && scaleX == other.scaleX
+                    && scaleY == other.scaleY && offsetX == other.offsetX
+                    && offsetY == other.offsetY && rgb == other.rgb
+                    && Arrays.equals(hints, other.hints);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+}
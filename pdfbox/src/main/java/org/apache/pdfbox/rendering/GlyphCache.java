@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.geom.GeneralPath;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of glyph outlines which is shared by all pages rendered by a
+ * {@link PDFRenderer}, also when they are rendered by several threads. The outlines are keyed by
+ * the identity of a font program or font dictionary plus a glyph number, e.g. a GID, a CID or a
+ * character code. The least recently used outlines are evicted first.
+ *
+ * The cached outlines are shared, they must not be modified.
+ */
+final class GlyphCache
+{
+    /**
+     * The default maximum number of outlines.
+     */
+    static final int DEFAULT_MAX_GLYPHS = 8192;
+
+    // the cache is split into segments with a lock each, to lower contention between threads
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * Constructor.
+     *
+     * @param maxGlyphs the maximum number of outlines kept
+     */
+    GlyphCache(int maxGlyphs)
+    {
+        int maxPerSegment = Math.max(1, maxGlyphs / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++)
+        {
+            segments[i] = new Segment(maxPerSegment);
+        }
+    }
+
+    /**
+     * Returns the outline of the given glyph.
+     *
+     * @param font the font program or font dictionary, compared by identity
+     * @param glyph the glyph number
+     * @return the cached outline or null if there is none
+     */
+    GeneralPath get(Object font, int glyph)
+    {
+        Key key = new Key(font, glyph);
+        Segment segment = segmentFor(key);
+        synchronized (segment)
+        {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Adds the outline of the given glyph.
+     *
+     * @param font the font program or font dictionary, compared by identity
+     * @param glyph the glyph number
+     * @param path the outline, which must not be modified afterwards
+     */
+    void put(Object font, int glyph, GeneralPath path)
+    {
+        if (path == null)
+        {
+            return;
+        }
+        Key key = new Key(font, glyph);
+        Segment segment = segmentFor(key);
+        synchronized (segment)
+        {
+            segment.put(key, path);
+        }
+    }
+
+    private Segment segmentFor(Key key)
+    {
+        // spread the hash, the glyph numbers of one font are consecutive
+        int hash = key.hash ^ (key.hash >>> 16);
+        return segments[(hash & 0x7fffffff) % SEGMENTS];
+    }
+
+    /**
+     * A part of the cache, evicting its least recently used outline when it is full.
+     */
+    private static final class Segment extends LinkedHashMap<Key, GeneralPath>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private Segment(int maxSize)
+        {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, GeneralPath> eldest)
+        {
+            return size() > maxSize;
+        }
+    }
+
+    /**
+     * Identity of a font plus a glyph number.
+     */
+    private static final class Key
+    {
+        private final Object font;
+        private final int glyph;
+        private final int hash;
+
+        private Key(Object font, int glyph)
+        {
+            this.font = font;
+            this.glyph = glyph;
+            hash = 31 * System.identityHashCode(font) + glyph;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return font == other.font && glyph == other.glyph;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+}
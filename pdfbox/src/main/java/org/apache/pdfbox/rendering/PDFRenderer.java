@@ -20,6 +20,10 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -28,13 +32,19 @@ import org.apache.pdfbox.pdmodel.common.PDRectangle;
 /**
  * Renders a PDF document to an AWT BufferedImage.
  * This class may be overridden in order to perform custom rendering.
+ * Several pages may be rendered at the same time by different threads.
  *
  * @author John Hewson
  */
 public class PDFRenderer
 {
     protected final PDDocument document;
-    // TODO keep rendering state such as caches here
+
+    // glyph outlines shared by all pages and rendering threads
+    private final GlyphCache glyphCache = new GlyphCache(GlyphCache.DEFAULT_MAX_GLYPHS);
+
+    // bitmaps of small glyphs, null if disabled
+    private volatile GlyphBitmapCache glyphBitmapCache;
 
     /**
      * Creates a new PDFRenderer.
@@ -139,6 +149,149 @@ public class PDFRenderer
         return image;
     }
 
+    /**
+     * Renders the given pages in parallel using the given executor and passes the images to the
+     * handler. The number of images being rendered or handled at the same time is limited, no
+     * further page is submitted to the executor until an image is released by the handler. This
+     * method returns when all pages are handled. If a page or the handler fails or the calling
+     * thread is interrupted, no further image is passed to the handler and this method waits for
+     * the pages in progress before it returns. The document must not be modified meanwhile.
+     * @param firstPageIndex the zero-based index of the first page to be converted
+     * @param lastPageIndex the zero-based index of the last page to be converted (inclusive)
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of image to return
+     * @param executor the executor rendering the pages
+     * @param maxImages the maximum number of images in progress
+     * @param handler the handler of the rendered images
+     * @throws IOException if the PDF cannot be read or the handler fails, the remaining pages
+     * aren't rendered then
+     */
+    public void renderImagesWithDPI(int firstPageIndex, int lastPageIndex, final float dpi,
+            final ImageType imageType, Executor executor, int maxImages,
+            final PageImageHandler handler) throws IOException
+    {
+        if (maxImages < 1)
+        {
+            throw new IllegalArgumentException("maxImages must be positive: " + maxImages);
+        }
+        final Semaphore permits = new Semaphore(maxImages);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        try
+        {
+            for (int i = firstPageIndex; i <= lastPageIndex && failure.get() == null; i++)
+            {
+                permits.acquire();
+                final int pageIndex = i;
+                try
+                {
+                    executor.execute(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            try
+                            {
+                                if (failure.get() == null)
+                                {
+                                    BufferedImage image =
+                                            renderImageWithDPI(pageIndex, dpi, imageType);
+                                    // the method may have failed meanwhile
+                                    if (failure.get() == null)
+                                    {
+                                        handler.handleImage(pageIndex, image);
+                                    }
+                                }
+                            }
+                            catch (Throwable t)
+                            {
+                                failure.compareAndSet(null, t);
+                            }
+                            finally
+                            {
+                                permits.release();
+                            }
+                        }
+                    });
+                }
+                catch (RuntimeException e)
+                {
+                    // the executor rejected the task
+                    permits.release();
+                    failure.compareAndSet(null, e);
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new InterruptedIOException("Interrupted while rendering"));
+        }
+        // wait for the pages in progress, also after an interrupt, so that the handler isn't
+        // called after this method returned
+        permits.acquireUninterruptibly(maxImages);
+        permits.release(maxImages);
+        Throwable t = failure.get();
+        if (t instanceof IOException)
+        {
+            throw (IOException) t;
+        }
+        if (t instanceof RuntimeException)
+        {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error)
+        {
+            throw (Error) t;
+        }
+    }
+
+    /**
+     * Returns the cache of glyph outlines used by the page drawers.
+     */
+    GlyphCache getGlyphCache()
+    {
+        return glyphCache;
+    }
+
+    /**
+     * Returns the cache of glyph bitmaps used by the page drawers, or null if it is disabled.
+     */
+    GlyphBitmapCache getGlyphBitmapCache()
+    {
+        return glyphBitmapCache;
+    }
+
+    /**
+     * Enables or disables the glyph bitmap cache, which is disabled by default. When enabled,
+     * small text filled with a solid color is rasterised once per glyph, size and color and then
+     * drawn as a bitmap, which speeds up rendering at low resolutions such as thumbnails. Glyph
+     * positions are rounded to a quarter pixel, thus the images differ slightly from those
+     * rendered without the cache. This applies to images only, not to other graphics devices.
+     *
+     * @param enabled true to enable the glyph bitmap cache
+     */
+    public void setGlyphBitmapCacheEnabled(boolean enabled)
+    {
+        if (!enabled)
+        {
+            glyphBitmapCache = null;
+        }
+        else if (glyphBitmapCache == null)
+        {
+            glyphBitmapCache = new GlyphBitmapCache(GlyphBitmapCache.DEFAULT_MAX_BYTES);
+        }
+    }
+
+    /**
+     * Returns whether the glyph bitmap cache is enabled.
+     *
+     * @return true if the glyph bitmap cache is enabled
+     */
+    public boolean isGlyphBitmapCacheEnabled()
+    {
+        return glyphBitmapCache != null;
+    }
+
     /**
      * Renders a given page to an AWT Graphics2D instance.
      * @param pageIndex the zero-based index of the page to be converted
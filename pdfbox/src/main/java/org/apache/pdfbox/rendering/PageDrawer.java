@@ -92,7 +92,7 @@ public final class PageDrawer extends PDFGraphicsStreamEngine
     private GeneralPath linePath = new GeneralPath();
 
     // last clipping path
-    private Area lastClip;
+    private Shape lastClip;
 
     // buffered clipping area for text being drawn
     private Area textClippingArea;
@@ -186,7 +186,7 @@ public final class PageDrawer extends PDFGraphicsStreamEngine
         GeneralPath oldLinePath = linePath;
         linePath = new GeneralPath();
 
-        Area oldLastClip = lastClip;
+        Shape oldLastClip = lastClip;
         lastClip = null;
 
         setRenderingHints();
@@ -248,10 +248,19 @@ public final class PageDrawer extends PDFGraphicsStreamEngine
     // Graphics2D#getClip() returns a new object instead of the same one passed to setClip
     private void setClip()
     {
-        Area clippingPath = getGraphicsState().getCurrentClippingPath();
+        Shape clippingPath = getGraphicsState().getCurrentClippingShape();
         if (clippingPath != lastClip)
         {
-            graphics.setClip(clippingPath);
+            if (clippingPath instanceof Rectangle2D)
+            {
+                // Graphics2D rounds rectangles outwards to whole pixels, but the pixels of other
+                // shapes only if their centers are inside, a path gives the same pixels as an Area
+                graphics.setClip(new GeneralPath(clippingPath));
+            }
+            else
+            {
+                graphics.setClip(clippingPath);
+            }
             lastClip = clippingPath;
         }
     }
@@ -326,6 +335,23 @@ public final class PageDrawer extends PDFGraphicsStreamEngine
                 }
             }
 
+            // small filled text may be drawn from cached bitmaps
+            GlyphBitmapCache glyphBitmaps = renderer.getGlyphBitmapCache();
+            if (renderingMode == RenderingMode.FILL && glyphBitmaps != null)
+            {
+                Paint paint = getNonStrokingPaint();
+                if (paint instanceof Color)
+                {
+                    graphics.setComposite(state.getNonStrokingJavaComposite());
+                    setClip();
+                    if (glyphBitmaps.drawGlyph(graphics, path, font.getCOSObject(), code, at,
+                            (Color) paint))
+                    {
+                        return;
+                    }
+                }
+            }
+
             // render glyph
             Shape glyph = at.createTransformedShape(path);
 
@@ -372,30 +398,30 @@ public final class PageDrawer extends PDFGraphicsStreamEngine
         if (font instanceof PDTrueTypeFont)
         {
             PDTrueTypeFont ttfFont = (PDTrueTypeFont)font;
-            glyph2D = new TTFGlyph2D(ttfFont);  // TTF is never null
+            glyph2D = new TTFGlyph2D(ttfFont, renderer.getGlyphCache());  // TTF is never null
         }
         else if (font instanceof PDType1Font)
         {
             PDType1Font pdType1Font = (PDType1Font)font;
-            glyph2D = new Type1Glyph2D(pdType1Font); // T1 is never null
+            glyph2D = new Type1Glyph2D(pdType1Font, renderer.getGlyphCache()); // T1 is never null
         }
         else if (font instanceof PDType1CFont)
         {
             PDType1CFont type1CFont = (PDType1CFont)font;
-            glyph2D = new Type1Glyph2D(type1CFont);
+            glyph2D = new Type1Glyph2D(type1CFont, renderer.getGlyphCache());
         }
         else if (font instanceof PDType0Font)
         {
             PDType0Font type0Font = (PDType0Font) font;
             if (type0Font.getDescendantFont() instanceof PDCIDFontType2)
             {
-                glyph2D = new TTFGlyph2D(type0Font); // TTF is never null
+                glyph2D = new TTFGlyph2D(type0Font, renderer.getGlyphCache()); // TTF is never null
             }
             else if (type0Font.getDescendantFont() instanceof PDCIDFontType0)
             {
                 // a Type0 CIDFont contains CFF font
                 PDCIDFontType0 cidType0Font = (PDCIDFontType0)type0Font.getDescendantFont();
-                glyph2D = new CIDType0Glyph2D(cidType0Font); // todo: could be null (need incorporate fallback)
+                glyph2D = new CIDType0Glyph2D(cidType0Font, renderer.getGlyphCache()); // todo: could be null (need incorporate fallback)
             }
         }
         else
@@ -846,7 +872,7 @@ public final class PageDrawer extends PDFGraphicsStreamEngine
         private TransparencyGroup(PDFormXObject form, boolean isSoftMask) throws IOException
         {
             Graphics2D g2dOriginal = graphics;
-            Area lastClipOriginal = lastClip;
+            Shape lastClipOriginal = lastClip;
 
             // get the CTM x Form Matrix transform
             Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
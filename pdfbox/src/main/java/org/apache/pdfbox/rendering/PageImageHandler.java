@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Receives the page images rendered by
+ * {@link PDFRenderer#renderImagesWithDPI(int, int, float, ImageType, java.util.concurrent.Executor,
+ * int, PageImageHandler)}.
+ *
+ * @see PDFRenderer
+ */
+public interface PageImageHandler
+{
+    /**
+     * Called with the image of a page as soon as it is rendered. This is called by the threads
+     * of the executor rendering the pages, thus it may be called concurrently and the pages
+     * aren't handled in order. The image should be released when this method returns, as the
+     * number of images in progress is limited.
+     *
+     * @param pageIndex the zero-based index of the page
+     * @param image the rendered page image
+     * @throws IOException if the image can't be handled, this stops the rendering
+     */
+    void handleImage(int pageIndex, BufferedImage image) throws IOException;
+}
@@ -21,8 +21,6 @@ package org.apache.pdfbox.rendering;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -45,35 +43,39 @@ final class TTFGlyph2D implements Glyph2D
     private final TrueTypeFont ttf;
     private float scale = 1.0f;
     private boolean hasScaling;
-    private final Map<Integer, GeneralPath> glyphs = new HashMap<Integer, GeneralPath>();
+    private final GlyphCache glyphs;
     private final boolean isCIDFont;
 
     /**
      * Constructor.
      *
      * @param ttfFont TrueType font
+     * @param glyphs the cache of glyph outlines
      */
-    public TTFGlyph2D(PDTrueTypeFont ttfFont) throws IOException
+    public TTFGlyph2D(PDTrueTypeFont ttfFont, GlyphCache glyphs) throws IOException
     {
-        this(ttfFont.getTrueTypeFont(), ttfFont, false);
+        this(ttfFont.getTrueTypeFont(), ttfFont, false, glyphs);
     }
 
     /**
      * Constructor.
      *
      * @param type0Font Type0 font, with CIDFontType2 descendant
+     * @param glyphs the cache of glyph outlines
      */
-    public TTFGlyph2D(PDType0Font type0Font) throws IOException
+    public TTFGlyph2D(PDType0Font type0Font, GlyphCache glyphs) throws IOException
     {
-        this(((PDCIDFontType2)type0Font.getDescendantFont()).getTrueTypeFont(), type0Font, true);
+        this(((PDCIDFontType2)type0Font.getDescendantFont()).getTrueTypeFont(), type0Font, true,
+                glyphs);
     }
 
-    public TTFGlyph2D(TrueTypeFont ttf, PDFont font, boolean isCIDFont)
+    public TTFGlyph2D(TrueTypeFont ttf, PDFont font, boolean isCIDFont, GlyphCache glyphs)
             throws IOException
     {
         this.font = font;
         this.ttf = ttf;
         this.isCIDFont = isCIDFont;
+        this.glyphs = glyphs;
         // get units per em, which is used as scaling factor
         HeaderTable header = this.ttf.getHeader();
         if (header != null && header.getUnitsPerEm() != 1000)
@@ -115,12 +117,16 @@ final class TTFGlyph2D implements Glyph2D
      */
     public GeneralPath getPathForGID(int gid, int code) throws IOException
     {
-        GeneralPath glyphPath;
-        if (glyphs.containsKey(gid))
+        // Acrobat only draws GID 0 for embedded or "Standard 14" fonts, see PDFBOX-2372,
+        // thus its outline depends on the PDF font rather than on the font program
+        Object fontKey = ttf;
+        if (gid == 0 && !font.isEmbedded() && !font.isStandard14())
         {
-            glyphPath = glyphs.get(gid);
+            fontKey = font.getCOSObject();
         }
-        else
+
+        GeneralPath glyphPath = glyphs.get(fontKey, gid);
+        if (glyphPath == null)
         {
             if (gid == 0 || gid >= ttf.getMaximumProfile().getNumGlyphs())
             {
@@ -137,19 +143,17 @@ final class TTFGlyph2D implements Glyph2D
                 }
             }
 
-            GlyphData glyph = ttf.getGlyph().getGlyph(gid);
-
-            // Acrobat only draws GID 0 for embedded or "Standard 14" fonts, see PDFBOX-2372
-            if (gid == 0 && !font.isEmbedded() && !font.isStandard14())
+            GlyphData glyph = null;
+            if (fontKey == ttf)
             {
-                glyph = null;
+                glyph = ttf.getGlyph().getGlyph(gid);
             }
 
             if (glyph == null)
             {
                 // empty glyph (e.g. space, newline)
                 glyphPath = new GeneralPath();
-                glyphs.put(gid, glyphPath);
+                glyphs.put(fontKey, gid, glyphPath);
             }
             else
             {
@@ -159,7 +163,7 @@ final class TTFGlyph2D implements Glyph2D
                     AffineTransform atScale = AffineTransform.getScaleInstance(scale, scale);
                     glyphPath.transform(atScale);
                 }
-                glyphs.put(gid, glyphPath);
+                glyphs.put(fontKey, gid, glyphPath);
             }
         }
         return glyphPath != null ? (GeneralPath) glyphPath.clone() : null; // todo: expensive
@@ -168,6 +172,6 @@ final class TTFGlyph2D implements Glyph2D
     @Override
     public void dispose()
     {
-        glyphs.clear();
+        // the outlines are kept by the shared cache
     }
 }
@@ -18,11 +18,10 @@ package org.apache.pdfbox.rendering;
 
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.pdmodel.common.COSObjectable;
 import org.apache.pdfbox.pdmodel.font.PDType1Equivalent;
 
 /**
@@ -32,26 +31,32 @@ final class Type1Glyph2D implements Glyph2D
 {
     private static final Log LOG = LogFactory.getLog(Type1Glyph2D.class);
 
-    private final Map<Integer, GeneralPath> cache = new HashMap<Integer, GeneralPath>();
+    private final GlyphCache cache;
     private final PDType1Equivalent font;
+    // the glyph names depend on the encoding, thus the outlines are cached per font dictionary
+    private final Object fontKey;
 
     /**
      * Constructor.
      *
      * @param font PDF Type1 font.
+     * @param cache the cache of glyph outlines
      */
-    public Type1Glyph2D(PDType1Equivalent font)
+    public Type1Glyph2D(PDType1Equivalent font, GlyphCache cache)
     {
         this.font = font;
+        this.cache = cache;
+        fontKey = font instanceof COSObjectable ? ((COSObjectable) font).getCOSObject() : font;
     }
 
     @Override
     public GeneralPath getPathForCharacterCode(int code)
     {
         // cache
-        if (cache.containsKey(code))
+        GeneralPath cached = cache.get(fontKey, code);
+        if (cached != null)
         {
-            return cache.get(code);
+            return cached;
         }
 
         // fetch
@@ -70,7 +75,7 @@ final class Type1Glyph2D implements Glyph2D
                 path = font.getPath(".notdef");
             }
 
-            cache.put(code, path);
+            cache.put(fontKey, code, path);
             return path;
         }
         catch (IOException e)
@@ -83,6 +88,6 @@ final class Type1Glyph2D implements Glyph2D
     @Override
     public void dispose()
     {
-        cache.clear();
+        // the outlines are kept by the shared cache
     }
 }
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util;
+
+import java.util.Arrays;
+
+/**
+ * The positions of the characters shown on a page, used by {@link PDFTextStripper} to find
+ * overlapping duplicates of a character. The positions are kept in primitive arrays and are
+ * found through a hash table of grid cells, keyed by the text of the character and the
+ * quantised position, thus neither lookups nor additions create objects.
+ */
+final class CharacterPositionGrid
+{
+    // the size of a grid cell in text space units, about a character of a common font size
+    private static final float CELL_SIZE = 8;
+
+    // a query covering more cells than this scans all positions of the character instead
+    private static final long MAX_QUERY_CELLS = 64;
+
+    private static final int NO_POSITION = -1;
+
+    // the hash table of cells, open addressing with linear probing
+    private String[] cellTexts = new String[256];
+    private int[] cellXs = new int[256];
+    private int[] cellYs = new int[256];
+    // the index of the last position added to each cell
+    private int[] cellPositions = new int[256];
+    private int cellCount = 0;
+
+    // the positions, chained per cell
+    private float[] xs = new float[256];
+    private float[] ys = new float[256];
+    private int[] previousPositions = new int[256];
+    private int positionCount = 0;
+
+    /**
+     * Returns true if the given character has been added at a position with x in
+     * [x - tolerance, x + tolerance) and y in [y - tolerance, y + tolerance).
+     *
+     * @param text the text of the character
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param tolerance the tolerance
+     * @return true if the character has been added at a position within the tolerance
+     */
+    boolean containsNear(String text, float x, float y, float tolerance)
+    {
+        float minX = x - tolerance;
+        float maxX = x + tolerance;
+        float minY = y - tolerance;
+        float maxY = y + tolerance;
+        if (Float.compare(minX, maxX) >= 0 || Float.compare(minY, maxY) >= 0)
+        {
+            // empty (or invalid) ranges
+            return false;
+        }
+        int minCellX = cell(minX);
+        int maxCellX = cell(maxX);
+        int minCellY = cell(minY);
+        int maxCellY = cell(maxY);
+        long columns = (long) maxCellX - minCellX + 1;
+        long rows = (long) maxCellY - minCellY + 1;
+        if (columns > MAX_QUERY_CELLS || rows > MAX_QUERY_CELLS
+                || columns * rows > MAX_QUERY_CELLS)
+        {
+            // huge tolerance, scan all cells of the character
+            for (int i = 0; i < cellTexts.length; i++)
+            {
+                if (cellTexts[i] != null && cellTexts[i].equals(text)
+                        && containsNear(cellPositions[i], minX, maxX, minY, maxY))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        // long counters, the last cell may be Integer.MAX_VALUE
+        for (long cellX = minCellX; cellX <= maxCellX; cellX++)
+        {
+            for (long cellY = minCellY; cellY <= maxCellY; cellY++)
+            {
+                int index = find(text, (int) cellX, (int) cellY);
+                if (cellTexts[index] != null
+                        && containsNear(cellPositions[index], minX, maxX, minY, maxY))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // checks the chain of positions starting with the given one, the comparisons are those
+    // of the sorted float sets used before
+    private boolean containsNear(int position, float minX, float maxX, float minY, float maxY)
+    {
+        for (int i = position; i != NO_POSITION; i = previousPositions[i])
+        {
+            if (Float.compare(xs[i], minX) >= 0 && Float.compare(xs[i], maxX) < 0
+                    && Float.compare(ys[i], minY) >= 0 && Float.compare(ys[i], maxY) < 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a character at the given position.
+     *
+     * @param text the text of the character
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    void add(String text, float x, float y)
+    {
+        if (Float.isNaN(x) || Float.isNaN(y))
+        {
+            // never within the tolerance of any position
+            return;
+        }
+        if (2 * (cellCount + 1) > cellTexts.length)
+        {
+            rehash();
+        }
+        int cellX = cell(x);
+        int cellY = cell(y);
+        int index = find(text, cellX, cellY);
+        if (cellTexts[index] == null)
+        {
+            cellTexts[index] = text;
+            cellXs[index] = cellX;
+            cellYs[index] = cellY;
+            cellPositions[index] = NO_POSITION;
+            cellCount++;
+        }
+
+        if (positionCount == xs.length)
+        {
+            xs = Arrays.copyOf(xs, 2 * positionCount);
+            ys = Arrays.copyOf(ys, 2 * positionCount);
+            previousPositions = Arrays.copyOf(previousPositions, 2 * positionCount);
+        }
+        xs[positionCount] = x;
+        ys[positionCount] = y;
+        previousPositions[positionCount] = cellPositions[index];
+        cellPositions[index] = positionCount++;
+    }
+
+    /**
+     * Removes all characters.
+     */
+    void clear()
+    {
+        Arrays.fill(cellTexts, null);
+        cellCount = 0;
+        positionCount = 0;
+    }
+
+    private static int cell(float coordinate)
+    {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    // returns the index of the given cell, or of the free slot where it belongs
+    private int find(String text, int cellX, int cellY)
+    {
+        int mask = cellTexts.length - 1;
+        int index = hash(text, cellX, cellY) & mask;
+        while (cellTexts[index] != null)
+        {
+            if (cellXs[index] == cellX && cellYs[index] == cellY && cellTexts[index].equals(text))
+            {
+                break;
+            }
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int hash(String text, int cellX, int cellY)
+    {
+        int h = (text.hashCode() * 31 + cellX) * 31 + cellY;
+        // spread the bits, the table size is a power of two
+        return h ^ (h >>> 16);
+    }
+
+    private void rehash()
+    {
+        String[] oldTexts = cellTexts;
+        int[] oldXs = cellXs;
+        int[] oldYs = cellYs;
+        int[] oldPositions = cellPositions;
+        int length = 2 * oldTexts.length;
+        cellTexts = new String[length];
+        cellXs = new int[length];
+        cellYs = new int[length];
+        cellPositions = new int[length];
+        for (int i = 0; i < oldTexts.length; i++)
+        {
+            if (oldTexts[i] != null)
+            {
+                int index = find(oldTexts[i], oldXs[i], oldYs[i]);
+                cellTexts[index] = oldTexts[i];
+                cellXs[index] = oldXs[i];
+                cellYs[index] = oldYs[i];
+                cellPositions[index] = oldPositions[i];
+            }
+        }
+    }
+}
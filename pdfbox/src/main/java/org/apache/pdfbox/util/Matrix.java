@@ -219,8 +219,7 @@ public final class Matrix implements Cloneable
      */
     public void translate(Vector vector)
     {
-        Matrix m = Matrix.getTranslateInstance(vector.getX(), vector.getY());
-        concatenate(m);
+        translate(vector.getX(), vector.getY());
     }
 
     /**
@@ -231,8 +230,10 @@ public final class Matrix implements Cloneable
      */
     public void translate(float tx, float ty)
     {
-        Matrix m = Matrix.getTranslateInstance(tx, ty);
-        concatenate(m);
+        // same as concatenating a translation matrix, but without creating one
+        single[6] += tx * single[0] + ty * single[3];
+        single[7] += tx * single[1] + ty * single[4];
+        single[8] += tx * single[2] + ty * single[5];
     }
 
     /**
@@ -278,7 +278,7 @@ public class Overlay
     {
         List<COSStream> contentStreams = createContentStreamList(contents);
         // concatenate streams
-        COSStream concatStream = new COSStream();
+        COSStream concatStream = inputPDFDocument.getDocument().createCOSStream();
         OutputStream out = concatStream.createUnfilteredStream();
         for (COSStream contentStream : contentStreams)
         {
@@ -465,7 +465,7 @@ public class Overlay
     
     private COSStream createStream(String content) throws IOException
     {
-        COSStream stream = new COSStream();
+        COSStream stream = inputPDFDocument.getDocument().createCOSStream();
         OutputStream out = stream.createUnfilteredStream();
         out.write(content.getBytes("ISO-8859-1"));
         out.close();
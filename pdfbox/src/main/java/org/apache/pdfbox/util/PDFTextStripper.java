@@ -17,21 +17,21 @@
 package org.apache.pdfbox.util;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.SortedMap;
-import java.util.SortedSet;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Pattern;
 
 import org.apache.pdfbox.contentstream.PDFTextStreamEngine;
@@ -62,6 +62,9 @@ public class PDFTextStripper extends PDFTextStreamEngine
     private static float DEFAULT_DROP_THRESHOLD = 2.5f;
 
     private static final boolean useCustomQuicksort;
+
+    // the maximum number of pages extracted by one task when processing pages in parallel
+    private static final int MAX_PAGES_PER_RANGE = 16;
     
     // enable the ability to set the default indent/drop thresholds
     // with -D system properties:
@@ -177,8 +180,7 @@ public class PDFTextStripper extends PDFTextStreamEngine
      */
     protected Vector<List<TextPosition>> charactersByArticle = new Vector<List<TextPosition>>();
 
-    private Map<String, TreeMap<Float, TreeSet<Float>>> characterListMapping =
-        new HashMap<String, TreeMap<Float, TreeSet<Float>>>();
+    private final CharacterPositionGrid characterGrid = new CharacterPositionGrid();
 
     protected PDDocument document;
     protected Writer output;
@@ -220,10 +222,7 @@ public class PDFTextStripper extends PDFTextStreamEngine
         {
             charactersByArticle.clear();
         }
-        if (characterListMapping != null)
-        {
-            characterListMapping.clear();
-        }
+        characterGrid.clear();
         startBookmark = null;
         endBookmark = null;
     }
@@ -241,6 +240,14 @@ public class PDFTextStripper extends PDFTextStreamEngine
         resetEngine();
         document = doc;
         output = outputStream;
+        applyMoreFormatting();
+        startDocument(document);
+        processPages(document.getPages());
+        endDocument(document);
+    }
+
+    private void applyMoreFormatting()
+    {
         if (getAddMoreFormatting()) 
         {
             paragraphEnd = lineSeparator;
@@ -248,11 +255,270 @@ public class PDFTextStripper extends PDFTextStreamEngine
             articleStart = lineSeparator;
             articleEnd = lineSeparator;
         }
+    }
+
+    /**
+     * This will write the text of a document to the writer like {@link #writeText(PDDocument,
+     * Writer)}, but the pages are processed in parallel by the given executor. The pages are split
+     * into ranges which are processed by strippers created with {@link #createPageRangeStripper()},
+     * the text of the ranges is written in page order. If no such stripper is created, or if
+     * bookmarks limit the pages, the pages are processed sequentially by this stripper. The
+     * document must not be modified meanwhile.
+     *
+     * @param doc The document to get the data from.
+     * @param outputStream The location to put the text.
+     * @param executor The executor processing the page ranges.
+     *
+     * @throws IOException If the doc is in an invalid state or a page can't be processed.
+     */
+    public void writeText(PDDocument doc, Writer outputStream, ExecutorService executor)
+            throws IOException
+    {
+        PDFTextStripper firstStripper = null;
+        if (startBookmark == null && endBookmark == null)
+        {
+            firstStripper = createPageRangeStripper();
+        }
+        if (firstStripper == null)
+        {
+            writeText(doc, outputStream);
+            return;
+        }
+        resetEngine();
+        document = doc;
+        output = outputStream;
+        applyMoreFormatting();
+        int first = Math.max(startPage, 1);
+        int last = Math.min(endPage, doc.getNumberOfPages());
+        // a few ranges per processor to balance pages of different complexity
+        int ranges = 4 * Runtime.getRuntime().availableProcessors();
+        int rangeSize = Math.max(1, Math.min(MAX_PAGES_PER_RANGE,
+                (last - first + ranges) / ranges));
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        for (int rangeStart = first; rangeStart <= last; rangeStart += rangeSize)
+        {
+            // the stripper created above processes the first range
+            results.add(executor.submit(new PageRangeTask(
+                    rangeStart == first ? firstStripper : null, doc, rangeStart,
+                    Math.min(rangeStart + rangeSize - 1, last))));
+        }
         startDocument(document);
-        processPages(document.getPages());
+        writeResults(results, output);
         endDocument(document);
     }
 
+    /**
+     * Extracts the text of each page in parallel using the given executor. A stripper created
+     * with {@link #createPageRangeStripper()} processes each page. If no such stripper is
+     * created, or if bookmarks limit the pages, the pages are processed sequentially by this
+     * stripper before this method returns. The document must not be modified until all pages are
+     * processed.
+     *
+     * @param doc The document to get the text from.
+     * @param executor The executor processing the pages.
+     * @return The text of the pages from the start page to the end page, in page order.
+     *
+     * @throws IOException If the doc is in an invalid state.
+     */
+    public List<Future<String>> getTextOfPages(PDDocument doc, ExecutorService executor)
+            throws IOException
+    {
+        applyMoreFormatting();
+        int first = Math.max(startPage, 1);
+        int last = Math.min(endPage, doc.getNumberOfPages());
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        PDFTextStripper firstStripper = null;
+        if (startBookmark == null && endBookmark == null)
+        {
+            firstStripper = createPageRangeStripper();
+        }
+        if (firstStripper == null)
+        {
+            int previousStartPage = startPage;
+            int previousEndPage = endPage;
+            try
+            {
+                for (int pageNo = first; pageNo <= last; pageNo++)
+                {
+                    FutureTask<String> task =
+                            new FutureTask<String>(new PageRangeTask(this, doc, pageNo, pageNo));
+                    task.run();
+                    results.add(task);
+                }
+            }
+            finally
+            {
+                startPage = previousStartPage;
+                endPage = previousEndPage;
+            }
+            return results;
+        }
+        for (int pageNo = first; pageNo <= last; pageNo++)
+        {
+            // the stripper created above processes the first page
+            results.add(executor.submit(new PageRangeTask(
+                    pageNo == first ? firstStripper : null, doc, pageNo, pageNo)));
+        }
+        return results;
+    }
+
+    // writes the results in the given order, remaining tasks are cancelled if one fails
+    private static void writeResults(List<Future<String>> results, Writer outputStream)
+            throws IOException
+    {
+        boolean completed = false;
+        try
+        {
+            for (Future<String> result : results)
+            {
+                outputStream.write(result.get());
+            }
+            completed = true;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the text of pages");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        finally
+        {
+            if (!completed)
+            {
+                for (Future<String> result : results)
+                {
+                    result.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the stripper which extracts the text of a range of pages for
+     * {@link #writeText(PDDocument, Writer, ExecutorService)} and
+     * {@link #getTextOfPages(PDDocument, ExecutorService)}. This class creates a new
+     * PDFTextStripper with the settings of this one, see {@link #copySettings(PDFTextStripper)}.
+     * Subclasses process the pages sequentially unless they override this method, as their own
+     * settings and results wouldn't be shared with the new strippers. An override returns a new
+     * instance of the subclass with all settings of this one.
+     *
+     * @return a new stripper, or null if the pages have to be processed sequentially
+     * @throws IOException If the stripper can't be created.
+     */
+    protected PDFTextStripper createPageRangeStripper() throws IOException
+    {
+        if (getClass() != PDFTextStripper.class)
+        {
+            return null;
+        }
+        PDFTextStripper stripper = new PDFTextStripper();
+        copySettings(stripper);
+        return stripper;
+    }
+
+    /**
+     * Copies the settings of this stripper to the given one.
+     *
+     * @param stripper the stripper to get the settings of this one
+     */
+    protected void copySettings(PDFTextStripper stripper)
+    {
+        stripper.lineSeparator = lineSeparator;
+        stripper.wordSeparator = wordSeparator;
+        stripper.paragraphStart = paragraphStart;
+        stripper.paragraphEnd = paragraphEnd;
+        stripper.pageStart = pageStart;
+        stripper.pageEnd = pageEnd;
+        stripper.articleStart = articleStart;
+        stripper.articleEnd = articleEnd;
+        stripper.suppressDuplicateOverlappingText = suppressDuplicateOverlappingText;
+        stripper.shouldSeparateByBeads = shouldSeparateByBeads;
+        stripper.sortByPosition = sortByPosition;
+        stripper.indentThreshold = indentThreshold;
+        stripper.dropThreshold = dropThreshold;
+        stripper.spacingTolerance = spacingTolerance;
+        stripper.averageCharTolerance = averageCharTolerance;
+        stripper.listOfPatterns = listOfPatterns;
+    }
+
+    /**
+     * Writes the text of the pages between the given page numbers, without calling
+     * {@link #startDocument(PDDocument)} and {@link #endDocument(PDDocument)}.
+     */
+    private void writePageRange(PDDocument doc, Writer outputStream, int first, int last)
+            throws IOException
+    {
+        resetEngine();
+        document = doc;
+        output = outputStream;
+        startPage = first;
+        endPage = last;
+        PDPageTree pages = doc.getPages();
+        for (int pageNo = first; pageNo <= last; pageNo++)
+        {
+            PDPage page = pages.get(pageNo - 1);
+            currentPageNo = pageNo;
+            if (page.getStream() != null)
+            {
+                processPage(page);
+            }
+        }
+    }
+
+    /**
+     * Extracts the text of a range of pages with the given stripper or, if there is none, a new
+     * stripper.
+     */
+    private final class PageRangeTask implements Callable<String>
+    {
+        private final PDFTextStripper stripper;
+        private final PDDocument doc;
+        private final int first;
+        private final int last;
+
+        private PageRangeTask(PDFTextStripper stripper, PDDocument doc, int first, int last)
+        {
+            this.stripper = stripper;
+            this.doc = doc;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        public String call() throws IOException
+        {
+            PDFTextStripper rangeStripper = stripper;
+            if (rangeStripper == null)
+            {
+                rangeStripper = createPageRangeStripper();
+                if (rangeStripper == null)
+                {
+                    throw new IOException(PDFTextStripper.this.getClass().getName()
+                            + " can't process pages in parallel");
+                }
+            }
+            StringWriter text = new StringWriter();
+            rangeStripper.writePageRange(doc, text, first, last);
+            return text.toString();
+        }
+    }
+
     /**
      * This will process all of the pages and the text that is in them.
      *
@@ -347,7 +613,7 @@ public class PDFTextStripper extends PDFTextStreamEngine
                     charactersByArticle.set(i, new ArrayList<TextPosition>());
                 }
             }
-            characterListMapping.clear();
+            characterGrid.clear();
             super.processPage(page);
             writePage();
             endPage(page);
@@ -791,13 +1057,6 @@ public class PDFTextStripper extends PDFTextStreamEngine
             String textCharacter = text.getUnicode();
             float textX = text.getX();
             float textY = text.getY();
-            TreeMap<Float, TreeSet<Float>> sameTextCharacters =
-                    characterListMapping.get(textCharacter);
-            if (sameTextCharacters == null)
-            {
-                sameTextCharacters = new TreeMap<Float, TreeSet<Float>>();
-                characterListMapping.put(textCharacter, sameTextCharacters);
-            }
             // RDD - Here we compute the value that represents the end of the rendered
             // text.  This value is used to determine whether subsequent text rendered
             // on the same line overwrites the current text.
@@ -808,29 +1067,10 @@ public class PDFTextStripper extends PDFTextStreamEngine
             // the TJ just backs up to compensate after each character).  Also, we subtract
             // an amount to allow for kerning (a percentage of the width of the last
             // character).
-            boolean suppressCharacter = false;
             float tolerance = text.getWidth()/textCharacter.length() / 3.0f;
-            
-            SortedMap<Float, TreeSet<Float>> xMatches = sameTextCharacters.subMap(textX - tolerance,
-                    textX + tolerance);
-            for (TreeSet<Float> xMatch : xMatches.values()) 
-            {
-                SortedSet<Float> yMatches = xMatch.subSet(textY - tolerance , textY + tolerance);
-                if (!yMatches.isEmpty()) 
-                {
-                    suppressCharacter = true;
-                    break;
-                }
-            }
-            if (!suppressCharacter)
+            if (!characterGrid.containsNear(textCharacter, textX, textY, tolerance))
             {
-                TreeSet<Float> ySet = sameTextCharacters.get(textX);
-                if (ySet == null) 
-                {
-                    ySet = new TreeSet<Float>();
-                    sameTextCharacters.put(textX,  ySet);
-                }
-                ySet.add(textY);
+                characterGrid.add(textCharacter, textX, textY);
                 showCharacter = true;
             }
         }
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.contentstream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.DefaultResourceCache;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.ResourceCache;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test of processing content streams in pre-parsed form.
+ */
+public class TestCompiledContentStream
+{
+    private static final String CONTENT = "q 1 0 0 1 10.5 20 cm 0.1 0.2 0.3 rg 0 0 m 100.25 -3 l S "
+            + "/P <</MCID 0>> BDC BT /F1 12 Tf (abc) Tj [(a) -120 (b)] TJ ET EMC foo "
+            + "BI /W 1 /H 1 /BPC 8 /CS /G ID \u0080 EI Q 1.23456789012 w 3000000000 0 d\n";
+
+    /**
+     * A replayed content stream must give the same operators and operands as the parsed stream.
+     *
+     * @throws IOException if something went wrong
+     */
+    @Test
+    public void testReplay() throws IOException
+    {
+        PDDocument document = new PDDocument();
+        try
+        {
+            COSStream stream = createStream(CONTENT);
+            PDPage page = addPage(document, stream);
+            ResourceCache cache = document.getResourceCache();
+
+            List<String> parsed = process(page);
+            CompiledContentStream compiled = cache.getContentStream(stream);
+            assertNotNull(compiled);
+            assertEquals(18, compiled.getOperatorCount());
+
+            List<String> replayed = process(page);
+            assertEquals(parsed, replayed);
+            assertSame(compiled, cache.getContentStream(stream));
+
+            // modified streams are parsed again
+            OutputStream out = stream.createUnfilteredStream();
+            out.write("0 0 m\n".getBytes("ISO-8859-1"));
+            out.close();
+            List<String> modified = process(page);
+            assertEquals(1, modified.size());
+            assertEquals("m [COSInt{0}, COSInt{0}]", modified.get(0));
+            assertNotSame(compiled, cache.getContentStream(stream));
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+
+    /**
+     * The streams of a content array are kept together.
+     *
+     * @throws IOException if something went wrong
+     */
+    @Test
+    public void testContentArray() throws IOException
+    {
+        PDDocument document = new PDDocument();
+        try
+        {
+            COSStream first = createStream("q 1 0 0 1 10 20");
+            COSStream second = createStream("cm Q");
+            COSArray array = new COSArray();
+            array.add(first);
+            array.add(second);
+            PDPage page = addPage(document, array);
+
+            List<String> parsed = process(page);
+            assertEquals(3, parsed.size());
+            assertEquals("cm [COSInt{1}, COSInt{0}, COSInt{0}, COSInt{1}, COSInt{10}, COSInt{20}]",
+                    parsed.get(1));
+            assertNotNull(document.getResourceCache().getContentStream(first));
+            assertEquals(parsed, process(page));
+
+            // a different array with the same first stream is parsed again
+            array.remove(second);
+            assertEquals(1, process(page).size());
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+
+    /**
+     * The default cache drops the least recently used content streams.
+     *
+     * @throws IOException if something went wrong
+     */
+    @Test
+    public void testCacheSize() throws IOException
+    {
+        COSStream stream1 = createStream(CONTENT);
+        COSStream stream2 = createStream(CONTENT);
+        COSStream stream3 = createStream(CONTENT);
+        CompiledContentStream compiled1 = compile(stream1);
+        CompiledContentStream compiled2 = compile(stream2);
+        CompiledContentStream compiled3 = compile(stream3);
+        assertEquals(compiled1.getSize(), compiled2.getSize());
+
+        DefaultResourceCache cache = new DefaultResourceCache(false, 2 * compiled1.getSize());
+        cache.put(stream1, compiled1);
+        cache.put(stream2, compiled2);
+        assertSame(compiled1, cache.getContentStream(stream1));
+        cache.put(stream3, compiled3);
+        assertSame(compiled1, cache.getContentStream(stream1));
+        assertNull(cache.getContentStream(stream2));
+        assertSame(compiled3, cache.getContentStream(stream3));
+
+        DefaultResourceCache noCache = new DefaultResourceCache(false, 0);
+        noCache.put(stream1, compiled1);
+        assertNull(noCache.getContentStream(stream1));
+
+        CompiledContentStream.Builder builder = new CompiledContentStream.Builder(
+                CompiledContentStream.getSources(stream1), compiled1.getSize() / 2);
+        assertFalse(add(builder, stream1));
+    }
+
+    private static COSStream createStream(String content) throws IOException
+    {
+        COSStream stream = new COSStream();
+        OutputStream out = stream.createUnfilteredStream();
+        out.write(content.getBytes("ISO-8859-1"));
+        out.close();
+        return stream;
+    }
+
+    private static PDPage addPage(PDDocument document, COSBase contents)
+    {
+        PDPage page = new PDPage();
+        page.setResources(new PDResources());
+        page.getCOSObject().setItem(COSName.CONTENTS, contents);
+        document.addPage(page);
+        // the pages of the document share the document's resource cache
+        return document.getPage(0);
+    }
+
+    private static CompiledContentStream compile(COSStream stream) throws IOException
+    {
+        CompiledContentStream.Builder builder = new CompiledContentStream.Builder(
+                CompiledContentStream.getSources(stream), Long.MAX_VALUE);
+        add(builder, stream);
+        return builder.build();
+    }
+
+    private static boolean add(CompiledContentStream.Builder builder, COSStream stream)
+            throws IOException
+    {
+        List<COSBase> operands = new ArrayList<COSBase>();
+        for (Object token : stream.getStreamTokens())
+        {
+            if (token instanceof Operator)
+            {
+                if (!builder.add((Operator) token, operands))
+                {
+                    return false;
+                }
+                operands.clear();
+            }
+            else
+            {
+                operands.add((COSBase) token);
+            }
+        }
+        return true;
+    }
+
+    // returns the operators and operands of the page
+    private static List<String> process(PDPage page) throws IOException
+    {
+        final List<String> operators = new ArrayList<String>();
+        PDFStreamEngine engine = new PDFStreamEngine()
+        {
+            @Override
+            protected void processOperator(Operator operator, List<COSBase> operands)
+                    throws IOException
+            {
+                String s = operator.getName() + " " + operands;
+                if (operator.getImageData() != null)
+                {
+                    s += " " + operator.getImageParameters() + " "
+                            + operator.getImageData().length;
+                }
+                operators.add(s);
+                super.processOperator(operator, operands);
+            }
+        };
+        engine.processPage(page);
+        return operators;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.pdfparser.PDFParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+/**
+ * Tests {@link COSDocument}.
+ */
+public class TestCOSDocument extends TestCase
+{
+    /**
+     * Closing a lazily loaded document must not parse the objects which haven't been accessed.
+     *
+     * @throws IOException if something went wrong
+     */
+    public void testCloseLazilyLoadedDocument() throws IOException
+    {
+        PDFParser parser = new PDFParser(new File("src/test/resources/input/cweb.pdf"));
+        parser.setLazyLoading(true);
+        parser.parse();
+        PDDocument document = parser.getPDDocument();
+        COSDocument cosDocument = document.getDocument();
+        assertTrue(document.getNumberOfPages() > 0);
+        cosDocument.dereferenceObjectStreams();
+
+        List<COSObject> unparsed = new ArrayList<COSObject>();
+        for (COSObject object : cosDocument.getObjects())
+        {
+            if (object.getObjectIfParsed() == null)
+            {
+                unparsed.add(object);
+            }
+        }
+        assertFalse(unparsed.isEmpty());
+
+        document.close();
+        for (COSObject object : unparsed)
+        {
+            assertNull(object.getObjectIfParsed());
+        }
+    }
+}
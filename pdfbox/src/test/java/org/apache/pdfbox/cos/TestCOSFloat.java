@@ -301,6 +301,41 @@ public class TestCOSFloat extends TestCOSNumber
         writePDFTester.runTest(0.000000000000000000000000000000001f);
     }
 
+    /**
+     * Tests that parsed numbers keep their value and are written with the same value, whether
+     * they are converted from a string or from the characters read by the parser.
+     *
+     * @throws IOException if something went wrong
+     */
+    public void testParsedValues() throws IOException
+    {
+        String[] values = { "1.5", "-0.25", ".5", "-.5", "+3.75", "100.", "0.0", "-0.0",
+                "595.276", "0.000001", "123456789.123456", "1234567890.1234567891",
+                "0.1234567890123456789", "-2e-006", "1.5E3" };
+        for (String value : values)
+        {
+            byte[] bytes = value.getBytes("ISO-8859-1");
+            COSNumber fromString = COSNumber.get(value);
+            COSNumber fromBytes = COSNumber.get(bytes, 0, bytes.length);
+            assertTrue(value, fromBytes instanceof COSFloat);
+            assertEquals(value, fromString, fromBytes);
+            BigDecimal expected = new BigDecimal(value);
+            assertEquals(value, expected.doubleValue(), fromBytes.doubleValue(), 0);
+            assertEquals(value, expected.floatValue(), fromBytes.floatValue(), 0);
+
+            ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+            ((COSFloat) fromBytes).writePDF(outStream);
+            BigDecimal written = new BigDecimal(outStream.toString("ISO-8859-1"));
+            assertEquals(value, 0, expected.compareTo(written));
+        }
+        // the characters are taken from the given range only
+        byte[] bytes = "[12.5 7]".getBytes("ISO-8859-1");
+        assertEquals(new COSFloat(12.5f), COSNumber.get(bytes, 1, 4));
+        assertEquals(COSInteger.get(7), COSNumber.get(bytes, 6, 1));
+        bytes = "-1234567890123".getBytes("ISO-8859-1");
+        assertEquals(COSInteger.get(-1234567890123L), COSNumber.get(bytes, 0, bytes.length));
+    }
+
     private String floatToString(float value)
     {
         // use a BigDecimal as intermediate state to avoid 
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link SmallMap} against a {@link LinkedHashMap}.
+ */
+public class TestSmallMap extends TestCase
+{
+    /**
+     * Adds, replaces and removes entries of a map growing beyond the size of a small map.
+     */
+    public void testAgainstLinkedHashMap()
+    {
+        Map<COSName, COSBase> map = new SmallMap<COSName, COSBase>();
+        Map<COSName, COSBase> expected = new LinkedHashMap<COSName, COSBase>();
+        for (int i = 0; i < SmallMap.MAX_SMALL_SIZE * 3; i++)
+        {
+            COSName key = COSName.getPDFName("Key" + i % (SmallMap.MAX_SMALL_SIZE + 3));
+            COSInteger value = COSInteger.get(i);
+            assertEquals(expected.put(key, value), map.put(key, value));
+            if (i % 4 == 3)
+            {
+                COSName removed = COSName.getPDFName("Key" + i / 2);
+                assertEquals(expected.remove(removed), map.remove(removed));
+            }
+            assertEquals(expected, map);
+            assertEquals(expected.hashCode(), map.hashCode());
+            assertEquals(new ArrayList<COSName>(expected.keySet()),
+                    new ArrayList<COSName>(map.keySet()));
+            assertEquals(new ArrayList<COSBase>(expected.values()),
+                    new ArrayList<COSBase>(map.values()));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(COSName.getPDFName("Key1")));
+    }
+
+    /**
+     * Modifies a small map using the iterator and the entries of its entry set.
+     */
+    public void testIterator()
+    {
+        Map<COSName, COSBase> map = new SmallMap<COSName, COSBase>();
+        for (int i = 0; i < 5; i++)
+        {
+            map.put(COSName.getPDFName("Key" + i), COSInteger.get(i));
+        }
+        Iterator<Map.Entry<COSName, COSBase>> iterator = map.entrySet().iterator();
+        List<COSName> keys = new ArrayList<COSName>();
+        while (iterator.hasNext())
+        {
+            Map.Entry<COSName, COSBase> entry = iterator.next();
+            keys.add(entry.getKey());
+            if (((COSInteger) entry.getValue()).intValue() % 2 == 0)
+            {
+                iterator.remove();
+            }
+            else
+            {
+                entry.setValue(COSInteger.get(10));
+            }
+        }
+        assertEquals(5, keys.size());
+        assertEquals(2, map.size());
+        assertEquals(COSInteger.get(10), map.get(COSName.getPDFName("Key1")));
+        assertEquals(COSInteger.get(10), map.get(COSName.getPDFName("Key3")));
+
+        iterator = map.entrySet().iterator();
+        iterator.next();
+        map.put(COSName.getPDFName("Key5"), COSInteger.get(5));
+        try
+        {
+            iterator.next();
+            fail("the iterator must fail after the map was modified");
+        }
+        catch (ConcurrentModificationException e)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * The dictionaries keep their entries in the order they were added.
+     */
+    public void testDictionaryOrder()
+    {
+        COSDictionary dict = new COSDictionary();
+        List<COSName> keys = new ArrayList<COSName>();
+        for (int i = 20; i > 0; i--)
+        {
+            COSName key = COSName.getPDFName("Key" + i);
+            keys.add(key);
+            dict.setInt(key, i);
+        }
+        assertEquals(keys, new ArrayList<COSName>(dict.keySet()));
+        COSDictionary copy = new COSDictionary(dict);
+        assertEquals(keys, new ArrayList<COSName>(copy.keySet()));
+        assertEquals(7, copy.getInt(COSName.getPDFName("Key7")));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests {@link XrefIndex} against a {@link HashMap}.
+ */
+public class TestXrefIndex extends TestCase
+{
+    /**
+     * Adds, replaces and removes entries kept in the arrays as well as in the sparse map.
+     */
+    public void testAgainstHashMap()
+    {
+        XrefIndex index = new XrefIndex();
+        Map<COSObjectKey, Long> expected = new HashMap<COSObjectKey, Long>();
+        for (int i = 0; i < 5000; i++)
+        {
+            // mostly dense numbers, a few huge ones and a second generation for some numbers
+            long objNr = i % 97 == 0 ? 1000000000L + i : i % 3000;
+            long genNr = i % 13 == 0 ? 1 : 0;
+            COSObjectKey key = new COSObjectKey(objNr, genNr);
+            Long value = i % 7 == 0 ? -(long) (i % 11 + 1) : 100L * i;
+            assertEquals(expected.put(key, value), index.put(key, value));
+            if (i % 10 == 9)
+            {
+                COSObjectKey removed = new COSObjectKey(i / 2, 0);
+                assertEquals(expected.remove(removed), index.remove(removed));
+            }
+        }
+        assertEquals(expected, index);
+        assertEquals(index, expected);
+        assertEquals(expected.hashCode(), index.hashCode());
+        for (Map.Entry<COSObjectKey, Long> entry : expected.entrySet())
+        {
+            COSObjectKey key = entry.getKey();
+            assertEquals(entry.getValue().longValue(),
+                    index.getOffset(key.getNumber(), key.getGeneration()));
+        }
+        assertEquals(XrefIndex.NOT_FOUND, index.getOffset(5, 7));
+        assertEquals(XrefIndex.NOT_FOUND, index.getOffset(-1, 0));
+        assertNull(index.get(new COSObjectKey(999999999999L, 0)));
+
+        Set<Long> contained = new HashSet<Long>();
+        for (Map.Entry<COSObjectKey, Long> entry : expected.entrySet())
+        {
+            if (entry.getValue() == -3)
+            {
+                contained.add(entry.getKey().getNumber());
+            }
+        }
+        assertFalse(contained.isEmpty());
+        assertEquals(contained, index.getContainedObjectNumbers(3));
+
+        XrefIndex copy = new XrefIndex();
+        copy.putAll(index);
+        assertEquals(expected, copy);
+    }
+
+    /**
+     * Modifies an index using the iterator and the entries of its entry set.
+     */
+    public void testIterator()
+    {
+        XrefIndex index = new XrefIndex();
+        for (int i = 0; i < 10; i++)
+        {
+            index.put(i, 0, 10 * i);
+        }
+        index.put(1, 2, 12);
+        Iterator<Map.Entry<COSObjectKey, Long>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            Map.Entry<COSObjectKey, Long> entry = iterator.next();
+            if (entry.getKey().getNumber() % 2 == 0)
+            {
+                iterator.remove();
+            }
+            else
+            {
+                entry.setValue(entry.getValue() + 1);
+            }
+        }
+        assertEquals(6, index.size());
+        assertEquals(XrefIndex.NOT_FOUND, index.getOffset(4, 0));
+        assertEquals(31, index.getOffset(3, 0));
+        assertEquals(13, index.getOffset(1, 2));
+        assertEquals(11, index.getOffset(1, 0));
+    }
+}
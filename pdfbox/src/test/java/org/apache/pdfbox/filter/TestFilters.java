@@ -20,13 +20,19 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import junit.framework.TestCase;
 
+import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
 
 /**
  * This will test all of the filters in the PDFBox system.
@@ -138,6 +144,286 @@ public class TestFilters extends TestCase
         checkEncodeDecode(lzwFilter, baos.toByteArray());
     }
 
+    /**
+     * This will test the LZW filter with the example of the PDF specification, the encoded
+     * data must match bit by bit.
+     *
+     * @throws IOException If there is an exception while encoding or decoding.
+     */
+    public void testLZWSpecificationExample() throws IOException
+    {
+        Filter lzwFilter = FilterFactory.INSTANCE.getFilter(COSName.LZW_DECODE);
+        byte[] original = "-----A---B".getBytes("US-ASCII");
+        // codes 256 45 258 258 65 259 66 257
+        byte[] expected = new byte[] { (byte) 0x80, 0x0B, 0x60, 0x50, 0x22, 0x0C, 0x0C,
+                (byte) 0x85, 0x01 };
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        lzwFilter.encode(new ByteArrayInputStream(original), encoded, new COSDictionary(), 0);
+        assertTrue(Arrays.equals(expected, encoded.toByteArray()));
+        checkEncodeDecode(lzwFilter, original);
+    }
+
+    /**
+     * This will test the decoding of a stream using a chain of filters decoding on demand.
+     *
+     * @throws IOException If there is an exception while encoding or decoding.
+     */
+    public void testFilterChain() throws IOException
+    {
+        byte[] original = new byte[50000];
+        Random random = new Random(4711);
+        for (int i = 0; i < original.length; i++)
+        {
+            original[i] = (byte) (i % 7 == 0 ? random.nextInt() : i / 100);
+        }
+        COSArray filters = new COSArray();
+        filters.add(COSName.ASCII_HEX_DECODE);
+        filters.add(COSName.ASCII85_DECODE);
+        filters.add(COSName.FLATE_DECODE);
+        COSStream stream = new COSStream();
+        OutputStream out = stream.createUnfilteredStream();
+        out.write(original);
+        out.close();
+        stream.setFilters(filters);
+        byte[] encoded = IOUtils.toByteArray(stream.getFilteredStream());
+
+        COSStream parsedStream = new COSStream();
+        parsedStream.setItem(COSName.FILTER, filters);
+        out = parsedStream.createFilteredStream();
+        out.write(encoded);
+        out.close();
+        InputStream decoded = parsedStream.getUnfilteredStream();
+        // the first bytes are available before the whole stream is decoded
+        byte[] start = new byte[100];
+        assertEquals(100, decoded.read(start));
+        assertTrue(Arrays.equals(Arrays.copyOf(original, 100), start));
+        decoded.close();
+        assertTrue(Arrays.equals(original,
+                IOUtils.toByteArray(parsedStream.getUnfilteredStream())));
+        assertSame(DecodeResult.DEFAULT, parsedStream.getDecodeResult());
+    }
+
+    /**
+     * This will test the compression settings of Flate encoded streams.
+     *
+     * @throws IOException If there is an exception while encoding or decoding.
+     */
+    public void testCompressionSettings() throws IOException
+    {
+        byte[] original = new byte[20000];
+        for (int i = 0; i < original.length; i++)
+        {
+            original[i] = (byte) (i % 13);
+        }
+        long previousLength = 0;
+        for (int level : new int[] { Deflater.BEST_COMPRESSION, Deflater.NO_COMPRESSION })
+        {
+            COSStream stream = new COSStream();
+            stream.setCompression(level, Deflater.DEFAULT_STRATEGY);
+            OutputStream out = stream.createUnfilteredStream();
+            out.write(original);
+            out.close();
+            stream.setFilters(COSName.FLATE_DECODE);
+            long length = stream.getFilteredLength();
+            assertTrue(length > previousLength);
+            previousLength = length;
+
+            COSStream parsedStream = new COSStream();
+            parsedStream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+            out = parsedStream.createFilteredStream();
+            out.write(IOUtils.toByteArray(stream.getFilteredStream()));
+            out.close();
+            assertTrue(Arrays.equals(original,
+                    IOUtils.toByteArray(parsedStream.getUnfilteredStream())));
+        }
+        assertTrue(previousLength > original.length);
+    }
+
+    /**
+     * This will test that the compression settings passed by a writer are used for a single
+     * encoding only and don't replace the settings of the stream.
+     *
+     * @throws IOException If there is an exception while encoding or decoding.
+     */
+    public void testDefaultCompressionSettings() throws IOException
+    {
+        byte[] original = new byte[20000];
+        for (int i = 0; i < original.length; i++)
+        {
+            original[i] = (byte) (i % 13);
+        }
+        COSStream stream = new COSStream();
+        OutputStream out = stream.createUnfilteredStream();
+        out.write(original);
+        out.close();
+        stream.setFilters(COSName.FLATE_DECODE);
+
+        stream.encode(Deflater.BEST_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+        long bestLength = stream.getFilteredLength();
+        assertEquals(Deflater.DEFAULT_COMPRESSION, stream.getCompressionLevel());
+        stream.encode(Deflater.NO_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+        long noCompressionLength = stream.getFilteredLength();
+        assertTrue(noCompressionLength > original.length);
+        assertTrue(bestLength < noCompressionLength);
+        assertEquals(Deflater.DEFAULT_COMPRESSION, stream.getCompressionLevel());
+        assertTrue(Arrays.equals(original, IOUtils.toByteArray(stream.getUnfilteredStream())));
+
+        // the settings of the stream take precedence
+        stream.setCompression(Deflater.BEST_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+        stream.encode(Deflater.NO_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+        assertEquals(bestLength, stream.getFilteredLength());
+    }
+
+    /**
+     * This will test that the inflaters pooled by a thread are ended when the thread releases its
+     * resources, and that deflaters are ended when they are released.
+     *
+     * @throws IOException If there is an exception while encoding or decoding.
+     */
+    public void testReleaseThreadResources() throws IOException
+    {
+        Inflater inflater = FlateCodecPool.acquireInflater();
+        FlateCodecPool.release(inflater);
+        assertSame(inflater, FlateCodecPool.acquireInflater());
+        FlateCodecPool.release(inflater);
+
+        Filter.releaseThreadResources();
+        try
+        {
+            inflater.getBytesRead();
+            fail("the pooled inflater should have been ended");
+        }
+        catch (NullPointerException expected)
+        {
+        }
+        assertNotSame(inflater, FlateCodecPool.acquireInflater());
+
+        Deflater deflater = FlateCodecPool.acquireDeflater(Deflater.DEFAULT_COMPRESSION,
+                Deflater.DEFAULT_STRATEGY);
+        FlateCodecPool.release(deflater);
+        try
+        {
+            deflater.getBytesRead();
+            fail("the released deflater should have been ended");
+        }
+        catch (NullPointerException expected)
+        {
+        }
+
+        // decoding works again afterwards
+        byte[] original = new byte[5000];
+        Arrays.fill(original, (byte) 'x');
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        filter.encode(new ByteArrayInputStream(original), encoded, new COSDictionary(), 0);
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        filter.decode(new ByteArrayInputStream(encoded.toByteArray()), decoded,
+                new COSDictionary(), 0);
+        assertTrue(Arrays.equals(original, decoded.toByteArray()));
+    }
+
+    /**
+     * This will test the decoding of data using a PNG predictor with all row predictors,
+     * including an incomplete last row.
+     *
+     * @throws IOException If there is an exception while encoding or decoding.
+     */
+    public void testPNGPredictor() throws IOException
+    {
+        final int columns = 37;
+        final int bytesPerPixel = 3;
+        final int rowLength = columns * bytesPerPixel;
+        final int rows = 20;
+        Random random = new Random(815);
+        byte[] original = new byte[rows * rowLength];
+        for (int i = 0; i < original.length; i++)
+        {
+            original[i] = (byte) (i % rowLength + random.nextInt(8));
+        }
+        ByteArrayOutputStream predicted = new ByteArrayOutputStream();
+        byte[] prior = new byte[rowLength];
+        for (int row = 0; row < rows; row++)
+        {
+            int type = row % 5;
+            predicted.write(type);
+            for (int p = 0; p < rowLength; p++)
+            {
+                int x = original[row * rowLength + p] & 0xff;
+                int a = p >= bytesPerPixel ? original[row * rowLength + p - bytesPerPixel] & 0xff : 0;
+                int b = prior[p] & 0xff;
+                int c = p >= bytesPerPixel ? prior[p - bytesPerPixel] & 0xff : 0;
+                int predictedValue = 0;
+                if (type == 1)
+                {
+                    predictedValue = a;
+                }
+                else if (type == 2)
+                {
+                    predictedValue = b;
+                }
+                else if (type == 3)
+                {
+                    predictedValue = (a + b) / 2;
+                }
+                else if (type == 4)
+                {
+                    int value = a + b - c;
+                    int absa = Math.abs(value - a);
+                    int absb = Math.abs(value - b);
+                    int absc = Math.abs(value - c);
+                    predictedValue = absa <= absb && absa <= absc ? a : absb <= absc ? b : c;
+                }
+                predicted.write(x - predictedValue);
+            }
+            System.arraycopy(original, row * rowLength, prior, 0, rowLength);
+        }
+        // incomplete last row using the "up" predictor, it is completed with the previous row
+        predicted.write(2);
+        predicted.write(5);
+        byte[] expected = Arrays.copyOf(original, original.length + rowLength);
+        System.arraycopy(original, original.length - rowLength, expected, original.length,
+                rowLength);
+        expected[original.length] = (byte) (expected[original.length] + 5);
+        for (int p = original.length + 1; p < expected.length; p++)
+        {
+            expected[p] = (byte) (expected[p] * 2);
+        }
+
+        COSDictionary decodeParams = new COSDictionary();
+        decodeParams.setInt(COSName.PREDICTOR, 15);
+        decodeParams.setInt(COSName.COLORS, bytesPerPixel);
+        decodeParams.setInt(COSName.COLUMNS, columns);
+        COSDictionary parameters = new COSDictionary();
+        parameters.setItem(COSName.DECODE_PARMS, decodeParams);
+        for (COSName filterName : new COSName[] { COSName.FLATE_DECODE, COSName.LZW_DECODE })
+        {
+            Filter filter = FilterFactory.INSTANCE.getFilter(filterName);
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            filter.encode(new ByteArrayInputStream(predicted.toByteArray()), encoded,
+                    new COSDictionary(), 0);
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            filter.decode(new ByteArrayInputStream(encoded.toByteArray()), decoded, parameters, 0);
+            assertTrue(filterName.getName(), Arrays.equals(expected, decoded.toByteArray()));
+        }
+    }
+
+    /**
+     * This will test the decoding of run length encoded data.
+     *
+     * @throws IOException If there is an exception while decoding.
+     */
+    public void testRunLengthDecode() throws IOException
+    {
+        byte[] encoded = { 2, 'a', 'b', 'c', (byte) 253, 'x', 0, 'd', (byte) 128, 'e' };
+        byte[] expected = { 'a', 'b', 'c', 'x', 'x', 'x', 'x', 'd' };
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.RUN_LENGTH_DECODE);
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        filter.decode(new ByteArrayInputStream(encoded), decoded, new COSDictionary(), 0);
+        assertTrue(Arrays.equals(expected, decoded.toByteArray()));
+        assertTrue(Arrays.equals(expected, IOUtils.toByteArray(
+                filter.decode(new ByteArrayInputStream(encoded), new COSDictionary(), 0))));
+    }
+
     private void checkEncodeDecode(Filter filter, byte[] original) throws IOException
     {
         ByteArrayOutputStream encoded = new ByteArrayOutputStream();
@@ -150,5 +436,15 @@ public class TestFilters extends TestCase
                 "Data that is encoded and then decoded through "
                 + filter.getClass() + " does not match the original data",
                 Arrays.equals(original, decoded.toByteArray()));
+
+        InputStream decodingStream = filter.decode(
+                new ByteArrayInputStream(encoded.toByteArray()), new COSDictionary(), 0);
+        if (decodingStream != null)
+        {
+            assertTrue(
+                    "Data that is encoded and then decoded on demand through "
+                    + filter.getClass() + " does not match the original data",
+                    Arrays.equals(original, IOUtils.toByteArray(decodingStream)));
+        }
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+/**
+ * This is a unit test for {@link RandomAccessMappedFileInputStream}.
+ *
+ */
+public class TestRandomAccessMappedFileInputStream extends TestCase
+{
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        // 100 bytes with the values 0 to 99
+        file = File.createTempFile("pdfbox", ".bin");
+        FileOutputStream fos = new FileOutputStream(file);
+        for (int i = 0; i < 100; i++)
+        {
+            fos.write(i);
+        }
+        fos.close();
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        file.delete();
+    }
+
+    /**
+     * Read the whole file byte by byte using chunks of 16 bytes.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testReadAcrossChunks() throws IOException
+    {
+        RandomAccessMappedFileInputStream input = new RandomAccessMappedFileInputStream(file, 4);
+        assertEquals(100, input.length());
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals(i, input.getPosition());
+            assertEquals(i, input.read());
+        }
+        assertEquals(-1, input.read());
+        input.close();
+        assertTrue(input.isClosed());
+    }
+
+    /**
+     * Read arrays which start in one chunk and end in another one.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testArrayReadAcrossChunks() throws IOException
+    {
+        RandomAccessMappedFileInputStream input = new RandomAccessMappedFileInputStream(file, 4);
+        byte[] buffer = new byte[20];
+        input.seek(10);
+        int read = input.read(buffer, 0, 20);
+        // the read stops at the end of the current chunk
+        assertEquals(6, read);
+        read += input.read(buffer, read, 20 - read);
+        assertEquals(20, read);
+        for (int i = 0; i < 20; i++)
+        {
+            assertEquals(10 + i, buffer[i]);
+        }
+        assertEquals(30, input.getPosition());
+        input.close();
+    }
+
+    /**
+     * Seek to several positions, including positions beyond the end of the file.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testSeek() throws IOException
+    {
+        RandomAccessMappedFileInputStream input = new RandomAccessMappedFileInputStream(file, 4);
+        input.seek(99);
+        assertEquals(99, input.read());
+        input.seek(32);
+        assertEquals(32, input.read());
+        input.seek(150);
+        assertEquals(-1, input.read());
+        assertEquals(-1, input.read(new byte[10], 0, 10));
+        input.seek(0);
+        assertEquals(0, input.read());
+        assertEquals(10, input.skip(10));
+        assertEquals(11, input.read());
+        input.close();
+    }
+
+    /**
+     * Read the file using the default chunk size wrapped in a {@link PushBackInputStream}.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testPushBackInputStream() throws IOException
+    {
+        PushBackInputStream input = new PushBackInputStream(
+                new RandomAccessMappedFileInputStream(file), 16);
+        assertEquals(0, input.read());
+        assertEquals(1, input.peek());
+        input.seek(50);
+        assertEquals(50, input.read());
+        input.unread(50);
+        assertEquals(50, input.getOffset());
+        assertEquals(50, input.read());
+        input.close();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.io;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * This is a unit test for {@link ScratchFile}.
+ *
+ */
+public class TestScratchFile extends TestCase
+{
+    private File scratchDirectory;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        scratchDirectory = new File("target/test-output/scratch");
+        scratchDirectory.mkdirs();
+    }
+
+    /**
+     * Write and read data across page boundaries using pages in memory and in the file.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testReadWrite() throws IOException
+    {
+        // two pages in memory, all others in the scratch file
+        ScratchFile scratchFile = new ScratchFile(scratchDirectory, 2 * ScratchFile.PAGE_SIZE);
+        RandomAccess first = scratchFile.createBuffer();
+        RandomAccess second = scratchFile.createBuffer();
+        byte[] data = new byte[5 * ScratchFile.PAGE_SIZE + 100];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) i;
+        }
+        // interleave both buffers to spread their pages
+        for (int i = 0; i < data.length; i += 1000)
+        {
+            int length = Math.min(1000, data.length - i);
+            first.write(data, i, length);
+            second.write(data[i]);
+        }
+        assertEquals(data.length, first.length());
+        assertEquals((data.length + 999) / 1000, second.length());
+
+        byte[] read = new byte[data.length];
+        first.seek(0);
+        assertEquals(data.length, first.read(read, 0, read.length));
+        for (int i = 0; i < data.length; i++)
+        {
+            assertEquals(data[i], read[i]);
+        }
+        assertEquals(-1, first.read());
+        second.seek(3);
+        assertEquals(data[3000] & 0xff, second.read());
+
+        // overwrite data in the middle
+        first.seek(ScratchFile.PAGE_SIZE * 3 - 1);
+        first.write(new byte[] { 1, 2, 3 }, 0, 3);
+        first.seek(ScratchFile.PAGE_SIZE * 3 - 2);
+        assertEquals(data[ScratchFile.PAGE_SIZE * 3 - 2] & 0xff, first.read());
+        assertEquals(1, first.read());
+        assertEquals(2, first.read());
+        assertEquals(3, first.read());
+        assertEquals(data.length, first.length());
+
+        first.close();
+        second.close();
+        scratchFile.close();
+    }
+
+    /**
+     * The pages of closed buffers are reused and the scratch file is deleted on close.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testPageReuse() throws IOException
+    {
+        int filesBefore = getNumberOfScratchFiles();
+        ScratchFile scratchFile = new ScratchFile(scratchDirectory, 0);
+        RandomAccess buffer = scratchFile.createBuffer();
+        buffer.write(new byte[ScratchFile.PAGE_SIZE * 4], 0, ScratchFile.PAGE_SIZE * 4);
+        buffer.close();
+        assertTrue(buffer.isClosed());
+        assertEquals(filesBefore + 1, getNumberOfScratchFiles());
+
+        // the new buffer uses the freed pages, thus no new page is added
+        buffer = scratchFile.createBuffer();
+        for (int i = 0; i < ScratchFile.PAGE_SIZE * 4; i++)
+        {
+            buffer.write(i);
+        }
+        assertEquals(4, scratchFile.getNewPage());
+        buffer.seek(ScratchFile.PAGE_SIZE * 2 + 7);
+        assertEquals((ScratchFile.PAGE_SIZE * 2 + 7) & 0xff, buffer.read());
+
+        scratchFile.close();
+        assertEquals(filesBefore, getNumberOfScratchFiles());
+        try
+        {
+            scratchFile.createBuffer();
+            fail("a closed scratch file must not create new buffers");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * A write behind the end of a buffer fills the gap with zeros, even if the pages held data
+     * of another buffer before.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testSeekPastEnd() throws IOException
+    {
+        // one page in memory, all others in the scratch file
+        ScratchFile scratchFile = new ScratchFile(scratchDirectory, ScratchFile.PAGE_SIZE);
+        RandomAccess buffer = scratchFile.createBuffer();
+        byte[] data = new byte[ScratchFile.PAGE_SIZE * 3];
+        Arrays.fill(data, (byte) 0x55);
+        buffer.write(data, 0, data.length);
+        buffer.close();
+
+        buffer = scratchFile.createBuffer();
+        buffer.write(1);
+        buffer.seek(ScratchFile.PAGE_SIZE * 2 + 10);
+        buffer.write(new byte[] { 2, 3 }, 0, 2);
+        assertEquals(ScratchFile.PAGE_SIZE * 2 + 12, buffer.length());
+        byte[] read = new byte[(int) buffer.length()];
+        buffer.seek(0);
+        assertEquals(read.length, buffer.read(read, 0, read.length));
+        assertEquals(1, read[0]);
+        for (int i = 1; i < read.length - 2; i++)
+        {
+            assertEquals("byte " + i, 0, read[i]);
+        }
+        assertEquals(2, read[read.length - 2]);
+        assertEquals(3, read[read.length - 1]);
+
+        // a single byte written behind the end
+        buffer.seek(buffer.length() + 5);
+        buffer.write(4);
+        buffer.seek(read.length);
+        for (int i = 0; i < 5; i++)
+        {
+            assertEquals(0, buffer.read());
+        }
+        assertEquals(4, buffer.read());
+        assertEquals(-1, buffer.read());
+
+        buffer.close();
+        scratchFile.close();
+    }
+
+    private int getNumberOfScratchFiles()
+    {
+        File[] files = scratchDirectory.listFiles(new FilenameFilter()
+        {
+            public boolean accept(File dir, String name)
+            {
+                return name.startsWith("PDFBox") && name.endsWith(".tmp");
+            }
+        });
+        return files == null ? 0 : files.length;
+    }
+}
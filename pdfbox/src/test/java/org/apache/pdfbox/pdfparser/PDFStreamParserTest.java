@@ -84,6 +84,46 @@ public class PDFStreamParserTest extends TestCase
         testInlineImage2ops("ID\n12EI5EI          Q   ", "12EI5", "Q");
     }
 
+    /**
+     * Tests that standard operators get their opcodes and other operators don't.
+     *
+     * @throws IOException
+     */
+    public void testOpcodes() throws IOException
+    {
+        List<Object> tokens = parseTokenString("q 1 0 0 1 0 0 cm 0 0 m T* foo Q");
+        Operator q = (Operator) tokens.get(0);
+        Operator cm = (Operator) tokens.get(7);
+        Operator m = (Operator) tokens.get(10);
+        Operator nextLine = (Operator) tokens.get(11);
+        Operator foo = (Operator) tokens.get(12);
+        Operator bigQ = (Operator) tokens.get(13);
+
+        assertEquals("cm", cm.getName());
+        assertSame(Operator.getOperator("cm"), cm);
+        assertEquals(Operator.getOpcode("cm"), cm.getOpcode());
+        assertEquals(Operator.getOpcode("T*"), nextLine.getOpcode());
+
+        int[] opcodes = { q.getOpcode(), cm.getOpcode(), m.getOpcode(), nextLine.getOpcode(),
+                bigQ.getOpcode() };
+        for (int i = 0; i < opcodes.length; i++)
+        {
+            assertTrue(opcodes[i] >= 0 && opcodes[i] < Operator.STANDARD_OPERATOR_COUNT);
+            for (int j = 0; j < i; j++)
+            {
+                assertTrue(opcodes[i] != opcodes[j]);
+            }
+        }
+
+        assertEquals("foo", foo.getName());
+        assertEquals(Operator.NO_OPCODE, foo.getOpcode());
+        assertEquals(Operator.NO_OPCODE, Operator.getOpcode("foo"));
+
+        // inline images aren't cached but have an opcode
+        assertEquals(Operator.getOpcode("BI"), Operator.getOperator("BI").getOpcode());
+        assertTrue(Operator.getOpcode("BI") != Operator.NO_OPCODE);
+    }
+
     // checks whether there are two operators, one inline image and the named operator
     private void testInlineImage2ops(String s, String imageDataString, String opName) throws IOException
     {
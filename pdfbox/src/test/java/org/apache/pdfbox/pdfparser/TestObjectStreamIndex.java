@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.junit.Test;
+
+/**
+ * Tests parsing single objects of an object stream with {@link ObjectStreamIndex}.
+ */
+public class TestObjectStreamIndex
+{
+    private static final String OBJECTS = "<</Type/Font>> [1 2 3] 42";
+
+    /**
+     * Parses the objects in an order different from the stream by their offsets.
+     */
+    @Test
+    public void testParseObject() throws IOException
+    {
+        ObjectStreamIndex index = createIndex("10 0 11 15 12 23 ");
+        assertEquals(-1, index.indexOf(13));
+        assertObjects(index);
+    }
+
+    /**
+     * Falls back to parsing all objects one after another if the offsets are out of range.
+     */
+    @Test
+    public void testInvalidOffsets() throws IOException
+    {
+        ObjectStreamIndex index = createIndex("10 0 11 1000 12 -5 ");
+        assertObjects(index);
+    }
+
+    private void assertObjects(ObjectStreamIndex index) throws IOException
+    {
+        COSBase number = index.parseObject(index.indexOf(12));
+        assertEquals(COSInteger.get(42), number);
+        COSBase array = index.parseObject(index.indexOf(11));
+        assertTrue(array instanceof COSArray);
+        assertEquals(3, ((COSArray) array).size());
+        COSBase dictionary = index.parseObject(index.indexOf(10));
+        assertTrue(dictionary instanceof COSDictionary);
+        assertEquals(COSName.FONT, ((COSDictionary) dictionary).getCOSName(COSName.TYPE));
+    }
+
+    private ObjectStreamIndex createIndex(String header) throws IOException
+    {
+        COSStream stream = new COSStream();
+        stream.setItem(COSName.TYPE, COSName.OBJ_STM);
+        stream.setInt(COSName.N, 3);
+        stream.setInt(COSName.FIRST, header.length());
+        OutputStream out = stream.createUnfilteredStream();
+        out.write((header + OBJECTS).getBytes("ISO-8859-1"));
+        out.close();
+        return new ObjectStreamIndex(stream, new COSDocument());
+    }
+}
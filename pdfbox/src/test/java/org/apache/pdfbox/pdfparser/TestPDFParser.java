@@ -21,14 +21,32 @@
 
 package org.apache.pdfbox.pdfparser;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -118,6 +136,248 @@ public class TestPDFParser
         executeParserTest(pdfParser);
     }
 
+    /**
+     * Streams of a file are read on demand, they have to be the same as the copied streams
+     * of an input stream and they can't be read after the document was closed.
+     */
+    @Test
+    public void testStreamDataReadOnDemand() throws IOException
+    {
+        PDFParser fileParser = new PDFParser(new File(PATH_OF_PDF));
+        fileParser.parse();
+        COSDocument fileDocument = fileParser.getDocument();
+        PDFParser inputStreamParser = new PDFParser(new FileInputStream(PATH_OF_PDF));
+        inputStreamParser.parse();
+        COSDocument inputStreamDocument = inputStreamParser.getDocument();
+
+        COSStream lastStream = null;
+        for (COSObject object : fileDocument.getObjects())
+        {
+            if (object.getObject() instanceof COSStream)
+            {
+                COSStream stream = (COSStream) object.getObject();
+                COSStream copiedStream = (COSStream) inputStreamDocument.getObjectFromPool(
+                        new COSObjectKey(object)).getObject();
+                assertArrayEquals(IOUtils.toByteArray(copiedStream.getFilteredStream()),
+                        IOUtils.toByteArray(stream.getFilteredStream()));
+                assertArrayEquals(IOUtils.toByteArray(copiedStream.getUnfilteredStream()),
+                        IOUtils.toByteArray(stream.getUnfilteredStream()));
+                lastStream = stream;
+            }
+        }
+        assertNotNull(lastStream);
+        inputStreamDocument.close();
+        fileDocument.close();
+        try
+        {
+            lastStream.getUnfilteredStream();
+            fail("stream of a closed document must not be readable");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage().contains("closed"));
+        }
+    }
+
+    /**
+     * A lazily loaded document parses its objects when they are accessed, they have to be the
+     * same as the objects of an eagerly loaded document.
+     */
+    @Test
+    public void testLazyLoading() throws IOException
+    {
+        PDFParser eagerParser = new PDFParser(new File(PATH_OF_PDF));
+        eagerParser.parse();
+        PDDocument eagerDocument = eagerParser.getPDDocument();
+        PDFParser fileParser = new PDFParser(new File(PATH_OF_PDF));
+        fileParser.setLazyLoading(true);
+        fileParser.parse();
+        PDDocument fileDocument = fileParser.getPDDocument();
+        PDFParser inputStreamParser = new PDFParser(new FileInputStream(PATH_OF_PDF));
+        inputStreamParser.setLazyLoading(true);
+        inputStreamParser.parse();
+        PDDocument inputStreamDocument = inputStreamParser.getPDDocument();
+
+        for (PDDocument lazyDocument : new PDDocument[] { fileDocument, inputStreamDocument })
+        {
+            // only the objects referenced by the trailer and the catalog are known so far
+            assertTrue(lazyDocument.getDocument().getObjects().size()
+                    < eagerDocument.getDocument().getObjects().size());
+            assertEquals(eagerDocument.getNumberOfPages(), lazyDocument.getNumberOfPages());
+            for (COSObject object : eagerDocument.getDocument().getObjects())
+            {
+                COSBase lazyObject = lazyDocument.getDocument().getObjectFromPool(
+                        new COSObjectKey(object)).getObject();
+                assertNotNull(lazyObject);
+                assertEquals(object.getObject().getClass(), lazyObject.getClass());
+                if (lazyObject instanceof COSStream)
+                {
+                    assertArrayEquals(
+                            IOUtils.toByteArray(((COSStream) object.getObject()).getUnfilteredStream()),
+                            IOUtils.toByteArray(((COSStream) lazyObject).getUnfilteredStream()));
+                }
+            }
+        }
+        eagerDocument.close();
+        fileDocument.close();
+        inputStreamDocument.close();
+        // the temporary file of the input stream is kept until the document is closed
+        assertEquals(numberOfTmpFiles, getNumberOfTempFile());
+    }
+
+    /**
+     * Several threads access the objects of one lazily loaded document in different orders.
+     */
+    @Test
+    public void testConcurrentLazyLoading() throws Exception
+    {
+        PDFParser eagerParser = new PDFParser(new File(PATH_OF_PDF));
+        eagerParser.parse();
+        final PDDocument eagerDocument = eagerParser.getPDDocument();
+        PDFParser lazyParser = new PDFParser(new File(PATH_OF_PDF));
+        lazyParser.setLazyLoading(true);
+        lazyParser.parse();
+        final PDDocument lazyDocument = lazyParser.getPDDocument();
+
+        final List<COSObject> objects = eagerDocument.getDocument().getObjects();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++)
+        {
+            final List<COSObject> order = new ArrayList<COSObject>(objects);
+            Collections.shuffle(order, new Random(i));
+            threads[i] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for (COSObject object : order)
+                        {
+                            COSBase lazyObject = lazyDocument.getDocument().getObjectFromPool(
+                                    new COSObjectKey(object)).getObject();
+                            assertNotNull(lazyObject);
+                            assertEquals(object.getObject().getClass(), lazyObject.getClass());
+                            if (lazyObject instanceof COSStream)
+                            {
+                                assertArrayEquals(IOUtils.toByteArray(
+                                        ((COSStream) object.getObject()).getUnfilteredStream()),
+                                        IOUtils.toByteArray(
+                                        ((COSStream) lazyObject).getUnfilteredStream()));
+                            }
+                        }
+                    }
+                    catch (Throwable t)
+                    {
+                        errors.add(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        eagerDocument.close();
+        lazyDocument.close();
+        assertEquals(Collections.emptyList(), errors);
+    }
+
+    /**
+     * A compressed object is parsed while another thread holds the lock of its object stream,
+     * which the other thread may hold while it waits for the parser.
+     */
+    @Test
+    public void testLazyLoadingWithLockedObjectStream() throws Exception
+    {
+        PDFParser lazyParser = new PDFParser(new File("src/test/resources/input/hello3.pdf"));
+        lazyParser.setLazyLoading(true);
+        lazyParser.parse();
+        final PDDocument lazyDocument = lazyParser.getPDDocument();
+        final COSDocument document = lazyDocument.getDocument();
+
+        COSObjectKey compressedKey = null;
+        long objstmObjNr = 0;
+        for (Map.Entry<COSObjectKey, Long> entry : document.getXrefTable().entrySet())
+        {
+            if (entry.getValue() < 0)
+            {
+                compressedKey = entry.getKey();
+                objstmObjNr = -entry.getValue();
+            }
+        }
+        assertNotNull(compressedKey);
+        final COSBase objectStream =
+                document.getObjectFromPool(new COSObjectKey(objstmObjNr, 0)).getObject();
+        assertTrue(objectStream instanceof COSStream);
+
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch parsed = new CountDownLatch(1);
+        final boolean[] parsedWhileLocked = new boolean[1];
+        Thread lockingThread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                synchronized (objectStream)
+                {
+                    locked.countDown();
+                    try
+                    {
+                        parsedWhileLocked[0] = parsed.await(10, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        // the result remains false
+                    }
+                }
+            }
+        };
+        lockingThread.start();
+        locked.await();
+        assertNotNull(document.getObjectFromPool(compressedKey).getObject());
+        parsed.countDown();
+        lockingThread.join();
+        lazyDocument.close();
+        assertTrue(parsedWhileLocked[0]);
+    }
+
+    /**
+     * A wrong startxref offset is repaired by the brute force search for the xref and all
+     * objects of the file.
+     */
+    @Test
+    public void testWrongStartxref() throws IOException
+    {
+        byte[] data = IOUtils.toByteArray(new FileInputStream(PATH_OF_PDF));
+        String content = new String(data, "ISO-8859-1");
+        int startxref = content.lastIndexOf("startxref");
+        int offsetStart = startxref + "startxref".length();
+        while (Character.isWhitespace(content.charAt(offsetStart)))
+        {
+            offsetStart++;
+        }
+        int offsetEnd = offsetStart;
+        while (Character.isDigit(content.charAt(offsetEnd)))
+        {
+            offsetEnd++;
+        }
+        long offset = Long.parseLong(content.substring(offsetStart, offsetEnd));
+        String broken = content.substring(0, offsetStart) + (offset - 5)
+                + content.substring(offsetEnd);
+
+        PDDocument expected = PDDocument.load(new File(PATH_OF_PDF));
+        PDDocument repaired = PDDocument.load(new ByteArrayInputStream(
+                broken.getBytes("ISO-8859-1")));
+        assertEquals(expected.getNumberOfPages(), repaired.getNumberOfPages());
+        assertEquals(expected.getDocumentInformation().getTitle(),
+                repaired.getDocumentInformation().getTitle());
+        expected.close();
+        repaired.close();
+    }
+
     private void executeParserTest(PDFParser pdfParser) throws IOException
     {
         pdfParser.parse();
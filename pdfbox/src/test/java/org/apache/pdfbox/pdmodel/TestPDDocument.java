@@ -20,11 +20,18 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
 
 import junit.framework.TestCase;
 
@@ -152,4 +159,81 @@ public class TestPDDocument extends TestCase
         assertEquals(1, loadDoc.getNumberOfPages());
         loadDoc.close();
     }
+
+    /**
+     * Test saving a document over the file it was loaded from, as the stream data of the document
+     * is read from that file while it is written.
+     */
+    public void testSaveOverSourceFile() throws IOException
+    {
+        File targetFile = new File(testResultsDir, "pddocument-saveoversourcefile.pdf");
+        InputStream in = new FileInputStream("src/test/resources/input/cweb.pdf");
+        OutputStream out = new FileOutputStream(targetFile);
+        IOUtils.copy(in, out);
+        out.close();
+        in.close();
+
+        PDDocument document = PDDocument.load(targetFile);
+        List<byte[]> contents = getContents(document);
+        document.getDocumentInformation().setTitle("saved over its source");
+        document.save(targetFile);
+        // the document can still be used after it has been saved
+        assertEquals(contents.size(), getContents(document).size());
+        document.close();
+
+        PDDocument loadDoc = PDDocument.load(targetFile);
+        assertEquals("saved over its source", loadDoc.getDocumentInformation().getTitle());
+        List<byte[]> savedContents = getContents(loadDoc);
+        assertEquals(contents.size(), savedContents.size());
+        for (int i = 0; i < contents.size(); i++)
+        {
+            assertTrue(Arrays.equals(contents.get(i), savedContents.get(i)));
+        }
+        loadDoc.close();
+    }
+
+    private static List<byte[]> getContents(PDDocument document) throws IOException
+    {
+        List<byte[]> contents = new ArrayList<byte[]>();
+        for (int i = 0; i < document.getNumberOfPages(); i++)
+        {
+            InputStream in = document.getPage(i).getStream().createInputStream();
+            contents.add(IOUtils.toByteArray(in));
+            in.close();
+        }
+        return contents;
+    }
+
+    /**
+     * Test that a font shared by two pages is created once by the resource cache.
+     */
+    public void testResourceCache() throws IOException
+    {
+        // Create PDF with two pages using the same font
+        PDDocument document = new PDDocument();
+        for (int i = 0; i < 2; i++)
+        {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            PDPageContentStream contentStream = new PDPageContentStream(document, page);
+            contentStream.setFont(PDType1Font.HELVETICA, 12);
+            contentStream.close();
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        document.save(baos);
+        document.close();
+
+        PDDocument loadDoc = PDDocument.load(new ByteArrayInputStream(baos.toByteArray()));
+        assertNotNull(loadDoc.getResourceCache());
+        COSName name = loadDoc.getPage(0).getResources().getFontNames().iterator().next();
+        PDFont font = loadDoc.getPage(0).getResources().getFont(name);
+        assertSame(font, loadDoc.getPage(1).getResources().getFont(name));
+
+        // without cache, each lookup creates a new font
+        loadDoc.setResourceCache(null);
+        PDFont uncached = loadDoc.getPage(0).getResources().getFont(name);
+        assertNotSame(font, uncached);
+        assertNotSame(uncached, loadDoc.getPage(1).getResources().getFont(name));
+        loadDoc.close();
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.state;
+
+import java.awt.geom.Area;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Rectangle2D;
+
+import junit.framework.TestCase;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+
+/**
+ * Test of the clipping path of {@link PDGraphicsState}.
+ */
+public class PDGraphicsStateTest extends TestCase
+{
+    /**
+     * Rectangular clipping paths are intersected without Area, other shapes use an Area.
+     */
+    public void testClippingPath()
+    {
+        PDGraphicsState state = new PDGraphicsState(new PDRectangle(0, 0, 100, 200));
+        assertEquals(new Rectangle2D.Double(0, 0, 100, 200), state.getCurrentClippingShape());
+
+        PDGraphicsState clone = state.clone();
+        state.intersectClippingPath(rectangle(10, 20, 150, 50));
+        assertEquals(new Rectangle2D.Double(10, 20, 90, 50), state.getCurrentClippingShape());
+        assertTrue(new Area(new Rectangle2D.Double(10, 20, 90, 50))
+                .equals(state.getCurrentClippingPath()));
+        assertEquals(new Rectangle2D.Double(0, 0, 100, 200), clone.getCurrentClippingShape());
+
+        // a rectangle drawn clockwise and closed by a line
+        GeneralPath path = new GeneralPath();
+        path.moveTo(50, 60);
+        path.lineTo(50, 0);
+        path.lineTo(0, 0);
+        path.lineTo(0, 60);
+        path.lineTo(50, 60);
+        path.closePath();
+        state.intersectClippingPath(path);
+        assertEquals(new Rectangle2D.Double(10, 20, 40, 40), state.getCurrentClippingShape());
+
+        // rectangular areas
+        state.intersectClippingPath(new Area(new Rectangle2D.Double(20, 30, 10, 10)));
+        assertEquals(new Rectangle2D.Double(20, 30, 10, 10), state.getCurrentClippingShape());
+
+        // a triangle
+        clone = state.clone();
+        GeneralPath triangle = new GeneralPath();
+        triangle.moveTo(0, 0);
+        triangle.lineTo(100, 0);
+        triangle.lineTo(0, 100);
+        triangle.closePath();
+        state.intersectClippingPath(triangle);
+        Area expected = new Area(new Rectangle2D.Double(20, 30, 10, 10));
+        expected.intersect(new Area(triangle));
+        assertTrue(state.getCurrentClippingShape() instanceof Area);
+        assertTrue(expected.equals(state.getCurrentClippingPath()));
+        assertEquals(new Rectangle2D.Double(20, 30, 10, 10), clone.getCurrentClippingShape());
+
+        // disjoint rectangles give an empty clipping path
+        clone.intersectClippingPath(rectangle(50, 50, 10, 10));
+        assertTrue(((Rectangle2D) clone.getCurrentClippingShape()).isEmpty());
+        assertTrue(clone.getCurrentClippingPath().isEmpty());
+    }
+
+    private static GeneralPath rectangle(float x, float y, float width, float height)
+    {
+        return new PDRectangle(x, y, width, height).toGeneralPath();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.geom.GeneralPath;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of the glyph outline cache.
+ */
+public class TestGlyphCache
+{
+    /**
+     * Outlines are found by font identity and glyph number.
+     */
+    @Test
+    public void testGetPut()
+    {
+        GlyphCache cache = new GlyphCache(GlyphCache.DEFAULT_MAX_GLYPHS);
+        Object font1 = new Object();
+        Object font2 = new Object();
+        GeneralPath path = new GeneralPath();
+        cache.put(font1, 5, path);
+        assertSame(path, cache.get(font1, 5));
+        assertNull(cache.get(font1, 6));
+        assertNull(cache.get(font2, 5));
+    }
+
+    /**
+     * The least recently used outlines are evicted when the cache is full.
+     */
+    @Test
+    public void testEviction()
+    {
+        int maxGlyphs = 64;
+        GlyphCache cache = new GlyphCache(maxGlyphs);
+        Object font = new Object();
+        cache.put(font, 0, new GeneralPath());
+        for (int i = 1; i < 10 * maxGlyphs; i++)
+        {
+            // keep the first glyph in use
+            assertNotNull(cache.get(font, 0));
+            cache.put(font, i, new GeneralPath());
+        }
+        assertNotNull(cache.get(font, 0));
+        assertNull(cache.get(font, 1));
+        int cached = 0;
+        for (int i = 0; i < 10 * maxGlyphs; i++)
+        {
+            if (cache.get(font, i) != null)
+            {
+                cached++;
+            }
+        }
+        assertTrue(cached <= maxGlyphs);
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test of rendering several pages with {@link PDFRenderer}.
+ */
+public class TestPDFRenderer
+{
+    private static final File INPUT = new File("src/test/resources/input/cweb.pdf");
+    private static final float DPI = 36;
+
+    /**
+     * Pages rendered in parallel must look like pages rendered one after another.
+     *
+     * @throws IOException if something went wrong
+     */
+    @Test
+    public void testRenderImagesInParallel() throws IOException
+    {
+        PDDocument document = PDDocument.load(INPUT);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final int pageCount = document.getNumberOfPages();
+            final PDFRenderer renderer = new PDFRenderer(document);
+            final int[][] pixels = new int[pageCount][];
+            final AtomicInteger inProgress = new AtomicInteger();
+            final int maxImages = 3;
+            renderer.renderImagesWithDPI(0, pageCount - 1, DPI, ImageType.RGB, executor,
+                    maxImages, new PageImageHandler()
+            {
+                @Override
+                public void handleImage(int pageIndex, BufferedImage image)
+                {
+                    assertTrue(inProgress.incrementAndGet() <= maxImages);
+                    pixels[pageIndex] = getPixels(image);
+                    inProgress.decrementAndGet();
+                }
+            });
+            for (int i = 0; i < pageCount; i++)
+            {
+                assertNotNull("page " + i, pixels[i]);
+                BufferedImage image = renderer.renderImageWithDPI(i, DPI, ImageType.RGB);
+                assertTrue("page " + i, Arrays.equals(getPixels(image), pixels[i]));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            document.close();
+        }
+    }
+
+    /**
+     * An exception of the handler must be thrown and stop the rendering.
+     *
+     * @throws IOException if something went wrong
+     */
+    @Test
+    public void testHandlerFailure() throws IOException
+    {
+        PDDocument document = PDDocument.load(INPUT);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            final int pageCount = document.getNumberOfPages();
+            final AtomicInteger handled = new AtomicInteger();
+            PDFRenderer renderer = new PDFRenderer(document);
+            try
+            {
+                renderer.renderImagesWithDPI(0, pageCount - 1, DPI, ImageType.GRAY, executor, 1,
+                        new PageImageHandler()
+                {
+                    @Override
+                    public void handleImage(int pageIndex, BufferedImage image)
+                            throws IOException
+                    {
+                        handled.incrementAndGet();
+                        throw new IOException("page " + pageIndex);
+                    }
+                });
+                fail("IOException expected");
+            }
+            catch (IOException e)
+            {
+                assertEquals("page 0", e.getMessage());
+            }
+            // one image at a time, no further page is rendered after the failure
+            assertEquals(1, handled.get());
+        }
+        finally
+        {
+            executor.shutdown();
+            document.close();
+        }
+    }
+
+    /**
+     * After an interrupt no image is passed to the handler once the method has returned.
+     *
+     * @throws Exception if something went wrong
+     */
+    @Test
+    public void testInterrupt() throws Exception
+    {
+        PDDocument document = PDDocument.load(INPUT);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final int pageCount = document.getNumberOfPages();
+            final AtomicInteger handled = new AtomicInteger();
+            final Thread caller = Thread.currentThread();
+            PDFRenderer renderer = new PDFRenderer(document);
+            try
+            {
+                renderer.renderImagesWithDPI(0, pageCount - 1, DPI, ImageType.GRAY, executor, 4,
+                        new PageImageHandler()
+                {
+                    @Override
+                    public void handleImage(int pageIndex, BufferedImage image)
+                    {
+                        handled.incrementAndGet();
+                        caller.interrupt();
+                    }
+                });
+                fail("InterruptedIOException expected");
+            }
+            catch (InterruptedIOException e)
+            {
+                assertTrue(Thread.interrupted());
+            }
+            int handledOnReturn = handled.get();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            assertEquals(handledOnReturn, handled.get());
+        }
+        finally
+        {
+            Thread.interrupted();
+            executor.shutdown();
+            document.close();
+        }
+    }
+
+    /**
+     * Text drawn from cached glyph bitmaps must look like text drawn from the outlines.
+     *
+     * @throws IOException if something went wrong
+     */
+    @Test
+    public void testGlyphBitmapCache() throws IOException
+    {
+        PDDocument document = PDDocument.load(INPUT);
+        try
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            assertFalse(renderer.isGlyphBitmapCacheEnabled());
+            BufferedImage expected = renderer.renderImageWithDPI(0, 72, ImageType.GRAY);
+            renderer.setGlyphBitmapCacheEnabled(true);
+            assertTrue(renderer.isGlyphBitmapCacheEnabled());
+            BufferedImage actual = renderer.renderImageWithDPI(0, 72, ImageType.GRAY);
+            // once more from the filled cache
+            BufferedImage cached = renderer.renderImageWithDPI(0, 72, ImageType.GRAY);
+
+            int[] expectedPixels = getPixels(expected);
+            int[] actualPixels = getPixels(actual);
+            assertTrue(Arrays.equals(actualPixels, getPixels(cached)));
+            assertEquals(expectedPixels.length, actualPixels.length);
+            // the glyph positions are rounded to a quarter pixel
+            long difference = 0;
+            for (int i = 0; i < expectedPixels.length; i++)
+            {
+                difference += Math.abs((expectedPixels[i] & 0xff) - (actualPixels[i] & 0xff));
+            }
+            assertTrue("mean difference " + (double) difference / expectedPixels.length,
+                    difference < expectedPixels.length);
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+
+    /**
+     * A glyph rasterised with antialiasing must not be drawn from the cache without antialiasing.
+     */
+    @Test
+    public void testGlyphBitmapCacheHints()
+    {
+        GlyphBitmapCache cache = new GlyphBitmapCache(GlyphBitmapCache.DEFAULT_MAX_BYTES);
+        GeneralPath path = new GeneralPath(new Ellipse2D.Double(0, 0, 700, 700));
+        Object font = new Object();
+        AffineTransform at = new AffineTransform(0.02, 0, 0, 0.02, 5.3, 5.6);
+
+        BufferedImage antialiased = drawGlyph(cache, path, font, at,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        BufferedImage aliased = drawGlyph(cache, path, font, at,
+                RenderingHints.VALUE_ANTIALIAS_OFF);
+
+        boolean partial = false;
+        for (int pixel : getPixels(antialiased))
+        {
+            int alpha = pixel >>> 24;
+            partial |= alpha != 0 && alpha != 0xff;
+        }
+        assertTrue(partial);
+        for (int pixel : getPixels(aliased))
+        {
+            int alpha = pixel >>> 24;
+            assertTrue(alpha == 0 || alpha == 0xff);
+        }
+    }
+
+    private static BufferedImage drawGlyph(GlyphBitmapCache cache, GeneralPath path, Object font,
+            AffineTransform at, Object antialiasing)
+    {
+        BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try
+        {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasing);
+            assertTrue(cache.drawGlyph(graphics, path, font, 'o', at, Color.BLACK));
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private static int[] getPixels(BufferedImage image)
+    {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0,
+                image.getWidth());
+    }
+}
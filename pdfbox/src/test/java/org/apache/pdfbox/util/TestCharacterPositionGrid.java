@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+
+/**
+ * Test the {@link CharacterPositionGrid} class.
+ */
+public class TestCharacterPositionGrid extends TestCase
+{
+    /**
+     * The tolerance range includes its lower bound but not its upper bound.
+     */
+    public void testBounds()
+    {
+        CharacterPositionGrid grid = new CharacterPositionGrid();
+        grid.add("a", 10, 20);
+        assertTrue(grid.containsNear("a", 10, 20, 0.5f));
+        assertTrue(grid.containsNear("a", 10.5f, 20.5f, 0.5f));
+        assertFalse(grid.containsNear("a", 9.5f, 20, 0.5f));
+        assertFalse(grid.containsNear("a", 10, 19.5f, 0.5f));
+        assertFalse(grid.containsNear("b", 10, 20, 0.5f));
+        assertFalse(grid.containsNear("a", 10, 20, 0));
+        assertFalse(grid.containsNear("a", 10, 20, -1));
+        assertFalse(grid.containsNear("a", 10, 20, Float.NaN));
+        assertTrue(grid.containsNear("a", 1000, -1000, Float.POSITIVE_INFINITY));
+
+        grid.clear();
+        assertFalse(grid.containsNear("a", 10, 20, 0.5f));
+    }
+
+    /**
+     * Compares the grid with sorted sets as used by {@link PDFTextStripper} before.
+     */
+    public void testSortedSets()
+    {
+        Random random = new Random(4711);
+        String[] texts = { "a", "b", "ab", "é" };
+        CharacterPositionGrid grid = new CharacterPositionGrid();
+        Map<String, TreeMap<Float, TreeSet<Float>>> sets =
+                new HashMap<String, TreeMap<Float, TreeSet<Float>>>();
+        for (int i = 0; i < 20000; i++)
+        {
+            String text = texts[random.nextInt(texts.length)];
+            // a coarse raster to get exact duplicates and values on the bounds
+            float x = random.nextInt(400) / 4f - 50;
+            float y = random.nextInt(400) / 4f - 50;
+            float tolerance = random.nextInt(i % 100 == 0 ? 2000 : 20) / 8f;
+
+            TreeMap<Float, TreeSet<Float>> sameText = sets.get(text);
+            if (sameText == null)
+            {
+                sameText = new TreeMap<Float, TreeSet<Float>>();
+                sets.put(text, sameText);
+            }
+            boolean expected = false;
+            if (tolerance > 0)
+            {
+                for (TreeSet<Float> ySet : sameText.subMap(x - tolerance, x + tolerance).values())
+                {
+                    if (!ySet.subSet(y - tolerance, y + tolerance).isEmpty())
+                    {
+                        expected = true;
+                        break;
+                    }
+                }
+            }
+            assertEquals(expected, grid.containsNear(text, x, y, tolerance));
+            if (!expected)
+            {
+                TreeSet<Float> ySet = sameText.get(x);
+                if (ySet == null)
+                {
+                    ySet = new TreeSet<Float>();
+                    sameText.put(x, ySet);
+                }
+                ySet.add(y);
+                grid.add(text, x, y);
+            }
+        }
+    }
+}
@@ -148,6 +148,32 @@ public class TestMatrix extends TestCase
                                                11, 20, 29}, retVal);
     }
 
+    public void testTranslate() throws Exception
+    {
+        // translating in place has to give the same result as concatenating a translation matrix
+        Matrix m1 = new Matrix(2, 0.5f, -0.25f, 3, 7, -11);
+        Matrix m2 = m1.clone();
+
+        m1.translate(1.5f, -4);
+        m2.concatenate(Matrix.getTranslateInstance(1.5f, -4));
+
+        assertMatrixValuesEqualTo(new float[] {2,     0.5f, 0,
+                                               -0.25f, 3,   0,
+                                               11, -22.25f, 1}, m1);
+        for (int row = 0; row < 3; row++)
+        {
+            for (int column = 0; column < 3; column++)
+            {
+                assertEquals(m2.getValue(row, column), m1.getValue(row, column), 0);
+            }
+        }
+
+        m1.translate(new Vector(-1.5f, 4));
+        assertMatrixValuesEqualTo(new float[] {2,     0.5f, 0,
+                                               -0.25f, 3,   0,
+                                               7,    -11,   1}, m1);
+    }
+
     /**
      * This method asserts that the matrix values for the given {@link Matrix} object are equal
      * to the pristine, or original, values.
@@ -25,7 +25,13 @@ import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -34,6 +40,8 @@ import junit.framework.TestSuite;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.text.TextPosition;
 
 
 /**
@@ -381,6 +389,195 @@ public class TestTextStripper extends TestCase
             }
     }
 
+    /**
+     * Test that the text extracted in parallel equals the text extracted sequentially.
+     *
+     * @throws Exception when there is an exception
+     */
+    public void testParallelExtract() throws Exception
+    {
+        File[] testFiles = new File("src/test/resources/input").listFiles(new FilenameFilter()
+        {
+            public boolean accept(File dir, String name)
+            {
+                return (name.endsWith(".pdf"));
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            for (File testFile : testFiles)
+            {
+                PDDocument document = PDDocument.load(testFile);
+                try
+                {
+                    for (boolean sort : new boolean[] { false, true })
+                    {
+                        stripper.setSortByPosition(sort);
+                        String expected = stripper.getText(document);
+
+                        StringWriter parallel = new StringWriter();
+                        stripper.writeText(document, parallel, executor);
+                        assertEquals(testFile.getName(), expected, parallel.toString());
+
+                        StringBuilder pages = new StringBuilder();
+                        for (Future<String> page : stripper.getTextOfPages(document, executor))
+                        {
+                            pages.append(page.get());
+                        }
+                        assertEquals(testFile.getName(), expected, pages.toString());
+                    }
+                }
+                finally
+                {
+                    document.close();
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test the parallel extraction with subclasses, which either create their page range
+     * strippers by overriding createPageRangeStripper or process the pages sequentially.
+     *
+     * @throws Exception when there is an exception
+     */
+    public void testParallelExtractSubclass() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        PDDocument document = PDDocument.load(new File("src/test/resources/input/cweb.pdf"));
+        try
+        {
+            PDFTextStripper upperCaseStripper = new UpperCaseStripper();
+            upperCaseStripper.setPageEnd("--");
+            assertTrue(upperCaseStripper.createPageRangeStripper() instanceof UpperCaseStripper);
+            String expected = upperCaseStripper.getText(document);
+            assertTrue(expected.contains("--"));
+
+            StringWriter parallel = new StringWriter();
+            upperCaseStripper.writeText(document, parallel, executor);
+            assertEquals(expected, parallel.toString());
+            StringBuilder pages = new StringBuilder();
+            for (Future<String> page : upperCaseStripper.getTextOfPages(document, executor))
+            {
+                pages.append(page.get());
+            }
+            assertEquals(expected, pages.toString());
+
+            // a subclass which doesn't opt in collects all results itself
+            CollectingStripper collectingStripper = new CollectingStripper();
+            assertNull(collectingStripper.createPageRangeStripper());
+            expected = collectingStripper.getText(document);
+            int collected = collectingStripper.textPositions.size();
+            assertTrue(collected > 0);
+            parallel = new StringWriter();
+            collectingStripper.writeText(document, parallel, executor);
+            assertEquals(expected, parallel.toString());
+            assertEquals(2 * collected, collectingStripper.textPositions.size());
+            assertEquals(document.getNumberOfPages(),
+                    collectingStripper.getTextOfPages(document, executor).size());
+            assertEquals(3 * collected, collectingStripper.textPositions.size());
+
+            PDFTextStripper areaStripper = new PDFTextStripperByArea();
+            assertNull(areaStripper.createPageRangeStripper());
+            parallel = new StringWriter();
+            areaStripper.writeText(document, parallel, executor);
+            assertEquals(areaStripper.getText(document), parallel.toString());
+        }
+        finally
+        {
+            document.close();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that the parallel extraction falls back to the sequential one if bookmarks limit the
+     * pages, i.e. that the executor isn't used.
+     *
+     * @throws Exception when there is an exception
+     */
+    public void testParallelExtractWithBookmarks() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        executor.shutdown();
+        PDDocument document = PDDocument.load(new File("src/test/resources/input/cweb.pdf"));
+        try
+        {
+            PDOutlineItem bookmark = new PDOutlineItem();
+            bookmark.setDestination(document.getPage(0));
+            PDFTextStripper textStripper = new PDFTextStripper();
+            textStripper.setStartBookmark(bookmark);
+            String expected = textStripper.getText(document);
+
+            textStripper.setStartBookmark(bookmark);
+            StringWriter parallel = new StringWriter();
+            textStripper.writeText(document, parallel, executor);
+            assertEquals(expected, parallel.toString());
+
+            textStripper.setStartBookmark(bookmark);
+            StringBuilder pages = new StringBuilder();
+            for (Future<String> page : textStripper.getTextOfPages(document, executor))
+            {
+                pages.append(page.get());
+            }
+            assertEquals(expected, pages.toString());
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+
+    /**
+     * A subclass without settings of its own, which creates its page range strippers.
+     */
+    private static final class UpperCaseStripper extends PDFTextStripper
+    {
+        private UpperCaseStripper() throws IOException
+        {
+        }
+
+        @Override
+        protected void writeString(String text, List<TextPosition> textPositions)
+                throws IOException
+        {
+            super.writeString(text.toUpperCase(), textPositions);
+        }
+
+        @Override
+        protected PDFTextStripper createPageRangeStripper() throws IOException
+        {
+            PDFTextStripper stripper = new UpperCaseStripper();
+            copySettings(stripper);
+            return stripper;
+        }
+    }
+
+    /**
+     * A subclass which collects the text positions of all pages.
+     */
+    private static final class CollectingStripper extends PDFTextStripper
+    {
+        private final List<TextPosition> textPositions = new ArrayList<TextPosition>();
+
+        private CollectingStripper() throws IOException
+        {
+        }
+
+        @Override
+        protected void writeString(String text, List<TextPosition> positions)
+                throws IOException
+        {
+            textPositions.addAll(positions);
+            super.writeString(text, positions);
+        }
+    }
+
     /**
      * Set the tests in the suite for this test class.
      *
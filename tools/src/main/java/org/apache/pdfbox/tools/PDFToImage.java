@@ -21,6 +21,9 @@ import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.imageio.ImageIO;
 
@@ -29,6 +32,7 @@ import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.rendering.PageImageHandler;
 import org.apache.pdfbox.tools.imageio.ImageIOUtil;
 
 /**
@@ -51,6 +55,7 @@ public class PDFToImage
     private static final String DPI = "-dpi";
     private static final String CROPBOX = "-cropbox";
     private static final String TIME = "-time";
+    private static final String THREADS = "-threads";
 
     /**
      * private constructor.
@@ -85,6 +90,7 @@ public class PDFToImage
         float cropBoxUpperRightX = 0;
         float cropBoxUpperRightY = 0;
         boolean showTime = false;
+        int threads = 1;
         try
         {
             dpi = Toolkit.getDefaultToolkit().getScreenResolution();
@@ -167,6 +173,27 @@ public class PDFToImage
             {
                 showTime = true;
             }
+            else if( args[i].equals( THREADS ) )
+            {
+                i++;
+                if( i >= args.length )
+                {
+                    usage();
+                }
+                try
+                {
+                    threads = Integer.parseInt( args[i] );
+                }
+                catch( NumberFormatException e )
+                {
+                    threads = 0;
+                }
+                if( threads < 1 )
+                {
+                    System.err.println( "Error: The number of threads must be a positive number." );
+                    usage();
+                }
+            }
             else
             {
                 if( pdfFile == null )
@@ -231,11 +258,19 @@ public class PDFToImage
                 boolean success = true;
                 endPage = Math.min(endPage, document.getNumberOfPages());
                 PDFRenderer renderer = new PDFRenderer(document);
-                for (int i = startPage - 1; i < endPage; i++)
+                if (threads > 1)
+                {
+                    success = renderPages(renderer, startPage - 1, endPage - 1, dpi, imageType,
+                            outputPrefix, imageFormat, threads);
+                }
+                else
                 {
-                    BufferedImage image = renderer.renderImageWithDPI(i, dpi, imageType);
-                    String fileName = outputPrefix + (i + 1) + "." + imageFormat;
-                    success &= ImageIOUtil.writeImage(image, fileName, dpi);
+                    for (int i = startPage - 1; i < endPage; i++)
+                    {
+                        BufferedImage image = renderer.renderImageWithDPI(i, dpi, imageType);
+                        String fileName = outputPrefix + (i + 1) + "." + imageFormat;
+                        success &= ImageIOUtil.writeImage(image, fileName, dpi);
+                    }
                 }
 
                 // performance stats
@@ -265,6 +300,41 @@ public class PDFToImage
         }
     }
 
+    /**
+     * Renders the given pages with several threads and writes the images.
+     *
+     * @return false if no writer was found for the image format
+     */
+    private static boolean renderPages(PDFRenderer renderer, int firstPageIndex,
+            int lastPageIndex, final int dpi, ImageType imageType, final String outputPrefix,
+            final String imageFormat, int threads) throws IOException
+    {
+        final AtomicBoolean success = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            // two images per thread, so that a thread doesn't wait while another one writes
+            renderer.renderImagesWithDPI(firstPageIndex, lastPageIndex, dpi, imageType,
+                    executor, 2 * threads, new PageImageHandler()
+            {
+                @Override
+                public void handleImage(int pageIndex, BufferedImage image) throws IOException
+                {
+                    String fileName = outputPrefix + (pageIndex + 1) + "." + imageFormat;
+                    if (!ImageIOUtil.writeImage(image, fileName, dpi))
+                    {
+                        success.set(false);
+                    }
+                }
+            });
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        return success.get();
+    }
+
     /**
      * This will print the usage requirements and exit.
      */
@@ -281,6 +351,7 @@ public class PDFToImage
             "  -dpi <number>                  The DPI of the output image\n" +
             "  -cropbox <number> <number> <number> <number> The page area to export\n" +
             "  -time                          Prints timing information to stdout\n" +
+            "  -threads <number>              The number of threads rendering pages\n" +
             "  <PDF file>                     The PDF document to use\n"
             );
         System.exit( 1 );